@@ -0,0 +1,42 @@
+#!/bin/sh
+# Compares startup with and without the class-data-sharing archive. Runs the scripted
+# training session (see TrainingSession) RUNS times each way, alternating, and prints
+# the median of every "[session]" timing. Build first with `mvn -Pappcds package`.
+# Without a display only the non-UI timings are reported; use xvfb-run for the rest.
+DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$DIR/target/DevScribe-1.0-SNAPSHOT.jar"
+ARCHIVE="$DIR/target/devscribe.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+RUNS="${RUNS:-5}"
+
+if [ ! -f "$JAR" ] || [ ! -f "$ARCHIVE" ]; then
+    echo "Missing $JAR or $ARCHIVE; run mvn -Pappcds package first" >&2
+    exit 1
+fi
+
+OUT="$(mktemp -d)"
+trap 'rm -rf "$OUT"' EXIT
+
+i=1
+while [ "$i" -le "$RUNS" ]; do
+    "$JAVA" --enable-preview -Xshare:auto -jar "$JAR" --training-session 2>/dev/null \
+        | grep '^\[session\]' >> "$OUT/default"
+    "$JAVA" --enable-preview -Xshare:auto -XX:SharedArchiveFile="$ARCHIVE" -jar "$JAR" --training-session 2>/dev/null \
+        | grep '^\[session\]' >> "$OUT/appcds"
+    i=$((i + 1))
+done
+
+# Lines look like "[session] first file open: 412 ms" or "[session] finished 2100 ms
+# after JVM start"; the label is the line without the number. Median per label.
+median() {
+    sed -E 's/^\[session\] (.*[^: ]):? ([0-9]+) ms(.*)$/\1\3\t\2/' "$1" | sort -t "$(printf '\t')" -k1,1 -k2,2n \
+        | awk -F '\t' '{ values[$1] = values[$1] " " $2; count[$1]++ }
+            END { for (label in values) { split(substr(values[label], 2), v, " ");
+                  print label "\t" v[int((count[label] + 1) / 2)] } }' | sort
+}
+
+median "$OUT/default" > "$OUT/default.median"
+median "$OUT/appcds" > "$OUT/appcds.median"
+printf '%-45s %10s %10s\n' "median of $RUNS runs (ms)" "default" "appcds"
+join -t "$(printf '\t')" "$OUT/default.median" "$OUT/appcds.median" \
+    | awk -F '\t' '{ printf "%-45s %10s %10s\n", $1, $2, $3 }'
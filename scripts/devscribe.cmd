@@ -0,0 +1,15 @@
+@echo off
+rem Starts the shaded DevScribe jar, using the class-data-sharing archive built by
+rem "mvn -Pappcds package" when there is one. A stale archive is ignored, not fatal.
+setlocal
+set "DIR=%~dp0.."
+set "JAR=%DIR%\target\DevScribe-1.0-SNAPSHOT.jar"
+set "ARCHIVE=%DIR%\target\devscribe.jsa"
+set "JAVA=java"
+if defined JAVA_HOME set "JAVA=%JAVA_HOME%\bin\java"
+
+if exist "%ARCHIVE%" (
+    "%JAVA%" --enable-preview -Xshare:auto -XX:SharedArchiveFile="%ARCHIVE%" -jar "%JAR%" %*
+) else (
+    "%JAVA%" --enable-preview -jar "%JAR%" %*
+)
@@ -0,0 +1,13 @@
+#!/bin/sh
+# Starts the shaded DevScribe jar, using the class-data-sharing archive built by
+# `mvn -Pappcds package` when there is one. The archive only works with the JDK that
+# created it and the same jar; with -Xshare:auto a stale archive is ignored, not fatal.
+DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$DIR/target/DevScribe-1.0-SNAPSHOT.jar"
+ARCHIVE="$DIR/target/devscribe.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [ -f "$ARCHIVE" ]; then
+    exec "$JAVA" --enable-preview -Xshare:auto -XX:SharedArchiveFile="$ARCHIVE" -jar "$JAR" "$@"
+fi
+exec "$JAVA" --enable-preview -jar "$JAR" "$@"
@@ -1,21 +1,35 @@
 package com.DevScribe;
 
+import com.DevScribe.metrics.FxLagMonitor;
+import com.DevScribe.metrics.Metrics;
 import com.DevScribe.ui.screen.LauncherScreen;
-import com.DevScribe.ui.screen.SplashScreen;   // ⬅ add
+import com.DevScribe.ui.screen.SplashScreen;
+import com.DevScribe.utils.StartupPipeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.stage.Stage;
 
+import java.time.Duration;
+import java.time.Instant;
+
 public class App extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        FxLagMonitor.start();
+        SplashScreen splash = new SplashScreen();
+        splash.show(new Stage());
 
-        new SplashScreen().show(new Stage(), () -> {
-            Platform.runLater(() -> {                 // ensure we’re on the FX thread
-                new LauncherScreen().start(primaryStage);
+        // The splash stays up exactly as long as the background work takes
+        StartupPipeline.run().thenAccept(result -> Platform.runLater(() -> {
+            new LauncherScreen().start(primaryStage, result.projects());
+            splash.close();
+            ProcessHandle.current().info().startInstant().ifPresent(jvmStart -> {
+                Duration sinceJvmStart = Duration.between(jvmStart, Instant.now());
+                Metrics.timer("startup.launcher-shown").record(sinceJvmStart.toNanos());
+                System.out.printf("[startup] launcher shown %d ms after JVM start%n", sinceJvmStart.toMillis());
             });
-        });
+        }));
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,168 @@
+package com.DevScribe;
+
+import com.DevScribe.build.IncrementalJavaBuilder;
+import com.DevScribe.build.JavaCompileService;
+import com.DevScribe.editor.diff.LineDiff;
+import com.DevScribe.editor.diff.LineHashes;
+import com.DevScribe.git.GitProject;
+import com.DevScribe.ui.components.SourceControlPanel;
+import com.DevScribe.ui.screen.EditorScreen;
+import com.DevScribe.ui.screen.LauncherScreen;
+import com.DevScribe.utils.StartupPipeline;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import org.eclipse.jgit.api.Git;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// A scripted session (launcher, open a project, open a file, highlight it, run it in the
+// terminal) that exits on its own. The appcds build profile runs it with
+// -XX:ArchiveClassesAtExit so every class a normal session needs ends up in the shared
+// archive; scripts/cds-benchmark.sh runs it with and without the archive and compares
+// the timings it prints. It works on a sample project and a throwaway home directory, so
+// the user's recent projects and caches are left alone.
+public class TrainingSession {
+    private static final long RUN_SETTLE_MS = 3000;
+
+    private static final String SAMPLE_JAVA = """
+            import java.util.ArrayList;
+            import java.util.List;
+
+            public class Main {
+                // Prints the first primes
+                public static void main(String[] args) {
+                    List<Integer> primes = new ArrayList<>();
+                    for (int n = 2; primes.size() < 20; n++) {
+                        boolean prime = true;
+                        for (int p : primes) {
+                            if (n % p == 0) { prime = false; break; }
+                        }
+                        if (prime) primes.add(n);
+                    }
+                    System.out.println("primes: " + primes);
+                }
+            }
+            """;
+
+    private static final String SAMPLE_PYTHON = """
+            def fib(n):
+                a, b = 0, 1
+                for _ in range(n):
+                    a, b = b, a + b
+                return a
+
+            print([fib(i) for i in range(10)])
+            """;
+
+    public static void main(String[] args) throws Exception {
+        Path home = Files.createTempDirectory("devscribe-training");
+        System.setProperty("user.home", home.toString());
+        Path project = createSampleProject(home.resolve("sample"));
+
+        long start = System.nanoTime();
+        warmUpBackgroundWork(project);
+        System.out.printf("[session] git and compile: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        int exitCode = 0;
+        try {
+            Platform.startup(() -> {
+                // Errors in later pulses end the session at once instead of at the timeout
+                Thread.currentThread().setUncaughtExceptionHandler((thread, error) -> done.completeExceptionally(error));
+                try {
+                    runSession(project, done);
+                } catch (Exception e) {
+                    done.completeExceptionally(e);
+                }
+            });
+            done.get(60, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // An archive without the JavaFX, RichTextFX and editor classes must not pass for a
+            // complete one; the appcds profile runs headless on Monocle, so this is a real error
+            System.err.println("[session] UI part failed: " + e);
+            exitCode = 1;
+        }
+        ProcessHandle.current().info().startInstant().ifPresent(jvmStart ->
+                System.out.printf("[session] finished %d ms after JVM start%n",
+                        Duration.between(jvmStart, Instant.now()).toMillis()));
+        GitProject.closeAll();
+        deleteRecursively(home);
+        System.exit(exitCode);
+    }
+
+    // The non-UI work of a session: git, diffing and compilation
+    private static void warmUpBackgroundWork(Path project) throws Exception {
+        GitProject git = GitProject.find(project);
+        if (git != null) {
+            Path main = project.resolve("Main.java");
+            long[] head = git.getHeadContent().getLineHashes(main);
+            long[] current = LineHashes.of(Files.readString(main));
+            if (head != null) LineDiff.diff(head, current);
+        }
+        if (JavaCompileService.isAvailable()) {
+            Path main = project.resolve("Main.java");
+            IncrementalJavaBuilder.forSource(project, main, Files.readString(main)).build(Map.of(), null);
+        }
+    }
+
+    private static void runSession(Path project, CompletableFuture<Void> done) {
+        StartupPipeline.run().thenAccept(result -> Platform.runLater(() -> {
+            new LauncherScreen().start(new Stage(), result.projects());
+            ProcessHandle.current().info().startInstant().ifPresent(jvmStart ->
+                    System.out.printf("[session] launcher shown %d ms after JVM start%n",
+                            Duration.between(jvmStart, Instant.now()).toMillis()));
+
+            EditorScreen editor = new EditorScreen();
+            editor.start(new Stage(), project, true);
+
+            long openStart = System.nanoTime();
+            editor.openFile(project.resolve("Main.java"));
+            // Counted up to the next pulse, when the tab has been laid out and drawn
+            Platform.runLater(() -> {
+                System.out.printf("[session] first file open: %d ms%n", (System.nanoTime() - openStart) / 1_000_000);
+                editor.openFile(project.resolve("script.py"));
+
+                GitProject git = GitProject.find(project);
+                if (git != null) new SourceControlPanel(git, (title, diff) -> { }).refresh();
+
+                editor.getEditorTabPane().getSelectionModel().selectFirst();
+                editor.runCurrentFile();
+                CompletableFuture.delayedExecutor(RUN_SETTLE_MS, TimeUnit.MILLISECONDS)
+                        .execute(() -> done.complete(null));
+            });
+        })).exceptionally(error -> {
+            done.completeExceptionally(error);
+            return null;
+        });
+    }
+
+    private static void deleteRecursively(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static Path createSampleProject(Path project) throws Exception {
+        Files.createDirectories(project);
+        Files.writeString(project.resolve("Main.java"), SAMPLE_JAVA);
+        Files.writeString(project.resolve("script.py"), SAMPLE_PYTHON);
+        try (Git git = Git.init().setDirectory(project.toFile()).call()) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("Sample project").setAuthor("DevScribe", "devscribe@localhost")
+                    .setCommitter("DevScribe", "devscribe@localhost").setSign(false).call();
+        }
+        // An uncommitted edit, so the diff gutter has something to show
+        Files.writeString(project.resolve("Main.java"), SAMPLE_JAVA.replace("first primes", "first 20 primes"));
+        return project;
+    }
+}
@@ -0,0 +1,28 @@
+package com.DevScribe.build;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Outcome of an incremental project build. classOrigins covers every class currently
+// in the output directory, not only the ones compiled by this build.
+public record BuildResult(List<CompileDiagnostic> diagnostics,
+                          Map<String, Path> classOrigins,
+                          Set<Path> failedSources,
+                          int compiledSources,
+                          int totalSources,
+                          long elapsedMillis) {
+
+    public boolean success() {
+        return failedSources.isEmpty();
+    }
+
+    public boolean isCompiled(Path source) {
+        return !failedSources.contains(source.toAbsolutePath().normalize());
+    }
+
+    public String findMainClass(Path source) {
+        return CompileResult.findMainClass(classOrigins, source);
+    }
+}
@@ -0,0 +1,158 @@
+package com.DevScribe.build;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+// What the incremental builder needs to know about a compiled class: the classes it
+// refers to, a hash of its non-private API and a hash of its inlinable constants.
+// Reads the class file format directly so no bytecode library is required.
+record ClassFileInfo(String className, Set<String> referencedClasses, long abiHash, long constantsHash) {
+
+    private static final int ACC_PRIVATE = 0x0002;
+
+    static ClassFileInfo read(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        int count = in.readUnsignedShort();
+        int[] tags = new int[count];
+        Object[] pool = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = tag;
+            switch (tag) {
+                case 1 -> pool[i] = in.readUTF();
+                case 3 -> pool[i] = in.readInt();
+                case 4 -> pool[i] = in.readFloat();
+                case 5 -> pool[i++] = in.readLong();
+                case 6 -> pool[i++] = in.readDouble();
+                case 7, 8, 16, 19, 20 -> pool[i] = in.readUnsignedShort();
+                case 9, 10, 11, 12, 17, 18 -> {
+                    in.readUnsignedShort();
+                    in.readUnsignedShort();
+                }
+                case 15 -> {
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        Set<String> references = new HashSet<>();
+        for (int i = 1; i < count; i++) {
+            if (tags[i] == 7) {
+                String name = (String) pool[(Integer) pool[i]];
+                if (name.startsWith("[")) {
+                    addDescriptorTypes(references, name);
+                } else {
+                    references.add(name.replace('/', '.'));
+                }
+            } else if (tags[i] == 1) {
+                // Descriptors and generic signatures name types that never get a Class entry
+                addDescriptorTypes(references, (String) pool[i]);
+            }
+        }
+
+        Hasher abi = new Hasher();
+        Hasher constants = new Hasher();
+
+        abi.add(in.readUnsignedShort());
+        String thisName = className(pool, in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        abi.add(thisName).add(superIndex == 0 ? "" : className(pool, superIndex));
+        int interfaces = in.readUnsignedShort();
+        for (int i = 0; i < interfaces; i++) {
+            abi.add(className(pool, in.readUnsignedShort()));
+        }
+
+        int fields = in.readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            readMember(in, pool, tags, abi, constants);
+        }
+        int methods = in.readUnsignedShort();
+        for (int i = 0; i < methods; i++) {
+            readMember(in, pool, tags, abi, null);
+        }
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = (String) pool[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (name.equals("Signature")) {
+                abi.add((String) pool[in.readUnsignedShort()]);
+            } else {
+                in.skipNBytes(length);
+            }
+        }
+
+        String className = thisName.replace('/', '.');
+        references.remove(className);
+        return new ClassFileInfo(className, references, abi.value(), constants.value());
+    }
+
+    private static void readMember(DataInputStream in, Object[] pool, int[] tags,
+                                   Hasher abi, Hasher constants) throws IOException {
+        int access = in.readUnsignedShort();
+        String name = (String) pool[in.readUnsignedShort()];
+        String descriptor = (String) pool[in.readUnsignedShort()];
+        boolean visible = (access & ACC_PRIVATE) == 0;
+        if (visible) {
+            abi.add(access).add(name).add(descriptor);
+        }
+
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String attribute = (String) pool[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (attribute.equals("ConstantValue") && constants != null) {
+                Object value = constantValue(pool, tags, in.readUnsignedShort());
+                if (visible) {
+                    // Constants are inlined by javac into their users, which then carry no
+                    // reference back to this class
+                    constants.add(name).add(String.valueOf(value));
+                    abi.add(String.valueOf(value));
+                }
+            } else if (attribute.equals("Signature") && visible) {
+                abi.add((String) pool[in.readUnsignedShort()]);
+            } else {
+                in.skipNBytes(length);
+            }
+        }
+    }
+
+    private static Object constantValue(Object[] pool, int[] tags, int index) {
+        return tags[index] == 8 ? pool[(Integer) pool[index]] : pool[index];
+    }
+
+    private static String className(Object[] pool, int classIndex) {
+        return (String) pool[(Integer) pool[classIndex]];
+    }
+
+    // Collects every "Lsome/pkg/Type;" occurrence from a descriptor or signature
+    private static void addDescriptorTypes(Set<String> references, String value) {
+        int start = value.indexOf('L');
+        while (start >= 0) {
+            int end = start + 1;
+            while (end < value.length()) {
+                char c = value.charAt(end);
+                if (c == ';' || c == '<') break;
+                if (!Character.isJavaIdentifierPart(c) && c != '/') {
+                    end = -1;
+                    break;
+                }
+                end++;
+            }
+            if (end > start + 1 && end < value.length()) {
+                references.add(value.substring(start + 1, end).replace('/', '.'));
+            }
+            start = value.indexOf('L', Math.max(start + 1, end));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.DevScribe.build;
+
+import java.nio.file.Path;
+
+// One compiler message, already mapped back to the source file it belongs to
+public record CompileDiagnostic(Kind kind, Path source, long line, long column, String message) {
+
+    public enum Kind { ERROR, WARNING, NOTE }
+
+    public boolean isError() {
+        return kind == Kind.ERROR;
+    }
+
+    @Override
+    public String toString() {
+        String location = source == null ? "" : source.getFileName() + ":" + line + ":" + column + ": ";
+        return location + kind.name().toLowerCase() + ": " + message;
+    }
+}
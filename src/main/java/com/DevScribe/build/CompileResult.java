@@ -0,0 +1,32 @@
+package com.DevScribe.build;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of one compiler invocation. classOrigins maps every emitted binary class
+// name to the source file it was generated from.
+public record CompileResult(boolean success,
+                            List<CompileDiagnostic> diagnostics,
+                            Map<String, Path> classOrigins,
+                            long elapsedMillis) {
+
+    // Finds the top-level class emitted for a source file, e.g. com.acme.Main for .../Main.java
+    public String findMainClass(Path source) {
+        return findMainClass(classOrigins, source);
+    }
+
+    static String findMainClass(Map<String, Path> classOrigins, Path source) {
+        source = source.toAbsolutePath().normalize();
+        String fileName = source.getFileName().toString();
+        String simpleName = fileName.endsWith(".java") ? fileName.substring(0, fileName.length() - 5) : fileName;
+        for (Map.Entry<String, Path> entry : classOrigins.entrySet()) {
+            String className = entry.getKey();
+            if (!source.equals(entry.getValue()) || className.contains("$")) continue;
+            if (className.equals(simpleName) || className.endsWith("." + simpleName)) {
+                return className;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.DevScribe.build;
+
+// 64-bit FNV-1a, used to fingerprint sources and class APIs between builds
+final class Hasher {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    Hasher add(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * PRIME;
+        }
+        // Separator so ("ab", "c") and ("a", "bc") differ
+        hash = (hash ^ 0xFFFF) * PRIME;
+        return this;
+    }
+
+    Hasher add(int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * PRIME;
+        }
+        return this;
+    }
+
+    long value() {
+        return hash;
+    }
+
+    static long hash(CharSequence text) {
+        return new Hasher().add(text).value();
+    }
+}
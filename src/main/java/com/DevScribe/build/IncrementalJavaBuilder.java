@@ -0,0 +1,586 @@
+package com.DevScribe.build;
+
+import com.DevScribe.utils.AppDirs;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Incremental build of one source root (e.g. src/main/java, or a plain folder of
+// default-package sources). Keeps a source -> class dependency graph, recompiles only
+// changed sources plus the sources depending on classes whose API changed, and writes
+// to a dedicated output directory. Independent groups of dirty sources are compiled
+// in parallel.
+public class IncrementalJavaBuilder {
+
+    private static final Map<Path, IncrementalJavaBuilder> BUILDERS = new ConcurrentHashMap<>();
+    // Build tool output folders, only skipped directly under the project root
+    private static final Set<String> ROOT_OUTPUT_DIRECTORIES = Set.of("target", "build", "out", "bin");
+    private static final int STATE_VERSION = 1;
+    // Below this many dirty sources a single javac task is cheaper than splitting the work
+    private static final int PARALLEL_THRESHOLD = 16;
+    private static final int PACKAGE_SCAN_CHARS = 4096;
+    // Shared by the builders of all source roots; builders are cached for the whole session
+    private static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService COMPILE_POOL = Executors.newFixedThreadPool(PARALLELISM,
+            Thread.ofPlatform().daemon().name("javac-", 0).factory());
+
+    private final Path projectRoot;
+    private final Path sourceRoot;
+    private final JavaCompileService compileService;
+    private final Path outputDir;
+    private final Path stateFile;
+
+    private final Map<Path, SourceState> sources = new HashMap<>();
+    private final Map<String, ClassState> classes = new HashMap<>();
+    private final Map<String, Set<Path>> dependents = new HashMap<>();
+    // Whether a .java file under the root declares the package its location implies, by mtime
+    private final Map<Path, long[]> membership = new HashMap<>();
+    private boolean stateLoaded = false;
+
+    private static final class SourceState {
+        long lastModified;
+        long size;
+        long contentHash;
+        boolean fromBuffer;
+        List<String> classNames = List.of();
+        Set<String> dependencies = Set.of();
+    }
+
+    private record ClassState(Path source, long abiHash, long constantsHash) {}
+
+    private record BatchOutcome(Map<Path, List<String>> emitted, Set<Path> failed) {}
+
+    private IncrementalJavaBuilder(Path projectRoot, Path sourceRoot) {
+        this.projectRoot = projectRoot;
+        this.sourceRoot = sourceRoot;
+        this.compileService = JavaCompileService.forProject(projectRoot);
+
+        String rootKey = sourceRoot.equals(projectRoot) || !sourceRoot.startsWith(projectRoot)
+                ? "root"
+                : projectRoot.relativize(sourceRoot).toString().replace(File.separatorChar, '_');
+        this.outputDir = compileService.getOutputDirectory().resolve(rootKey);
+        this.stateFile = AppDirs.getProjectCacheDir(projectRoot).resolve("build-state-" + rootKey + ".bin");
+    }
+
+    // The builder for the source root containing the given file
+    public static IncrementalJavaBuilder forSource(Path projectRoot, Path sourceFile, CharSequence code) {
+        Path root = projectRoot.toAbsolutePath().normalize();
+        Path sourceRoot = JavaSources.sourceRootOf(sourceFile, JavaSources.readPackageName(code));
+        return BUILDERS.computeIfAbsent(sourceRoot, r -> new IncrementalJavaBuilder(root, r));
+    }
+
+    public Path getOutputDirectory() {
+        return outputDir;
+    }
+
+    public List<Path> getClasspath() {
+        List<Path> classpath = new ArrayList<>();
+        classpath.add(outputDir);
+        classpath.addAll(compileService.getLibraryJars());
+        return classpath;
+    }
+
+    // Brings the output directory up to date. Sources present in buffers are compiled from
+    // that text instead of from disk. A source that fails to compile does not stop the rest
+    // of the build; its errors are reported and it is retried on the next build.
+    public synchronized BuildResult build(Map<Path, String> buffers, Consumer<CompileDiagnostic> listener) throws IOException {
+        long start = System.nanoTime();
+        loadState();
+
+        Map<Path, String> normalizedBuffers = new LinkedHashMap<>();
+        buffers.forEach((path, text) -> normalizedBuffers.put(normalize(path), text));
+
+        Map<Path, BasicFileAttributes> current = scanSources();
+        for (Path buffered : normalizedBuffers.keySet()) {
+            if (!current.containsKey(buffered) && Files.isRegularFile(buffered)) {
+                current.put(buffered, Files.readAttributes(buffered, BasicFileAttributes.class));
+            }
+        }
+
+        Set<String> removedClasses = new HashSet<>();
+        for (Path known : new ArrayList<>(sources.keySet())) {
+            if (!current.containsKey(known)) {
+                removedClasses.addAll(removeSource(known));
+            }
+        }
+
+        // Buffered sources go first so they win over duplicates elsewhere in the root
+        Set<Path> dirty = new LinkedHashSet<>();
+        for (Path buffered : normalizedBuffers.keySet()) {
+            SourceState state = sources.get(buffered);
+            if (current.containsKey(buffered)
+                    && (state == null || isChanged(state, current.get(buffered), normalizedBuffers.get(buffered)))) {
+                dirty.add(buffered);
+            }
+        }
+        for (Map.Entry<Path, BasicFileAttributes> entry : current.entrySet()) {
+            SourceState state = sources.get(entry.getKey());
+            if (state == null || isChanged(state, entry.getValue(), normalizedBuffers.get(entry.getKey()))) {
+                dirty.add(entry.getKey());
+            }
+        }
+        dirty.addAll(dependentsOf(removedClasses));
+
+        List<CompileDiagnostic> diagnostics = new ArrayList<>();
+        Set<CompileDiagnostic> forwarded = ConcurrentHashMap.newKeySet();
+        Consumer<CompileDiagnostic> dedupingListener = diagnostic -> {
+            // Retries after excluding broken sources repeat the same messages
+            if (forwarded.add(diagnostic)) {
+                synchronized (diagnostics) {
+                    diagnostics.add(diagnostic);
+                }
+                if (listener != null) {
+                    listener.accept(diagnostic);
+                }
+            }
+        };
+
+        Set<Path> failed = new HashSet<>();
+        Set<Path> compiled = new HashSet<>();
+        while (!dirty.isEmpty()) {
+            compiled.addAll(dirty);
+            Set<String> apiChanges = new HashSet<>();
+            boolean constantsChanged = compileRound(dirty, normalizedBuffers, current, dedupingListener, failed, apiChanges);
+
+            // Constants are inlined without leaving a reference behind, so a changed
+            // constant means any source might be stale
+            Set<Path> next = new LinkedHashSet<>(constantsChanged ? current.keySet() : dependentsOf(apiChanges));
+            next.removeAll(compiled);
+            dirty = next;
+        }
+
+        saveState();
+
+        Map<String, Path> classOrigins = new HashMap<>();
+        classes.forEach((name, state) -> classOrigins.put(name, state.source()));
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        return new BuildResult(List.copyOf(diagnostics), classOrigins, Set.copyOf(failed),
+                compiled.size(), current.size(), elapsed);
+    }
+
+    private boolean compileRound(Set<Path> dirty, Map<Path, String> buffers, Map<Path, BasicFileAttributes> current,
+                                 Consumer<CompileDiagnostic> listener, Set<Path> failed,
+                                 Set<String> apiChanges) throws IOException {
+        List<List<Path>> batches = partition(dirty);
+        Map<Path, List<String>> emitted = new LinkedHashMap<>();
+        Set<Path> roundFailed = new LinkedHashSet<>();
+
+        if (batches.size() == 1) {
+            BatchOutcome outcome = compileBatch(batches.get(0), buffers, listener);
+            emitted.putAll(outcome.emitted());
+            roundFailed.addAll(outcome.failed());
+        } else {
+            List<Future<BatchOutcome>> futures = new ArrayList<>();
+            for (List<Path> batch : batches) {
+                futures.add(COMPILE_POOL.submit(() -> compileBatch(batch, buffers, listener)));
+            }
+            for (Future<BatchOutcome> future : futures) {
+                BatchOutcome outcome = await(future);
+                emitted.putAll(outcome.emitted());
+                roundFailed.addAll(outcome.failed());
+            }
+            if (!roundFailed.isEmpty()) {
+                // A source may only have failed because something it needs was being
+                // compiled in a sibling batch; now that those are written, try once more
+                BatchOutcome retry = compileBatch(new ArrayList<>(roundFailed), buffers, listener);
+                emitted.putAll(retry.emitted());
+                roundFailed = new LinkedHashSet<>(retry.failed());
+            }
+        }
+
+        boolean constantsChanged = false;
+        for (Map.Entry<Path, List<String>> entry : emitted.entrySet()) {
+            Path source = entry.getKey();
+            constantsChanged |= recordSource(source, entry.getValue(), current.get(source), buffers.get(source), apiChanges);
+        }
+        failed.addAll(roundFailed);
+        return constantsChanged;
+    }
+
+    private BatchOutcome compileBatch(List<Path> batch, Map<Path, String> buffers,
+                                      Consumer<CompileDiagnostic> listener) throws IOException {
+        Set<Path> remaining = new LinkedHashSet<>(batch);
+        Set<Path> batchFailed = new LinkedHashSet<>();
+        while (!remaining.isEmpty()) {
+            CompileResult result = compileService.compile(remaining, buffers, outputDir, List.of(), listener);
+            if (result.success()) {
+                Map<Path, List<String>> emitted = new LinkedHashMap<>();
+                for (Path source : remaining) {
+                    emitted.put(source, new ArrayList<>());
+                }
+                result.classOrigins().forEach((className, origin) -> {
+                    List<String> names = emitted.get(origin);
+                    if (names != null) names.add(className);
+                });
+                return new BatchOutcome(emitted, batchFailed);
+            }
+
+            // javac writes nothing when any unit has errors, so drop the broken ones and
+            // compile the rest again
+            Set<Path> broken = new HashSet<>();
+            for (CompileDiagnostic diagnostic : result.diagnostics()) {
+                if (diagnostic.isError() && diagnostic.source() != null && remaining.contains(diagnostic.source())) {
+                    broken.add(diagnostic.source());
+                }
+            }
+            if (broken.isEmpty()) {
+                broken.addAll(remaining);
+            }
+            batchFailed.addAll(broken);
+            remaining.removeAll(broken);
+        }
+        return new BatchOutcome(Map.of(), batchFailed);
+    }
+
+    // Splits dirty sources into groups with no dependencies between them, balanced over
+    // the available cores
+    private List<List<Path>> partition(Set<Path> dirty) {
+        if (dirty.size() < PARALLEL_THRESHOLD || PARALLELISM == 1) {
+            return List.of(new ArrayList<>(dirty));
+        }
+        for (Path source : dirty) {
+            // Without build history a source's dependencies are unknown
+            if (!sources.containsKey(source)) {
+                return List.of(new ArrayList<>(dirty));
+            }
+        }
+
+        Map<Path, Path> parent = new HashMap<>();
+        for (Path source : dirty) {
+            parent.put(source, source);
+        }
+        for (Path source : dirty) {
+            for (String dependency : sources.get(source).dependencies) {
+                ClassState owner = classes.get(dependency);
+                if (owner != null && parent.containsKey(owner.source())) {
+                    union(parent, source, owner.source());
+                }
+            }
+        }
+
+        Map<Path, List<Path>> components = new LinkedHashMap<>();
+        for (Path source : dirty) {
+            components.computeIfAbsent(find(parent, source), k -> new ArrayList<>()).add(source);
+        }
+        if (components.size() == 1) {
+            return List.of(new ArrayList<>(dirty));
+        }
+
+        List<List<Path>> sorted = new ArrayList<>(components.values());
+        sorted.sort((a, b) -> Integer.compare(b.size(), a.size()));
+        int batchCount = Math.min(PARALLELISM, sorted.size());
+        List<List<Path>> batches = new ArrayList<>();
+        for (int i = 0; i < batchCount; i++) {
+            batches.add(new ArrayList<>());
+        }
+        for (List<Path> component : sorted) {
+            List<Path> smallest = batches.get(0);
+            for (List<Path> batch : batches) {
+                if (batch.size() < smallest.size()) smallest = batch;
+            }
+            smallest.addAll(component);
+        }
+        return batches;
+    }
+
+    private static Path find(Map<Path, Path> parent, Path node) {
+        Path root = node;
+        while (!parent.get(root).equals(root)) {
+            root = parent.get(root);
+        }
+        while (!parent.get(node).equals(root)) {
+            Path next = parent.get(node);
+            parent.put(node, root);
+            node = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<Path, Path> parent, Path a, Path b) {
+        Path rootA = find(parent, a);
+        Path rootB = find(parent, b);
+        if (!rootA.equals(rootB)) {
+            parent.put(rootA, rootB);
+        }
+    }
+
+    // Updates the graph for a freshly compiled source; returns true if one of its
+    // inlinable constants changed
+    private boolean recordSource(Path source, List<String> classNames, BasicFileAttributes attrs,
+                                 String buffer, Set<String> apiChanges) throws IOException {
+        SourceState previous = sources.get(source);
+        boolean constantsChanged = false;
+        Set<String> dependencies = new HashSet<>();
+
+        for (String className : classNames) {
+            ClassState old = classes.get(className);
+            ClassFileInfo info;
+            try {
+                info = ClassFileInfo.read(Files.readAllBytes(classFile(className)));
+            } catch (IOException e) {
+                classes.put(className, new ClassState(source, 0, 0));
+                apiChanges.add(className);
+                continue;
+            }
+            for (String dependency : info.referencedClasses()) {
+                if (!isPlatformClass(dependency)) {
+                    dependencies.add(dependency);
+                }
+            }
+            classes.put(className, new ClassState(source, info.abiHash(), info.constantsHash()));
+            if (old == null || old.abiHash() != info.abiHash()) {
+                apiChanges.add(className);
+            }
+            if (old != null && old.constantsHash() != info.constantsHash()) {
+                constantsChanged = true;
+            }
+        }
+        if (previous != null) {
+            for (String oldClass : previous.classNames) {
+                if (!classNames.contains(oldClass)) {
+                    classes.remove(oldClass);
+                    Files.deleteIfExists(classFile(oldClass));
+                    apiChanges.add(oldClass);
+                }
+            }
+            unlinkDependencies(source, previous.dependencies);
+        }
+        dependencies.removeAll(classNames);
+
+        SourceState state = new SourceState();
+        if (attrs != null) {
+            state.lastModified = attrs.lastModifiedTime().toMillis();
+            state.size = attrs.size();
+        }
+        String diskText = readText(source);
+        long diskHash = diskText == null ? 0 : Hasher.hash(diskText);
+        state.contentHash = buffer != null ? Hasher.hash(buffer) : diskHash;
+        state.fromBuffer = buffer != null && state.contentHash != diskHash;
+        state.classNames = List.copyOf(classNames);
+        state.dependencies = Set.copyOf(dependencies);
+        sources.put(source, state);
+        linkDependencies(source, state.dependencies);
+        return constantsChanged;
+    }
+
+    private List<String> removeSource(Path source) throws IOException {
+        SourceState state = sources.remove(source);
+        if (state == null) return List.of();
+        unlinkDependencies(source, state.dependencies);
+        for (String className : state.classNames) {
+            classes.remove(className);
+            Files.deleteIfExists(classFile(className));
+        }
+        return state.classNames;
+    }
+
+    private void linkDependencies(Path source, Set<String> dependencies) {
+        for (String dependency : dependencies) {
+            dependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(source);
+        }
+    }
+
+    private void unlinkDependencies(Path source, Set<String> dependencies) {
+        for (String dependency : dependencies) {
+            Set<Path> users = dependents.get(dependency);
+            if (users != null) {
+                users.remove(source);
+                if (users.isEmpty()) dependents.remove(dependency);
+            }
+        }
+    }
+
+    private Set<Path> dependentsOf(Collection<String> classNames) {
+        Set<Path> result = new LinkedHashSet<>();
+        for (String className : classNames) {
+            Set<Path> users = dependents.get(className);
+            if (users != null) result.addAll(users);
+        }
+        return result;
+    }
+
+    private boolean isChanged(SourceState state, BasicFileAttributes attrs, String buffer) {
+        if (buffer != null) {
+            return state.contentHash != Hasher.hash(buffer);
+        }
+        return state.fromBuffer
+                || state.lastModified != attrs.lastModifiedTime().toMillis()
+                || state.size != attrs.size();
+    }
+
+    private Map<Path, BasicFileAttributes> scanSources() throws IOException {
+        Map<Path, BasicFileAttributes> found = new HashMap<>();
+        Files.walkFileTree(sourceRoot, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(sourceRoot)) return FileVisitResult.CONTINUE;
+                String name = dir.getFileName().toString();
+                if (name.startsWith(".") || name.equals("node_modules")) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (projectRoot.equals(dir.getParent()) && ROOT_OUTPUT_DIRECTORIES.contains(name)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".java")
+                        && belongsToRoot(file, attrs)) {
+                    found.put(file, attrs);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        membership.keySet().retainAll(found.keySet());
+        return found;
+    }
+
+    // A file belongs to this root when its package matches its folder, so a folder of
+    // default-package programs doesn't swallow the sources of nested roots
+    private boolean belongsToRoot(Path file, BasicFileAttributes attrs) {
+        long modified = attrs.lastModifiedTime().toMillis();
+        long[] cached = membership.get(file);
+        if (cached != null && cached[0] == modified) {
+            return cached[1] == 1;
+        }
+
+        String expectedPackage = sourceRoot.relativize(file.getParent()).toString().replace(File.separatorChar, '.');
+        boolean belongs;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            char[] head = new char[PACKAGE_SCAN_CHARS];
+            int read = reader.read(head);
+            belongs = JavaSources.readPackageName(new String(head, 0, Math.max(read, 0))).equals(expectedPackage);
+        } catch (IOException e) {
+            belongs = false;
+        }
+        membership.put(file, new long[]{modified, belongs ? 1 : 0});
+        return belongs;
+    }
+
+    private Path classFile(String className) {
+        return outputDir.resolve(className.replace('.', File.separatorChar) + ".class");
+    }
+
+    private static boolean isPlatformClass(String className) {
+        return className.startsWith("java.") || className.startsWith("javax.")
+                || className.startsWith("jdk.") || className.startsWith("sun.");
+    }
+
+    private static String readText(Path source) {
+        try {
+            return new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static BatchOutcome await(Future<BatchOutcome> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Build interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Compilation failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    // ===================== Build state persistence =====================
+
+    private void loadState() {
+        if (stateLoaded) return;
+        stateLoaded = true;
+        if (!Files.isRegularFile(stateFile) || !Files.isDirectory(outputDir)) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if (in.readInt() != STATE_VERSION) return;
+            int sourceCount = in.readInt();
+            for (int i = 0; i < sourceCount; i++) {
+                Path source = Paths.get(in.readUTF());
+                SourceState state = new SourceState();
+                state.lastModified = in.readLong();
+                state.size = in.readLong();
+                state.contentHash = in.readLong();
+                state.fromBuffer = in.readBoolean();
+                state.classNames = readStrings(in, new ArrayList<>());
+                state.dependencies = readStrings(in, new HashSet<>());
+                sources.put(source, state);
+                linkDependencies(source, state.dependencies);
+            }
+            int classCount = in.readInt();
+            for (int i = 0; i < classCount; i++) {
+                String name = in.readUTF();
+                Path source = Paths.get(in.readUTF());
+                classes.put(name, new ClassState(source, in.readLong(), in.readLong()));
+            }
+        } catch (IOException | RuntimeException e) {
+            // A damaged state only costs a full rebuild
+            sources.clear();
+            classes.clear();
+            dependents.clear();
+        }
+    }
+
+    private void saveState() {
+        try {
+            Files.createDirectories(stateFile.getParent());
+            Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(STATE_VERSION);
+                out.writeInt(sources.size());
+                for (Map.Entry<Path, SourceState> entry : sources.entrySet()) {
+                    SourceState state = entry.getValue();
+                    out.writeUTF(entry.getKey().toString());
+                    out.writeLong(state.lastModified);
+                    out.writeLong(state.size);
+                    out.writeLong(state.contentHash);
+                    out.writeBoolean(state.fromBuffer);
+                    writeStrings(out, state.classNames);
+                    writeStrings(out, state.dependencies);
+                }
+                out.writeInt(classes.size());
+                for (Map.Entry<String, ClassState> entry : classes.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue().source().toString());
+                    out.writeLong(entry.getValue().abiHash());
+                    out.writeLong(entry.getValue().constantsHash());
+                }
+            }
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not save build state: " + e.getMessage());
+        }
+    }
+
+    private static <C extends Collection<String>> C readStrings(DataInputStream in, C target) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            target.add(in.readUTF());
+        }
+        return target;
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+}
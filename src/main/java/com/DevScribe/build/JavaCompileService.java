@@ -0,0 +1,218 @@
+package com.DevScribe.build;
+
+import com.DevScribe.utils.AppDirs;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Compiles Java sources in-process with javax.tools instead of spawning javac.
+// One instance per project keeps the compiler and its file managers (with the
+// opened lib/*.jar archives) warm between runs.
+public class JavaCompileService {
+
+    private static final JavaCompiler COMPILER = ToolProvider.getSystemJavaCompiler();
+    private static final Map<Path, JavaCompileService> SERVICES = new ConcurrentHashMap<>();
+    private static final List<String> COMPILER_OPTIONS = List.of("-g", "-proc:none", "-encoding", "UTF-8");
+
+    private final Path projectRoot;
+    // File managers cache opened jars and directory listings; they are not thread safe,
+    // so each concurrent compilation borrows its own
+    private final BlockingQueue<StandardJavaFileManager> idleFileManagers = new LinkedBlockingQueue<>();
+    private volatile List<Path> libraryJars = List.of();
+    private volatile long libraryStamp = Long.MIN_VALUE;
+
+    private JavaCompileService(Path projectRoot) {
+        this.projectRoot = projectRoot;
+    }
+
+    // False when running on a JRE without the java.compiler module's implementation
+    public static boolean isAvailable() {
+        return COMPILER != null;
+    }
+
+    public static JavaCompileService forProject(Path projectRoot) {
+        return SERVICES.computeIfAbsent(projectRoot.toAbsolutePath().normalize(), JavaCompileService::new);
+    }
+
+    public Path getProjectRoot() {
+        return projectRoot;
+    }
+
+    public Path getOutputDirectory() {
+        return AppDirs.getProjectCacheDir(projectRoot).resolve("classes");
+    }
+
+    public List<Path> getLibraryJars() {
+        refreshLibraries();
+        return libraryJars;
+    }
+
+    // Loads and JIT-warms javac in the background so the first Run doesn't pay for it
+    public void warmUp() {
+        if (!isAvailable()) return;
+        Thread.ofVirtual().name("javac-warmup").start(() -> {
+            Path scratch = null;
+            try {
+                scratch = Files.createTempDirectory("devscribe-warmup");
+                Path source = scratch.resolve("Warmup.java");
+                String code = "class Warmup { public static void main(String[] args) { System.out.println(args.length); } }";
+                compile(List.of(source), Map.of(source, code), scratch, List.of(), null);
+            } catch (IOException e) {
+                System.err.println("Compiler warm-up failed: " + e.getMessage());
+            } finally {
+                deleteRecursively(scratch);
+            }
+        });
+    }
+
+    // Compiles the given sources into outputDir. Sources present in buffers are compiled
+    // from that text (the editor buffer) rather than from disk. Diagnostics are passed to
+    // the listener as they are produced and also collected in the result.
+    public CompileResult compile(Collection<Path> sources,
+                                 Map<Path, String> buffers,
+                                 Path outputDir,
+                                 List<Path> sourcePath,
+                                 Consumer<CompileDiagnostic> listener) throws IOException {
+        if (!isAvailable()) {
+            throw new IllegalStateException("No system Java compiler available; run DevScribe on a JDK.");
+        }
+
+        long start = System.nanoTime();
+        Files.createDirectories(outputDir);
+
+        List<CompileDiagnostic> diagnostics = Collections.synchronizedList(new ArrayList<>());
+        Map<String, Path> classOrigins = new ConcurrentHashMap<>();
+
+        StandardJavaFileManager fileManager = borrowFileManager();
+        try {
+            List<Path> classpath = new ArrayList<>();
+            classpath.add(outputDir);
+            classpath.addAll(getLibraryJars());
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(outputDir));
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, classpath);
+            fileManager.setLocationFromPaths(StandardLocation.SOURCE_PATH, sourcePath);
+
+            List<JavaFileObject> units = new ArrayList<>();
+            for (Path source : sources) {
+                String buffer = buffers.get(source);
+                if (buffer != null) {
+                    units.add(new SourceBuffer(source, buffer));
+                } else {
+                    for (JavaFileObject unit : fileManager.getJavaFileObjects(source)) {
+                        units.add(unit);
+                    }
+                }
+            }
+
+            JavaFileManager recordingManager = new ForwardingJavaFileManager<>(fileManager) {
+                @Override
+                public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                           JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+                    if (kind == JavaFileObject.Kind.CLASS && sibling != null) {
+                        Path origin = toPath(sibling.toUri());
+                        if (origin != null) {
+                            classOrigins.put(className, origin);
+                        }
+                    }
+                    return super.getJavaFileForOutput(location, className, kind, sibling);
+                }
+            };
+
+            DiagnosticListener<JavaFileObject> diagnosticListener = d -> {
+                CompileDiagnostic diagnostic = toDiagnostic(d);
+                diagnostics.add(diagnostic);
+                if (listener != null) {
+                    listener.accept(diagnostic);
+                }
+            };
+
+            boolean success = units.isEmpty()
+                    || COMPILER.getTask(null, recordingManager, diagnosticListener, COMPILER_OPTIONS, null, units).call();
+
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            return new CompileResult(success, List.copyOf(diagnostics), Map.copyOf(classOrigins), elapsed);
+        } finally {
+            idleFileManagers.offer(fileManager);
+        }
+    }
+
+    private StandardJavaFileManager borrowFileManager() {
+        StandardJavaFileManager fileManager = idleFileManagers.poll();
+        return fileManager != null ? fileManager : COMPILER.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+    }
+
+    private void refreshLibraries() {
+        Path libDir = projectRoot.resolve("lib");
+        long stamp;
+        try {
+            stamp = Files.isDirectory(libDir) ? Files.getLastModifiedTime(libDir).toMillis() : -1;
+        } catch (IOException e) {
+            stamp = -1;
+        }
+        if (stamp == libraryStamp) return;
+
+        List<Path> jars = new ArrayList<>();
+        if (stamp != -1) {
+            try (Stream<Path> entries = Files.list(libDir)) {
+                entries.filter(p -> p.getFileName().toString().endsWith(".jar"))
+                        .sorted()
+                        .forEach(jars::add);
+            } catch (IOException e) {
+                System.err.println("Could not list " + libDir + ": " + e.getMessage());
+            }
+        }
+        libraryJars = List.copyOf(jars);
+        libraryStamp = stamp;
+    }
+
+    private static CompileDiagnostic toDiagnostic(Diagnostic<? extends JavaFileObject> d) {
+        CompileDiagnostic.Kind kind = switch (d.getKind()) {
+            case ERROR -> CompileDiagnostic.Kind.ERROR;
+            case WARNING, MANDATORY_WARNING -> CompileDiagnostic.Kind.WARNING;
+            default -> CompileDiagnostic.Kind.NOTE;
+        };
+        Path source = d.getSource() == null ? null : toPath(d.getSource().toUri());
+        return new CompileDiagnostic(kind, source, d.getLineNumber(), d.getColumnNumber(),
+                d.getMessage(Locale.getDefault()));
+    }
+
+    private static Path toPath(URI uri) {
+        try {
+            return Paths.get(uri);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        if (dir == null) return;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException ignored) {
+        }
+    }
+
+    // A compilation unit backed by editor text, identified by the file it will be saved to
+    private static class SourceBuffer extends SimpleJavaFileObject {
+        private final String text;
+
+        SourceBuffer(Path path, String text) {
+            super(path.toAbsolutePath().normalize().toUri(), Kind.SOURCE);
+            this.text = text;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return text;
+        }
+    }
+}
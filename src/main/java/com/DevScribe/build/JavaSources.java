@@ -0,0 +1,113 @@
+package com.DevScribe.build;
+
+import java.nio.file.Path;
+
+// Small helpers for locating Java sources without invoking the compiler
+public class JavaSources {
+
+    // Reads the package declaration of a compilation unit, skipping leading whitespace,
+    // comments and annotations. Returns "" for the default package.
+    public static String readPackageName(CharSequence code) {
+        int i = skipTrivia(code, 0);
+        while (i < code.length() && code.charAt(i) == '@') {
+            // Package annotations (package-info.java): skip the name and any argument list
+            i = skipIdentifierPath(code, i + 1);
+            i = skipTrivia(code, i);
+            if (i < code.length() && code.charAt(i) == '(') {
+                int depth = 0;
+                for (; i < code.length(); i++) {
+                    char c = code.charAt(i);
+                    if (c == '(') depth++;
+                    else if (c == ')' && --depth == 0) {
+                        i++;
+                        break;
+                    }
+                }
+            }
+            i = skipTrivia(code, i);
+        }
+
+        if (!startsWithKeyword(code, i, "package")) {
+            return "";
+        }
+        i = skipTrivia(code, i + "package".length());
+        StringBuilder name = new StringBuilder();
+        while (i < code.length()) {
+            char c = code.charAt(i);
+            if (c == ';') {
+                return name.toString();
+            }
+            if (Character.isJavaIdentifierPart(c) || c == '.') {
+                name.append(c);
+                i++;
+            } else if (Character.isWhitespace(c) || c == '/') {
+                i = skipTrivia(code, i);
+            } else {
+                return "";
+            }
+        }
+        return "";
+    }
+
+    // The directory that acts as source root for a file in the given package,
+    // e.g. src/main/java for src/main/java/com/acme/Main.java in package com.acme
+    public static Path sourceRootOf(Path file, String packageName) {
+        Path dir = file.toAbsolutePath().normalize().getParent();
+        if (packageName == null || packageName.isEmpty()) {
+            return dir;
+        }
+        String[] segments = packageName.split("\\.");
+        for (int s = segments.length - 1; s >= 0 && dir != null; s--) {
+            if (dir.getFileName() == null || !dir.getFileName().toString().equals(segments[s])) {
+                // Directory layout does not follow the package; fall back to the file's folder
+                return file.toAbsolutePath().normalize().getParent();
+            }
+            dir = dir.getParent();
+        }
+        return dir;
+    }
+
+    private static int skipTrivia(CharSequence code, int i) {
+        while (i < code.length()) {
+            char c = code.charAt(i);
+            if (Character.isWhitespace(c) || c == '\uFEFF') {
+                i++;
+            } else if (c == '/' && i + 1 < code.length() && code.charAt(i + 1) == '/') {
+                while (i < code.length() && code.charAt(i) != '\n') i++;
+            } else if (c == '/' && i + 1 < code.length() && code.charAt(i + 1) == '*') {
+                int end = indexOf(code, "*/", i + 2);
+                i = end < 0 ? code.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static int skipIdentifierPath(CharSequence code, int i) {
+        while (i < code.length() && (Character.isJavaIdentifierPart(code.charAt(i)) || code.charAt(i) == '.')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWithKeyword(CharSequence code, int i, String keyword) {
+        int end = i + keyword.length();
+        if (end > code.length()) return false;
+        for (int k = 0; k < keyword.length(); k++) {
+            if (code.charAt(i + k) != keyword.charAt(k)) return false;
+        }
+        return end == code.length() || !Character.isJavaIdentifierPart(code.charAt(end));
+    }
+
+    private static int indexOf(CharSequence code, String needle, int from) {
+        outer:
+        for (int i = from; i <= code.length() - needle.length(); i++) {
+            for (int k = 0; k < needle.length(); k++) {
+                if (code.charAt(i + k) != needle.charAt(k)) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
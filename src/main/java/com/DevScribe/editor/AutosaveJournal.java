@@ -0,0 +1,446 @@
+package com.DevScribe.editor;
+
+import com.DevScribe.metrics.Counter;
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
+import com.DevScribe.utils.AppDirs;
+import javafx.application.Platform;
+import org.fxmisc.richtext.model.PlainTextChange;
+import org.reactfx.Subscription;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Keeps unsaved edits safe from crashes. Every change to a dirty document is appended to
+// a per-project journal as a small delta (position, removed length, inserted text); the
+// first change after a save is logged as a snapshot of the whole text instead, since the
+// deltas need a base. The editor only queues the change: one background thread encodes
+// the records, appends them and forces them to disk at most once a second, so a
+// keystroke never waits for I/O and a crash loses about a second of typing. Each record
+// carries a CRC and replay stops at the first torn one.
+//
+// Once the log has grown by COMPACT_BYTES it is rewritten as one snapshot per dirty
+// document, so its size follows the unsaved text rather than the amount of typing. The
+// next time the project is opened the journal is replayed and the dirty buffers come
+// back as unsaved tabs.
+public class AutosaveJournal {
+    private static final int MAGIC = 0x44534a4c;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final byte SNAPSHOT = 1;
+    private static final byte EDIT = 2;
+    private static final byte CLEAN = 3;
+    private static final long FORCE_INTERVAL_MS = 1000;
+    private static final long COMPACT_BYTES = Long.getLong("devscribe.autosave.compactBytes", 8L * 1024 * 1024);
+    private static final long CLOSE_TIMEOUT_MS = 2000;
+    private static final Timer COMPACT = Metrics.timer("autosave.compact");
+    private static final Counter WRITTEN = Metrics.counter("autosave.bytes");
+
+    public record RecoveredDocument(Path path, String text) {
+    }
+
+    // Work for the writer thread, in the order the editor produced it
+    private sealed interface Entry permits Change, Compaction, Stop {
+    }
+
+    private record Change(byte type, int id, Path path, int position, int removed, String text) implements Entry {
+    }
+
+    private record Compaction(List<Change> snapshots) implements Entry {
+    }
+
+    private record Stop(boolean clean) implements Entry {
+    }
+
+    private final Path journal;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final Executor uiThread;
+    private final List<RecoveredDocument> recovered;
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // Set when the journal is closed or can't be written; later changes are dropped
+    private volatile boolean stopped = false;
+    private volatile boolean compactionRequested = false;
+
+    // Writer thread only
+    private FileChannel channel;
+    private long sinceCompaction = 0;
+
+    // UI thread only. A document is tracked from its first unsaved change until it is
+    // clean again; its id names it in the journal
+    private final Map<Document, Integer> ids = new HashMap<>();
+    private final Set<Document> tracked = new HashSet<>();
+    private final Map<Document, Subscription> subscriptions = new HashMap<>();
+    private int nextId;
+
+    private AutosaveJournal(Path dir, FileChannel lockChannel, FileLock lock, Executor uiThread) throws IOException {
+        this.journal = dir.resolve("journal.log");
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        this.uiThread = uiThread;
+
+        Replay replay = replay(journal);
+        this.recovered = replay.documents();
+        this.nextId = replay.nextId();
+        channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (replay.validLength() < HEADER_BYTES) {
+            channel.truncate(0);
+            writeFully(channel, header());
+        } else {
+            // New records must not follow a torn tail, or replay would never reach them
+            channel.truncate(replay.validLength());
+        }
+        channel.position(channel.size());
+
+        writer = new Thread(this::writeLoop, "autosave");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // The project's journal, or null if it can't be opened or another window of the
+    // project already has it
+    public static AutosaveJournal open(Path projectRoot) {
+        return open(AppDirs.getProjectCacheDir(projectRoot).resolve("autosave"), Platform::runLater);
+    }
+
+    static AutosaveJournal open(Path dir, Executor uiThread) {
+        FileChannel lockChannel = null;
+        try {
+            Files.createDirectories(dir);
+            lockChannel = FileChannel.open(dir.resolve("journal.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = lockChannel.tryLock();
+            if (lock != null) return new AutosaveJournal(dir, lockChannel, lock, uiThread);
+        } catch (OverlappingFileLockException e) {
+            // Another window of this process has the project open
+        } catch (IOException e) {
+            System.err.println("Autosave disabled: " + e.getMessage());
+        }
+        if (lockChannel != null) {
+            try {
+                lockChannel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        return null;
+    }
+
+    // Unsaved buffers found in the journal when it was opened, one per document
+    public List<RecoveredDocument> getRecovered() {
+        return recovered;
+    }
+
+    // Starts journaling the window's documents and reopens the recovered buffers in it
+    public void attach(DocumentManager documents) {
+        documents.addListener(this::onDocumentEvent);
+        for (Document document : documents.documents()) {
+            if (!document.isHibernated()) watch(document);
+        }
+        if (recovered.isEmpty()) return;
+
+        for (RecoveredDocument unsaved : recovered) {
+            try {
+                Document document = unsaved.path() != null && Files.isRegularFile(unsaved.path())
+                        ? documents.open(unsaved.path())
+                        : documents.create();
+                if (!document.getText().equals(unsaved.text())) {
+                    document.getArea().replaceText(unsaved.text());
+                }
+            } catch (IOException e) {
+                System.err.println("Could not restore unsaved changes to " + unsaved.path() + ": " + e.getMessage());
+            }
+        }
+        // The restored documents were journaled again under new ids; drop the old entries
+        compact();
+    }
+
+    // Flushes what is queued; the journal is deleted if no document is dirty
+    public void close() {
+        subscriptions.values().forEach(Subscription::unsubscribe);
+        subscriptions.clear();
+        enqueue(new Stop(tracked.isEmpty()));
+        stopped = true;
+        try {
+            writer.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void onDocumentEvent(DocumentManager.DocumentEvent event) {
+        Document document = event.document();
+        switch (event.type()) {
+            case OPENED, RESTORED -> watch(document);
+            case HIBERNATED -> unwatch(document);
+            case CLOSED -> {
+                unwatch(document);
+                forget(document);
+                ids.remove(document);
+            }
+            case SAVED, DIRTY_CHANGED -> {
+                if (!document.isDirty()) forget(document);
+            }
+            case RENAMED -> {
+                if (tracked.contains(document)) enqueue(snapshotOf(document));
+            }
+        }
+    }
+
+    private void watch(Document document) {
+        unwatch(document);
+        subscriptions.put(document, document.getArea().multiPlainChanges()
+                .subscribe(changes -> changed(document, changes)));
+    }
+
+    private void unwatch(Document document) {
+        Subscription subscription = subscriptions.remove(document);
+        if (subscription != null) subscription.unsubscribe();
+    }
+
+    // Runs on every edit, so it only allocates and queues
+    private void changed(Document document, List<PlainTextChange> changes) {
+        if (stopped) return;
+        // Changes of one multi-change are not positioned for replay one after another
+        if (tracked.add(document) || changes.size() > 1) {
+            enqueue(snapshotOf(document));
+            return;
+        }
+        int id = idOf(document);
+        for (PlainTextChange change : changes) {
+            enqueue(new Change(EDIT, id, null, change.getPosition(), change.getRemoved().length(), change.getInserted()));
+        }
+    }
+
+    private void forget(Document document) {
+        if (tracked.remove(document)) enqueue(new Change(CLEAN, idOf(document), null, 0, 0, null));
+    }
+
+    private void compact() {
+        List<Change> snapshots = new ArrayList<>();
+        for (Document document : tracked) snapshots.add(snapshotOf(document));
+        enqueue(new Compaction(snapshots));
+    }
+
+    private Change snapshotOf(Document document) {
+        return new Change(SNAPSHOT, idOf(document), document.getPath(), 0, 0, document.getText());
+    }
+
+    private int idOf(Document document) {
+        return ids.computeIfAbsent(document, d -> nextId++);
+    }
+
+    private void enqueue(Entry entry) {
+        if (!stopped) queue.add(entry);
+    }
+
+    private void writeLoop() {
+        long lastForce = 0;
+        boolean unforced = false;
+        try {
+            while (true) {
+                Entry entry = queue.poll(FORCE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    List<Entry> batch = new ArrayList<>();
+                    batch.add(entry);
+                    queue.drainTo(batch);
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    for (Entry next : batch) {
+                        if (next instanceof Change change) {
+                            encode(change, buffer);
+                        } else if (next instanceof Compaction compaction) {
+                            append(buffer);
+                            compact(compaction.snapshots());
+                            unforced = false;
+                        } else if (next instanceof Stop stop) {
+                            append(buffer);
+                            finish(stop.clean());
+                            return;
+                        }
+                    }
+                    unforced |= append(buffer);
+                }
+                // Group commit: one force covers everything written since the last one
+                long now = System.nanoTime();
+                if (unforced && now - lastForce >= TimeUnit.MILLISECONDS.toNanos(FORCE_INTERVAL_MS)) {
+                    channel.force(false);
+                    lastForce = now;
+                    unforced = false;
+                }
+                if (sinceCompaction > COMPACT_BYTES && !compactionRequested) {
+                    compactionRequested = true;
+                    uiThread.execute(this::compact);
+                }
+            }
+        } catch (IOException e) {
+            stopped = true;
+            queue.clear();
+            System.err.println("Autosave stopped: " + e.getMessage());
+            releaseLock();
+        } catch (InterruptedException e) {
+            releaseLock();
+        }
+    }
+
+    private boolean append(ByteArrayOutputStream buffer) throws IOException {
+        if (buffer.size() == 0) return false;
+        writeFully(channel, buffer.toByteArray());
+        sinceCompaction += buffer.size();
+        WRITTEN.add(buffer.size());
+        buffer.reset();
+        return true;
+    }
+
+    // Writes the snapshots to a new file and swaps it in, so a crash leaves one or the other
+    private void compact(List<Change> snapshots) throws IOException {
+        long start = COMPACT.start();
+        Path temp = journal.resolveSibling("journal.tmp");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        buffer.write(header());
+        for (Change snapshot : snapshots) encode(snapshot, buffer);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, buffer.toByteArray());
+            out.force(false);
+        }
+        channel.close();
+        Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        WRITTEN.add(buffer.size());
+        sinceCompaction = 0;
+        compactionRequested = false;
+        COMPACT.stop(start);
+    }
+
+    private void finish(boolean clean) throws IOException {
+        channel.force(false);
+        channel.close();
+        if (clean) Files.deleteIfExists(journal);
+        releaseLock();
+    }
+
+    private void releaseLock() {
+        try {
+            if (channel != null) channel.close();
+            lock.release();
+            lockChannel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // [length][type, id, fields][crc32 of the payload]
+    private static void encode(Change change, ByteArrayOutputStream buffer) {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeByte(change.type());
+            payload.writeInt(change.id());
+            if (change.type() == SNAPSHOT) {
+                payload.writeUTF(change.path() == null ? "" : change.path().toString());
+            } else if (change.type() == EDIT) {
+                payload.writeInt(change.position());
+                payload.writeInt(change.removed());
+            }
+            if (change.type() != CLEAN) {
+                byte[] text = change.text().getBytes(StandardCharsets.UTF_8);
+                payload.writeInt(text.length);
+                payload.write(text);
+            }
+            byte[] bytes = payloadBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            // In-memory streams don't throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Replay(List<RecoveredDocument> documents, int nextId, long validLength) {
+    }
+
+    private static Replay replay(Path journal) {
+        if (!Files.isRegularFile(journal)) return new Replay(List.of(), 0, 0);
+        Map<Integer, Path> paths = new TreeMap<>();
+        Map<Integer, StringBuilder> texts = new HashMap<>();
+        int maxId = -1;
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal)))) {
+            long size = Files.size(journal);
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return new Replay(List.of(), 0, 0);
+            validLength = HEADER_BYTES;
+            while (validLength + 8 <= size) {
+                int length = in.readInt();
+                if (length < 5 || validLength + 8 + length > size) break;
+                byte[] bytes = in.readNBytes(length);
+                int expected = in.readInt();
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if ((int) crc.getValue() != expected) break;
+
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+                byte type = payload.readByte();
+                int id = payload.readInt();
+                maxId = Math.max(maxId, id);
+                if (type == SNAPSHOT) {
+                    String path = payload.readUTF();
+                    paths.put(id, path.isEmpty() ? null : Paths.get(path));
+                    texts.put(id, new StringBuilder(readText(payload)));
+                } else if (type == EDIT) {
+                    int position = payload.readInt();
+                    int removed = payload.readInt();
+                    String inserted = readText(payload);
+                    StringBuilder text = texts.get(id);
+                    if (text != null && position >= 0 && removed >= 0 && position + removed <= text.length()) {
+                        text.replace(position, position + removed, inserted);
+                    } else if (text != null) {
+                        // Deltas that don't fit would only make the text worse
+                        texts.remove(id);
+                        paths.remove(id);
+                    }
+                } else if (type == CLEAN) {
+                    texts.remove(id);
+                    paths.remove(id);
+                }
+                validLength += 8 + length;
+            }
+        } catch (IOException e) {
+            System.err.println("Autosave journal unreadable past byte " + validLength + ": " + e.getMessage());
+        }
+
+        // A crash between a restore and the compaction after it leaves a file under two
+        // ids; the later one is newer
+        Map<Object, RecoveredDocument> documents = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Path> entry : paths.entrySet()) {
+            Object key = entry.getValue() != null ? entry.getValue() : entry.getKey();
+            documents.remove(key);
+            documents.put(key, new RecoveredDocument(entry.getValue(), texts.get(entry.getKey()).toString()));
+        }
+        return new Replay(List.copyOf(documents.values()), maxId + 1, validLength);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] header() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT_VERSION).array();
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+}
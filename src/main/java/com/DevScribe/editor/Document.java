@@ -0,0 +1,113 @@
+package com.DevScribe.editor;
+
+import com.DevScribe.editor.history.EditHistory;
+import javafx.scene.control.Tab;
+import org.fxmisc.richtext.CodeArea;
+import org.reactfx.Subscription;
+
+import java.nio.file.Path;
+
+// An open file: its editor, its tab and whether it has unsaved changes. Every edit bumps
+// the revision; the document is dirty while the revision differs from the one last
+// saved, so no keystroke has to compare the text with what is on disk. A hibernated
+// document has no editor, only a snapshot of its text (see DocumentManager); its undo
+// history lives here, not in the editor, and carries over.
+public class Document {
+    private Path path;
+    private final Tab tab;
+    private final EditHistory history;
+    private CodeArea area;
+    private Subscription editSubscription;
+    private DocumentSnapshot snapshot;
+    private long revision = 0;
+    private long savedRevision = 0;
+    private boolean longLines = false;
+
+    Document(Path path, Tab tab, EditHistory history) {
+        this.path = path;
+        this.tab = tab;
+        this.history = history;
+    }
+
+    // Canonical path of the file, or null for a new file that was never saved
+    public Path getPath() {
+        return path;
+    }
+
+    // The editor, or null while the document is hibernated
+    public CodeArea getArea() {
+        return area;
+    }
+
+    public boolean isHibernated() {
+        return area == null;
+    }
+
+    public String getText() {
+        return area != null ? area.getText() : snapshot.text();
+    }
+
+    public EditHistory getHistory() {
+        return history;
+    }
+
+    public Tab getTab() {
+        return tab;
+    }
+
+    public String getName() {
+        return path == null ? "Untitled" : path.getFileName().toString();
+    }
+
+    // Shown unwrapped whatever the Word Wrap setting (see LongLines)
+    public boolean hasLongLines() {
+        return longLines;
+    }
+
+    void setLongLines(boolean longLines) {
+        this.longLines = longLines;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public boolean isDirty() {
+        return revision != savedRevision;
+    }
+
+    void setPath(Path path) {
+        this.path = path;
+    }
+
+    void attach(CodeArea area, Subscription editSubscription) {
+        this.area = area;
+        this.editSubscription = editSubscription;
+        this.snapshot = null;
+    }
+
+    // Releases the editor, keeping the snapshot in its place
+    void detach(DocumentSnapshot snapshot) {
+        if (editSubscription != null) editSubscription.unsubscribe();
+        this.area = null;
+        this.editSubscription = null;
+        this.snapshot = snapshot;
+    }
+
+    DocumentSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Returns true if the document just became dirty
+    boolean edited() {
+        return revision++ == savedRevision;
+    }
+
+    // Returns true if the dirty state changed; edits made after the saved text was taken
+    // keep the document dirty
+    boolean saved(long revision) {
+        boolean wasDirty = isDirty();
+        savedRevision = revision;
+        return wasDirty != isDirty();
+    }
+}
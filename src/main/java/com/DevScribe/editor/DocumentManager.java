@@ -0,0 +1,336 @@
+package com.DevScribe.editor;
+
+import com.DevScribe.editor.history.EditHistory;
+import com.DevScribe.editor.history.HistoryUndoManager;
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
+import com.DevScribe.utils.AppDirs;
+import com.DevScribe.utils.PathValidator;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.Tooltip;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.model.PlainTextChange;
+import org.fxmisc.richtext.model.TwoDimensional.Bias;
+import org.reactfx.Subscription;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Owns the open documents of an editor window and their tabs. Documents are found by
+// canonical path or by tab with a map lookup, so opening an already open file, routing
+// compiler output to a buffer or saving never scans the tabs, and two files with the same
+// name in different folders stay two documents. Everything else (gutters, highlighting,
+// git status) hangs off the single event stream.
+//
+// Only the most recently used documents keep an editor. Beyond the live limit the least
+// recently selected ones are hibernated: their text goes into a snapshot, the editor and
+// everything attached to it is released, and a new editor is built when the tab is
+// selected again. Memory then grows with the text of the open files, not with their
+// editors, however many tabs are open.
+//
+// Undo history belongs to the document and is written to the history directory when it
+// closes, so reopening an unchanged file brings its history back.
+public class DocumentManager {
+    public enum EventType { OPENED, CLOSED, SAVED, RENAMED, DIRTY_CHANGED, HIBERNATED, RESTORED }
+
+    private static final int DEFAULT_LIVE_LIMIT = 12;
+    private static final Timer HIBERNATE = Metrics.timer("tab.hibernate");
+    private static final Timer RESTORE = Metrics.timer("tab.restore");
+
+    public record DocumentEvent(EventType type, Document document) {
+    }
+
+    private final TabPane tabPane;
+    private final Map<Path, Document> byPath = new HashMap<>();
+    private final Map<Tab, Document> byTab = new HashMap<>();
+    private final List<Consumer<DocumentEvent>> listeners = new ArrayList<>();
+    // Least recently selected first
+    private final LinkedHashSet<Document> recentlyUsed = new LinkedHashSet<>();
+    private Path historyDir = AppDirs.getAppDir().resolve("history");
+    private boolean wrapText = true;
+    private int liveLimit = Integer.getInteger("devscribe.liveTabs", DEFAULT_LIVE_LIMIT);
+    // Asked before a dirty document's tab closes; false keeps it open
+    private Predicate<Document> closeGuard = document -> true;
+
+    public DocumentManager(TabPane tabPane) {
+        this.tabPane = tabPane;
+        tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
+            Document document = forTab(newTab);
+            if (document == null) return;
+            restore(document);
+            recentlyUsed.remove(document);
+            recentlyUsed.add(document);
+            hibernateExcess();
+        });
+    }
+
+    public void addListener(Consumer<DocumentEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void setCloseGuard(Predicate<Document> closeGuard) {
+        this.closeGuard = closeGuard;
+    }
+
+    // Where undo histories spill and are kept between sessions
+    public void setHistoryDir(Path historyDir) {
+        this.historyDir = historyDir;
+        Thread.ofVirtual().name("history-cleanup").start(() -> EditHistory.deleteStaleSpills(historyDir));
+    }
+
+    // Word wrap for every document except those with long lines, which stay unwrapped
+    public void setWrapText(boolean wrapText) {
+        this.wrapText = wrapText;
+        for (Document document : byTab.values()) {
+            if (!document.isHibernated()) document.getArea().setWrapText(wrapText && !document.hasLongLines());
+        }
+    }
+
+    // Number of documents that keep their editor while in the background
+    public void setLiveLimit(int liveLimit) {
+        this.liveLimit = Math.max(1, liveLimit);
+        hibernateExcess();
+    }
+
+    // The open document for a file, or null
+    public Document get(Path file) {
+        return byPath.get(PathValidator.canonical(file));
+    }
+
+    // The document shown in a tab, or null for tabs that are not documents
+    public Document forTab(Tab tab) {
+        return tab == null ? null : byTab.get(tab);
+    }
+
+    public Document current() {
+        return forTab(tabPane.getSelectionModel().getSelectedItem());
+    }
+
+    public Collection<Document> documents() {
+        return Collections.unmodifiableCollection(byTab.values());
+    }
+
+    // Selects the file's tab if it is open, otherwise reads it into a new one
+    public Document open(Path file) throws IOException {
+        Path key = PathValidator.canonical(file);
+        Document document = byPath.get(key);
+        if (document == null) {
+            document = register(key, Files.readString(key, StandardCharsets.UTF_8));
+        }
+        select(document);
+        return document;
+    }
+
+    // An empty document with no file behind it until it is saved
+    public Document create() {
+        Document document = register(null, "");
+        select(document);
+        return document;
+    }
+
+    public void select(Document document) {
+        tabPane.getSelectionModel().select(document.getTab());
+    }
+
+    public void save(Document document) throws IOException {
+        if (document.getPath() == null) {
+            throw new IllegalStateException("Document has no file yet");
+        }
+        saveAs(document, document.getPath());
+    }
+
+    public void saveAs(Document document, Path file) throws IOException {
+        Path target = file.toAbsolutePath().normalize();
+        Document other = byPath.get(PathValidator.canonical(target));
+        if (other != null && other != document) {
+            throw new IOException(target.getFileName() + " is open in another tab; close it first.");
+        }
+        long revision = document.getRevision();
+        Path parent = target.getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.writeString(target, document.getText(), StandardCharsets.UTF_8);
+
+        Path key = PathValidator.canonical(target);
+        boolean moved = !key.equals(document.getPath());
+        if (moved) move(document, key);
+        if (document.saved(revision)) {
+            updateTab(document);
+            fire(EventType.DIRTY_CHANGED, document);
+        }
+        fire(EventType.SAVED, document);
+        if (moved) fire(EventType.RENAMED, document);
+    }
+
+    // A file or folder was renamed on disk; documents at or below it follow it
+    public void renamed(Path oldPath, Path newPath) {
+        Path parent = oldPath.toAbsolutePath().normalize().getParent();
+        Path oldKey = parent == null ? oldPath : PathValidator.canonical(parent).resolve(oldPath.getFileName());
+        Path newKey = PathValidator.canonical(newPath);
+        List<Document> affected = new ArrayList<>();
+        for (Document document : byPath.values()) {
+            if (document.getPath().startsWith(oldKey)) affected.add(document);
+        }
+        for (Document document : affected) {
+            move(document, newKey.resolve(oldKey.relativize(document.getPath())));
+            updateTab(document);
+            fire(EventType.RENAMED, document);
+        }
+    }
+
+    public void close(Document document) {
+        tabPane.getTabs().remove(document.getTab());
+        unregister(document);
+    }
+
+    // Writes every document's undo history for the next session; called as the window closes
+    public void persistHistories() {
+        for (Document document : byTab.values()) persistHistory(document);
+    }
+
+    private Document register(Path key, String content) {
+        Tab tab = new Tab();
+        EditHistory history = key == null ? new EditHistory(historyDir) : EditHistory.load(historyFile(key), content, historyDir);
+        Document document = new Document(key, tab, history);
+        attachEditor(document, content);
+        if (key != null) byPath.put(key, document);
+        byTab.put(tab, document);
+
+        tab.setOnCloseRequest(event -> {
+            if (document.isDirty() && !closeGuard.test(document)) event.consume();
+        });
+        tab.setOnClosed(event -> unregister(document));
+
+        updateTab(document);
+        updateTooltip(document);
+        tabPane.getTabs().add(tab);
+        fire(EventType.OPENED, document);
+        return document;
+    }
+
+    private void unregister(Document document) {
+        if (byTab.remove(document.getTab()) == null) return;
+        if (document.getPath() != null) byPath.remove(document.getPath(), document);
+        recentlyUsed.remove(document);
+        fire(EventType.CLOSED, document);
+        persistHistory(document);
+        document.detach(null);
+    }
+
+    private void persistHistory(Document document) {
+        if (document.getPath() == null) {
+            document.getHistory().close();
+        } else {
+            document.getHistory().persist(historyFile(document.getPath()), document.getText());
+        }
+    }
+
+    private Path historyFile(Path key) {
+        return historyDir.resolve(UUID.nameUUIDFromBytes(key.toString().getBytes(StandardCharsets.UTF_8)) + ".undo");
+    }
+
+    private void attachEditor(Document document, String text) {
+        CodeArea area = new CodeArea(text);
+        if (!document.hasLongLines()) document.setLongLines(LongLines.exceeds(text));
+        area.setWrapText(wrapText && !document.hasLongLines());
+
+        HistoryUndoManager undoManager = new HistoryUndoManager(area, document.getHistory());
+        area.setUndoManager(undoManager);
+
+        Subscription edits = area.multiPlainChanges().subscribe(changes -> {
+            if (!document.hasLongLines()) checkLineLength(document, changes);
+            if (document.edited()) {
+                updateTab(document);
+                fire(EventType.DIRTY_CHANGED, document);
+            }
+        });
+        document.attach(area, edits.and(undoManager::close));
+        document.getTab().setContent(new EditorPane(area, document));
+    }
+
+    // A paste can make a long line too; only the paragraphs that received text are measured
+    private void checkLineLength(Document document, List<PlainTextChange> changes) {
+        CodeArea area = document.getArea();
+        for (PlainTextChange change : changes) {
+            if (change.getInserted().isEmpty()) continue;
+            int first = area.offsetToPosition(change.getPosition(), Bias.Forward).getMajor();
+            int last = area.offsetToPosition(change.getInsertionEnd(), Bias.Forward).getMajor();
+            for (int paragraph = first; paragraph <= last; paragraph++) {
+                if (area.getParagraphLength(paragraph) > LongLines.LIMIT) {
+                    document.setLongLines(true);
+                    area.setWrapText(false);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void hibernateExcess() {
+        int live = 0;
+        for (Document document : recentlyUsed) {
+            if (!document.isHibernated()) live++;
+        }
+        Tab selected = tabPane.getSelectionModel().getSelectedItem();
+        for (Iterator<Document> it = recentlyUsed.iterator(); it.hasNext() && live > liveLimit; ) {
+            Document document = it.next();
+            if (!document.isHibernated() && document.getTab() != selected) {
+                hibernate(document);
+                live--;
+            }
+        }
+    }
+
+    private void hibernate(Document document) {
+        long start = HIBERNATE.start();
+        CodeArea area = document.getArea();
+        // Listeners let go of the editor while it still exists
+        fire(EventType.HIBERNATED, document);
+        int topParagraph = area.getVisibleParagraphs().isEmpty() ? 0 : area.firstVisibleParToAllParIndex();
+        document.detach(DocumentSnapshot.of(area.getText(), area.getCaretPosition(), topParagraph));
+        document.getTab().setContent(null);
+        HIBERNATE.stop(start);
+    }
+
+    private void restore(Document document) {
+        if (!document.isHibernated()) return;
+        long start = RESTORE.start();
+        DocumentSnapshot snapshot = document.getSnapshot();
+        attachEditor(document, snapshot.text());
+        CodeArea area = document.getArea();
+        area.moveTo(Math.min(snapshot.caret(), area.getLength()));
+        area.showParagraphAtTop(Math.min(snapshot.topParagraph(), area.getParagraphs().size() - 1));
+        fire(EventType.RESTORED, document);
+        RESTORE.stop(start);
+    }
+
+    private void move(Document document, Path key) {
+        if (document.getPath() != null) byPath.remove(document.getPath(), document);
+        document.setPath(key);
+        byPath.put(key, document);
+        updateTooltip(document);
+    }
+
+    private void updateTab(Document document) {
+        document.getTab().setText(document.isDirty() ? "*" + document.getName() : document.getName());
+    }
+
+    // The full path, since tab titles of same-named files look alike
+    private void updateTooltip(Document document) {
+        if (document.getPath() == null) return;
+        Tooltip tooltip = new Tooltip(document.getPath().toString());
+        tooltip.setShowDelay(javafx.util.Duration.millis(100));
+        document.getTab().setTooltip(tooltip);
+    }
+
+    private void fire(EventType type, Document document) {
+        DocumentEvent event = new DocumentEvent(type, document);
+        for (Consumer<DocumentEvent> listener : List.copyOf(listeners)) {
+            listener.accept(event);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.DevScribe.editor;
+
+import javafx.scene.Node;
+import javafx.scene.layout.BorderPane;
+import org.fxmisc.flowless.VirtualizedScrollPane;
+import org.fxmisc.richtext.CodeArea;
+
+// What an editor tab holds: a CodeArea in a VirtualizedScrollPane, which scrolls by
+// moving the area's own virtual flow so only the paragraphs on screen are laid out. A
+// plain ScrollPane asks the area for its full size instead, and every scroll step
+// re-lays out a viewport-sized area from scratch. The document is null for read-only
+// tabs such as commit diffs. A minimap, if any, sits on the right.
+public class EditorPane extends BorderPane {
+    private final CodeArea area;
+    private final Document document;
+
+    public EditorPane(CodeArea area, Document document) {
+        this.area = area;
+        this.document = document;
+        getStyleClass().add("editor-pane");
+        setCenter(new VirtualizedScrollPane<>(area));
+    }
+
+    public CodeArea getArea() {
+        return area;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public void setMinimap(Node minimap) {
+        setRight(minimap);
+    }
+}
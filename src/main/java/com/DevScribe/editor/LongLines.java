@@ -0,0 +1,24 @@
+package com.DevScribe.editor;
+
+// Lines long enough to stall the editor: minified JS or JSON, data dumps. A paragraph is
+// one text flow, so wrapping or regex-highlighting a multi-megabyte line costs the whole
+// line on every layout or pass. Documents with such a line are shown unwrapped, and the
+// line itself is split into plain chunks instead of tokens (see LongLineHighlighter).
+public final class LongLines {
+    public static final int LIMIT = Integer.getInteger("devscribe.longLine", 5000);
+    public static final int CHUNK = 2000;
+
+    private LongLines() {
+    }
+
+    public static boolean exceeds(CharSequence text) {
+        int lineStart = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if (text.charAt(i) == '\n') {
+                if (i - lineStart > LIMIT) return true;
+                lineStart = i + 1;
+            }
+        }
+        return text.length() - lineStart > LIMIT;
+    }
+}
@@ -0,0 +1,229 @@
+package com.DevScribe.editor;
+
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.model.Paragraph;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.fxmisc.richtext.model.StyledDocument;
+import org.fxmisc.richtext.model.TwoDimensional.Bias;
+import org.reactfx.Subscription;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Scaled overview of a document beside its editor: every character is a pixel in its
+// token's colour and every line two pixels tall. Lines are drawn in tiles of TILE_LINES
+// that are rendered once into an image and cached; an edit or a highlighting pass drops
+// only the tiles whose lines actually changed (all following ones when lines are added
+// or removed), and only tiles on screen are rendered again. Scrolling just redraws the
+// cached images, so the cost per frame doesn't depend on the size of the file.
+public class Minimap extends Region {
+    private static final Timer TILE_RENDER = Metrics.timer("minimap.tile");
+
+    private static final int WIDTH = 110;
+    private static final int LINE_HEIGHT = 2;
+    private static final int TILE_LINES = 128;
+    private static final int TILE_HEIGHT = TILE_LINES * LINE_HEIGHT;
+    private static final int CACHED_TILES = 64;
+    private static final int TAB_WIDTH = 4;
+
+    // Token colours of the editor themes (editor.css)
+    private static final Map<String, Integer> DARK_COLORS = Map.of(
+            "keyword", 0xffc586c0, "string", 0xffce9178, "comment", 0xff6a9955, "function", 0xffdcdcaa,
+            "type", 0xff4ec9b0, "number", 0xffb5cea8, "annotation", 0xffc586c0);
+    private static final Map<String, Integer> LIGHT_COLORS = Map.of(
+            "keyword", 0xff0000ff, "string", 0xffa31515, "comment", 0xff008000, "function", 0xff795e26,
+            "type", 0xff267f99, "number", 0xff098658, "annotation", 0xffb4009e);
+    private static final int DARK_TEXT = 0xb0d4d4d4;
+    private static final int LIGHT_TEXT = 0xb0000000;
+    private static final Color DARK_VIEWPORT = Color.rgb(255, 255, 255, 0.10);
+    private static final Color LIGHT_VIEWPORT = Color.rgb(0, 0, 0, 0.08);
+
+    private final EditorPane pane;
+    private final CodeArea area;
+    private final Canvas canvas = new Canvas(WIDTH, 0);
+    private final Map<Integer, WritableImage> tiles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, WritableImage> eldest) {
+            return size() > CACHED_TILES;
+        }
+    };
+    private final Subscription changes;
+    // The paragraphs on screen change once a scroll has been laid out
+    private final InvalidationListener viewportListener = obs -> scheduleRedraw();
+    private boolean darkTheme;
+    private boolean redrawPending = false;
+    private boolean disposed = false;
+    // Minimap pixels scrolled past at the last redraw, and the editor lines on screen
+    private double offset = 0;
+    private int visibleLines = 1;
+
+    private Minimap(EditorPane pane, boolean darkTheme) {
+        this.pane = pane;
+        this.area = pane.getArea();
+        this.darkTheme = darkTheme;
+        getStyleClass().add("minimap");
+        getChildren().add(canvas);
+        this.changes = area.richChanges().subscribe(change -> {
+            int first = area.offsetToPosition(change.getPosition(), Bias.Forward).getMajor();
+            invalidate(first, change.getRemoved(), change.getInserted());
+            scheduleRedraw();
+        });
+        area.getVisibleParagraphs().addListener(viewportListener);
+        setOnMousePressed(this::scrollTo);
+        setOnMouseDragged(this::scrollTo);
+    }
+
+    public static Minimap attach(EditorPane pane, boolean darkTheme) {
+        Minimap minimap = new Minimap(pane, darkTheme);
+        pane.setMinimap(minimap);
+        return minimap;
+    }
+
+    public void setDarkTheme(boolean darkTheme) {
+        if (this.darkTheme == darkTheme) return;
+        this.darkTheme = darkTheme;
+        tiles.clear();
+        scheduleRedraw();
+    }
+
+    public void dispose() {
+        disposed = true;
+        changes.unsubscribe();
+        area.getVisibleParagraphs().removeListener(viewportListener);
+        tiles.clear();
+        pane.setMinimap(null);
+    }
+
+    // Drops the tiles of the lines a change touched. Paragraphs are compared rather than
+    // ranges because a highlighting pass restyles the whole document at once
+    private void invalidate(int first, StyledDocument<?, ?, ?> removed, StyledDocument<?, ?, ?> inserted) {
+        List<? extends Paragraph<?, ?, ?>> before = removed.getParagraphs();
+        List<? extends Paragraph<?, ?, ?>> after = inserted.getParagraphs();
+        if (before.size() != after.size()) {
+            tiles.keySet().removeIf(tile -> tile >= first / TILE_LINES);
+            return;
+        }
+        for (int i = 0; i < after.size(); i++) {
+            if (!before.get(i).equals(after.get(i))) tiles.remove((first + i) / TILE_LINES);
+        }
+    }
+
+    private void scheduleRedraw() {
+        if (redrawPending) return;
+        redrawPending = true;
+        Platform.runLater(() -> {
+            redrawPending = false;
+            if (!disposed) redraw();
+        });
+    }
+
+    private void redraw() {
+        double height = canvas.getHeight();
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.clearRect(0, 0, WIDTH, height);
+        int lines = area.getParagraphs().size();
+        int firstVisible = 0;
+        visibleLines = 1;
+        if (!area.getVisibleParagraphs().isEmpty()) {
+            firstVisible = area.firstVisibleParToAllParIndex();
+            visibleLines = area.lastVisibleParToAllParIndex() - firstVisible + 1;
+        }
+        // A map taller than the view scrolls along with the editor, in proportion
+        double overflow = (double) lines * LINE_HEIGHT - height;
+        offset = overflow <= 0 || lines <= visibleLines ? 0
+                : Math.min(1.0, (double) firstVisible / (lines - visibleLines)) * overflow;
+
+        int firstTile = (int) (offset / TILE_HEIGHT);
+        int lastTile = Math.min((int) ((offset + height) / TILE_HEIGHT), (lines - 1) / TILE_LINES);
+        for (int tile = firstTile; tile <= lastTile; tile++) {
+            graphics.drawImage(tile(tile, lines), 0, tile * TILE_HEIGHT - offset);
+        }
+        graphics.setFill(darkTheme ? DARK_VIEWPORT : LIGHT_VIEWPORT);
+        graphics.fillRect(0, firstVisible * LINE_HEIGHT - offset, WIDTH, visibleLines * LINE_HEIGHT);
+    }
+
+    private WritableImage tile(int tile, int lines) {
+        WritableImage image = tiles.get(tile);
+        if (image != null) return image;
+        long start = TILE_RENDER.start();
+        image = new WritableImage(WIDTH, TILE_HEIGHT);
+        PixelWriter pixels = image.getPixelWriter();
+        Map<String, Integer> colors = darkTheme ? DARK_COLORS : LIGHT_COLORS;
+        int textColor = darkTheme ? DARK_TEXT : LIGHT_TEXT;
+        int end = Math.min(lines, (tile + 1) * TILE_LINES);
+        for (int line = tile * TILE_LINES; line < end; line++) {
+            Paragraph<Collection<String>, String, Collection<String>> paragraph = area.getParagraph(line);
+            String text = paragraph.getText();
+            int y = (line - tile * TILE_LINES) * LINE_HEIGHT;
+            int index = 0;
+            int column = 0;
+            for (StyleSpan<Collection<String>> span : paragraph.getStyleSpans()) {
+                if (column >= WIDTH) break;
+                int color = colorOf(span.getStyle(), colors, textColor);
+                int spanEnd = Math.min(text.length(), index + span.getLength());
+                for (; index < spanEnd && column < WIDTH; index++) {
+                    char c = text.charAt(index);
+                    if (c == '\t') {
+                        column += TAB_WIDTH - column % TAB_WIDTH;
+                    } else {
+                        if (!Character.isWhitespace(c)) pixels.setArgb(column, y, color);
+                        column++;
+                    }
+                }
+                index = spanEnd;
+            }
+        }
+        tiles.put(tile, image);
+        TILE_RENDER.stop(start);
+        return image;
+    }
+
+    private static int colorOf(Collection<String> style, Map<String, Integer> colors, int textColor) {
+        for (String styleClass : style) {
+            Integer color = colors.get(styleClass);
+            if (color != null) return color;
+        }
+        return textColor;
+    }
+
+    // Centres the editor on the line under the pointer
+    private void scrollTo(MouseEvent event) {
+        int lines = area.getParagraphs().size();
+        int line = Math.max(0, Math.min(lines - 1, (int) ((event.getY() + offset) / LINE_HEIGHT)));
+        area.showParagraphAtTop(Math.max(0, line - visibleLines / 2));
+        event.consume();
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return WIDTH + snappedLeftInset() + snappedRightInset();
+    }
+
+    @Override
+    protected double computeMinWidth(double height) {
+        return computePrefWidth(height);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double height = Math.max(0, getHeight() - snappedTopInset() - snappedBottomInset());
+        canvas.relocate(snappedLeftInset(), snappedTopInset());
+        if (canvas.getHeight() != height) {
+            canvas.setHeight(height);
+            scheduleRedraw();
+        }
+    }
+}
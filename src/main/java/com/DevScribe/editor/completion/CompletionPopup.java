@@ -0,0 +1,198 @@
+package com.DevScribe.editor.completion;
+
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.control.ListView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Popup;
+import org.fxmisc.richtext.CodeArea;
+import org.reactfx.Subscription;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Completion list for one editor. It opens while a word is typed (or on Ctrl+Space) and
+// offers the language's keywords followed by the indexed words with the same prefix;
+// Enter or Tab replaces the prefix with the selected one. A query reads the WordIndex
+// directly, since it is bounded and the indexing itself happens elsewhere.
+public class CompletionPopup {
+    private static final Timer QUERY = Metrics.timer("completion.query");
+    private static final int MAX_ITEMS = 12;
+    private static final int MIN_TYPED_PREFIX = 2;
+    private static final double CELL_HEIGHT = 22;
+
+    private final CodeArea area;
+    private final WordIndex index;
+    private final List<String> keywords;
+    private final Subscription subscriptions;
+    private final Popup popup = new Popup();
+    private final StackPane content = new StackPane();
+    private final ListView<String> list = new ListView<>();
+    private final EventHandler<KeyEvent> keyFilter = this::onKeyPressed;
+    private final InvalidationListener caretListener = obs -> {
+        if (popup.isShowing()) scheduleRefresh(false);
+    };
+    private final InvalidationListener focusListener;
+    private boolean refreshPending = false;
+    private boolean explicitRefresh = false;
+    private boolean disposed = false;
+    // Start of the word being completed, as of the last refresh
+    private int prefixStart = 0;
+
+    private CompletionPopup(CodeArea area, ProjectWords words, List<String> keywords) {
+        this.area = area;
+        this.index = words.getIndex();
+        this.keywords = keywords.stream().sorted().toList();
+        this.focusListener = obs -> {
+            if (!area.isFocused()) popup.hide();
+        };
+
+        list.getStyleClass().add("completion-popup");
+        list.setFocusTraversable(false);
+        list.setFixedCellSize(CELL_HEIGHT);
+        list.setPrefWidth(260);
+        list.setOnMouseClicked(event -> accept());
+        content.getChildren().add(list);
+        popup.getContent().add(content);
+        popup.setAutoHide(true);
+        popup.setAutoFix(true);
+
+        Subscription typing = area.plainTextChanges().subscribe(change -> {
+            if (area.getUndoManager().isPerformingAction()) return;
+            String inserted = change.getInserted();
+            boolean typed = change.getRemoved().isEmpty() && inserted.length() == 1
+                    && Character.isJavaIdentifierPart(inserted.charAt(0));
+            if (typed || popup.isShowing()) scheduleRefresh(false);
+        });
+        area.addEventFilter(KeyEvent.KEY_PRESSED, keyFilter);
+        area.caretPositionProperty().addListener(caretListener);
+        area.focusedProperty().addListener(focusListener);
+        this.subscriptions = typing.and(words.track(area));
+    }
+
+    public static CompletionPopup attach(CodeArea area, ProjectWords words, List<String> keywords) {
+        return new CompletionPopup(area, words, keywords);
+    }
+
+    public void dispose() {
+        disposed = true;
+        subscriptions.unsubscribe();
+        area.removeEventFilter(KeyEvent.KEY_PRESSED, keyFilter);
+        area.caretPositionProperty().removeListener(caretListener);
+        area.focusedProperty().removeListener(focusListener);
+        popup.hide();
+    }
+
+    private void onKeyPressed(KeyEvent event) {
+        if (event.getCode() == KeyCode.SPACE && event.isShortcutDown()) {
+            scheduleRefresh(true);
+            event.consume();
+            return;
+        }
+        if (!popup.isShowing()) return;
+        switch (event.getCode()) {
+            case UP -> move(-1);
+            case DOWN -> move(1);
+            case PAGE_UP -> move(-MAX_ITEMS);
+            case PAGE_DOWN -> move(MAX_ITEMS);
+            case ENTER, TAB -> accept();
+            case ESCAPE -> popup.hide();
+            default -> {
+                return;
+            }
+        }
+        event.consume();
+    }
+
+    private void move(int delta) {
+        int size = list.getItems().size();
+        int selected = list.getSelectionModel().getSelectedIndex();
+        int next = Math.max(0, Math.min(size - 1, selected + delta));
+        list.getSelectionModel().select(next);
+        list.scrollTo(next);
+    }
+
+    private void accept() {
+        String word = list.getSelectionModel().getSelectedItem();
+        popup.hide();
+        int caret = area.getCaretPosition();
+        if (word == null || prefixStart > caret) return;
+        area.replaceText(prefixStart, caret, word);
+    }
+
+    // The caret moves after the change that moved it, so refreshes wait for the event to end
+    private void scheduleRefresh(boolean explicit) {
+        explicitRefresh |= explicit;
+        if (refreshPending) return;
+        refreshPending = true;
+        Platform.runLater(() -> {
+            refreshPending = false;
+            boolean wasExplicit = explicitRefresh;
+            explicitRefresh = false;
+            if (!disposed) refresh(wasExplicit);
+        });
+    }
+
+    private void refresh(boolean explicit) {
+        int caret = area.getCaretPosition();
+        String before = area.getText(Math.max(0, caret - WordIndex.MAX_WORD), caret);
+        int start = before.length();
+        while (start > 0 && Character.isJavaIdentifierPart(before.charAt(start - 1))) start--;
+        String prefix = before.substring(start);
+        boolean opening = !popup.isShowing() && !explicit;
+        if (prefix.isEmpty() || !Character.isJavaIdentifierStart(prefix.charAt(0))
+                || (opening && prefix.length() < MIN_TYPED_PREFIX)) {
+            popup.hide();
+            return;
+        }
+        prefixStart = caret - prefix.length();
+
+        List<String> items = suggestions(prefix);
+        if (items.isEmpty()) {
+            popup.hide();
+            return;
+        }
+        list.getItems().setAll(items);
+        list.getSelectionModel().select(0);
+        list.scrollTo(0);
+        list.setPrefHeight(Math.min(items.size(), MAX_ITEMS) * CELL_HEIGHT + 4);
+        area.getCaretBounds().ifPresentOrElse(bounds -> {
+            if (popup.isShowing()) {
+                popup.setAnchorX(bounds.getMinX());
+                popup.setAnchorY(bounds.getMaxY());
+            } else {
+                applyTheme();
+                popup.show(area, bounds.getMinX(), bounds.getMaxY());
+            }
+        }, popup::hide);
+    }
+
+    private List<String> suggestions(String prefix) {
+        long start = QUERY.start();
+        Set<String> items = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            if (keyword.length() > prefix.length() && keyword.startsWith(prefix)) items.add(keyword);
+        }
+        items.addAll(index.complete(prefix, MAX_ITEMS));
+        QUERY.stop(start);
+        List<String> result = new ArrayList<>(items);
+        return result.size() > MAX_ITEMS ? result.subList(0, MAX_ITEMS) : result;
+    }
+
+    // A popup has a scene of its own, so it takes the editor's stylesheets and theme
+    private void applyTheme() {
+        Scene scene = area.getScene();
+        if (scene == null) return;
+        content.getStylesheets().setAll(scene.getStylesheets());
+        boolean dark = scene.getRoot().getStyleClass().contains("dark-theme");
+        content.getStyleClass().setAll(dark ? "dark-theme" : "light-theme");
+    }
+}
@@ -0,0 +1,175 @@
+package com.DevScribe.editor.completion;
+
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
+import com.DevScribe.utils.ProjectMetadataLoader;
+import org.fxmisc.richtext.CodeArea;
+import org.reactfx.Subscription;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Feeds a WordIndex from a project: its source files are scanned once in the background
+// and again one at a time when saved, and every open editor reports the words around each
+// edit. All counting happens on one indexing thread, so the FX thread only copies out the
+// few characters an edit touched.
+public class ProjectWords {
+    private static final Timer SCAN = Metrics.timer("completion.scan");
+    private static final Set<String> EXTENSIONS = Set.of("java", "py", "c", "h");
+    private static final long MAX_FILE_SIZE = 1024 * 1024;
+    private static final int MAX_FILES = 20_000;
+
+    private final Path root;
+    private final WordIndex index = new WordIndex();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "completion-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Distinct words of each scanned file; only touched on the indexing thread
+    private final Map<Path, Set<String>> fileWords = new HashMap<>();
+
+    private ProjectWords(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    public static ProjectWords start(Path root) {
+        ProjectWords words = new ProjectWords(root);
+        words.executor.execute(words::scanProject);
+        return words;
+    }
+
+    public WordIndex getIndex() {
+        return index;
+    }
+
+    // Rescans a file written from the editor
+    public void fileSaved(Path file) {
+        Path path = file.toAbsolutePath().normalize();
+        if (!path.startsWith(root) || !isSource(path)) return;
+        submit(() -> scanFile(path));
+    }
+
+    // Counts the words of an editor now and after each edit, until the subscription ends
+    public Subscription track(CodeArea area) {
+        // Only touched on the indexing thread
+        Map<String, Integer> counts = new HashMap<>();
+        String text = area.getText();
+        submit(() -> apply(counts, WordIndex.count(text, 1)));
+        Subscription edits = area.plainTextChanges().subscribe(change -> {
+            // The edit widened to whole words on both sides; the same span before the
+            // edit is the current one with the inserted text swapped back for the removed
+            int position = change.getPosition();
+            int start = wordStart(area, position);
+            int end = wordEnd(area, change.getInsertionEnd());
+            String after = area.getText(start, end);
+            String before = after.substring(0, position - start) + change.getRemoved()
+                    + after.substring(change.getInsertionEnd() - start);
+            submit(() -> {
+                Map<String, Integer> delta = WordIndex.count(after, 1);
+                WordIndex.count(before, -1, delta);
+                apply(counts, delta);
+            });
+        });
+        return edits.and(() -> submit(() -> {
+            counts.forEach((word, count) -> index.add(word, -count));
+            counts.clear();
+        }));
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Editors still open when the project closes stop reporting quietly
+    private void submit(Runnable task) {
+        if (!executor.isShutdown()) executor.execute(task);
+    }
+
+    private void apply(Map<String, Integer> counts, Map<String, Integer> delta) {
+        delta.forEach((word, change) -> {
+            if (change == 0) return;
+            counts.merge(word, change, (count, added) -> count + added == 0 ? null : count + added);
+            index.add(word, change);
+        });
+    }
+
+    // A cut is never inside an indexed word: extending one past MAX_WORD characters
+    // leaves a fragment too long to be counted on either side
+    private static int wordStart(CodeArea area, int position) {
+        String text = area.getText(Math.max(0, position - WordIndex.MAX_WORD - 1), position);
+        int i = text.length();
+        while (i > 0 && Character.isJavaIdentifierPart(text.charAt(i - 1))) i--;
+        return position - (text.length() - i);
+    }
+
+    private static int wordEnd(CodeArea area, int position) {
+        String text = area.getText(position, Math.min(area.getLength(), position + WordIndex.MAX_WORD + 1));
+        int i = 0;
+        while (i < text.length() && Character.isJavaIdentifierPart(text.charAt(i))) i++;
+        return position + i;
+    }
+
+    private void scanProject() {
+        long start = SCAN.start();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                private int files = 0;
+
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    Path name = dir.getFileName();
+                    if (!dir.equals(root) && name != null && ProjectMetadataLoader.SKIPPED_DIRS.contains(name.toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!isSource(file) || attrs.size() > MAX_FILE_SIZE) return FileVisitResult.CONTINUE;
+                    scanFile(file);
+                    if (Thread.currentThread().isInterrupted()) return FileVisitResult.TERMINATE;
+                    return ++files >= MAX_FILES ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Could not index words of " + root + ": " + e.getMessage());
+        }
+        SCAN.stop(start);
+    }
+
+    private void scanFile(Path file) {
+        Set<String> previous = fileWords.remove(file);
+        if (previous != null) previous.forEach(word -> index.add(word, -1));
+        String text;
+        try {
+            if (Files.size(file) > MAX_FILE_SIZE) return;
+            text = Files.readString(file);
+        } catch (IOException e) {
+            // Deleted, unreadable or not UTF-8: the file simply offers no words
+            return;
+        }
+        Set<String> words = Set.copyOf(WordIndex.count(text, 1).keySet());
+        words.forEach(word -> index.add(word, 1));
+        fileWords.put(file, words);
+    }
+
+    private static boolean isSource(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,78 @@
+package com.DevScribe.editor.completion;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// The identifiers completion can offer, kept sorted so all words starting with a prefix
+// sit next to each other. Each word carries a reference count: open documents add one
+// per occurrence and project files one per file containing it, and a word disappears
+// when nothing refers to it any more. Updates come from the indexing thread while the
+// editor queries it; the skip list needs no lock for either.
+public class WordIndex {
+    // Words longer than this (generated names, encoded data) are not offered
+    static final int MAX_WORD = 64;
+    private static final int MIN_WORD = 3;
+    // Upper bound on the words a query looks at, so a one-letter prefix stays fast
+    private static final int MAX_SCAN = 4000;
+
+    private static final Comparator<Map.Entry<String, Integer>> RANKING =
+            Map.Entry.<String, Integer>comparingByValue().reversed()
+                    .thenComparingInt(entry -> entry.getKey().length())
+                    .thenComparing(Map.Entry::getKey);
+
+    private final ConcurrentSkipListMap<String, Integer> words = new ConcurrentSkipListMap<>();
+
+    public void add(String word, int delta) {
+        if (delta == 0) return;
+        words.merge(word, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+
+    public void addAll(Map<String, Integer> counts) {
+        counts.forEach(this::add);
+    }
+
+    // Up to limit words that start with prefix (and are longer), the most used first
+    public List<String> complete(String prefix, int limit) {
+        List<Map.Entry<String, Integer>> matches = new ArrayList<>();
+        int scanned = 0;
+        for (Map.Entry<String, Integer> entry : words.tailMap(prefix, false).entrySet()) {
+            if (!entry.getKey().startsWith(prefix) || ++scanned > MAX_SCAN) break;
+            if (entry.getValue() > 0) matches.add(entry);
+        }
+        matches.sort(RANKING);
+        List<String> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) result.add(matches.get(i).getKey());
+        return result;
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    // Occurrences of each identifier in text, multiplied by sign
+    static Map<String, Integer> count(CharSequence text, int sign) {
+        Map<String, Integer> counts = new HashMap<>();
+        count(text, sign, counts);
+        return counts;
+    }
+
+    static void count(CharSequence text, int sign, Map<String, Integer> counts) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!Character.isJavaIdentifierPart(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) i++;
+            if (i - start >= MIN_WORD && i - start <= MAX_WORD && Character.isJavaIdentifierStart(text.charAt(start))) {
+                counts.merge(text.subSequence(start, i).toString(), sign, Integer::sum);
+            }
+        }
+    }
+}
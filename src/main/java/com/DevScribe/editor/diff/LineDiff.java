@@ -0,0 +1,156 @@
+package com.DevScribe.editor.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Myers' O((N+M)D) diff in its linear-space form (divide and conquer on the middle
+// snake), run on line hashes. Common prefix and suffix are stripped first, so a small
+// edit in a large file only diffs the few lines around it. When two versions have
+// almost nothing in common the work budget runs out and the remaining region is
+// reported as one replaced block instead of an exact diff.
+public final class LineDiff {
+    private static final long WORK_BUDGET = 20_000_000L;
+
+    // Lines [oldStart, oldEnd) of the old text were replaced by [newStart, newEnd) of the new one
+    public record Hunk(int oldStart, int oldEnd, int newStart, int newEnd) {
+        public boolean isInsertion() {
+            return oldStart == oldEnd;
+        }
+
+        public boolean isDeletion() {
+            return newStart == newEnd;
+        }
+    }
+
+    private final long[] a;
+    private final long[] b;
+    private final int[] forward;
+    private final int[] backward;
+    private final List<Hunk> hunks = new ArrayList<>();
+    private long work;
+
+    private LineDiff(long[] a, long[] b, int maxEdits) {
+        this.a = a;
+        this.b = b;
+        this.forward = new int[2 * maxEdits + 4];
+        this.backward = new int[2 * maxEdits + 4];
+    }
+
+    public static List<Hunk> diff(long[] oldLines, long[] newLines) {
+        int prefix = 0;
+        int common = Math.min(oldLines.length, newLines.length);
+        while (prefix < common && oldLines[prefix] == newLines[prefix]) prefix++;
+        int suffix = 0;
+        while (suffix < common - prefix
+                && oldLines[oldLines.length - 1 - suffix] == newLines[newLines.length - 1 - suffix]) {
+            suffix++;
+        }
+
+        int oldEnd = oldLines.length - suffix;
+        int newEnd = newLines.length - suffix;
+        LineDiff diff = new LineDiff(oldLines, newLines, (oldEnd - prefix + newEnd - prefix + 1) / 2 + 1);
+        diff.compare(prefix, oldEnd, prefix, newEnd);
+        return diff.hunks;
+    }
+
+    // For each line of the new text, the old line it was kept from, or -1 when it was
+    // added or changed
+    public static int[] lineMapping(List<Hunk> hunks, int newLength) {
+        int[] mapping = new int[newLength];
+        int oldLine = 0;
+        int newLine = 0;
+        for (Hunk hunk : hunks) {
+            while (newLine < hunk.newStart()) mapping[newLine++] = oldLine++;
+            while (newLine < hunk.newEnd()) mapping[newLine++] = -1;
+            oldLine = hunk.oldEnd();
+        }
+        while (newLine < newLength) mapping[newLine++] = oldLine++;
+        return mapping;
+    }
+
+    private void compare(int aLo, int aHi, int bLo, int bHi) {
+        while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+            aLo++;
+            bLo++;
+        }
+        while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+            aHi--;
+            bHi--;
+        }
+        if (aLo == aHi || bLo == bHi) {
+            if (aLo != aHi || bLo != bHi) add(aLo, aHi, bLo, bHi);
+            return;
+        }
+        int[] snake = work > WORK_BUDGET ? null : middleSnake(aLo, aHi, bLo, bHi);
+        if (snake == null) {
+            add(aLo, aHi, bLo, bHi);
+            return;
+        }
+        compare(aLo, snake[0], bLo, snake[1]);
+        compare(snake[2], aHi, snake[3], bHi);
+    }
+
+    // Returns {x, y, u, v}: the middle snake of an optimal edit path runs from (x, y) to
+    // (u, v). Returns null when the work budget runs out first.
+    private int[] middleSnake(int aLo, int aHi, int bLo, int bHi) {
+        int n = aHi - aLo;
+        int m = bHi - bLo;
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD + 1;
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+
+        for (int d = 0; d <= maxD; d++) {
+            work += 2L * d + 2;
+            if (work > WORK_BUDGET) return null;
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1]))
+                        ? forward[offset + k + 1]
+                        : forward[offset + k - 1] + 1;
+                int y = x - k;
+                int startX = x;
+                int startY = y;
+                while (x < n && y < m && a[aLo + x] == b[bLo + y]) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                if (odd && k >= delta - (d - 1) && k <= delta + (d - 1)
+                        && x + backward[offset + delta - k] >= n) {
+                    return new int[]{aLo + startX, bLo + startY, aLo + x, bLo + y};
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1]))
+                        ? backward[offset + k + 1]
+                        : backward[offset + k - 1] + 1;
+                int y = x - k;
+                int startX = x;
+                int startY = y;
+                while (x < n && y < m && a[aHi - 1 - x] == b[bHi - 1 - y]) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                if (!odd && delta - k >= -d && delta - k <= d
+                        && x + forward[offset + delta - k] >= n) {
+                    return new int[]{aLo + n - x, bLo + m - y, aLo + n - startX, bLo + m - startY};
+                }
+            }
+        }
+        throw new IllegalStateException("No middle snake found");
+    }
+
+    private void add(int aLo, int aHi, int bLo, int bHi) {
+        if (!hunks.isEmpty()) {
+            Hunk last = hunks.get(hunks.size() - 1);
+            if (last.oldEnd() == aLo && last.newEnd() == bLo) {
+                hunks.set(hunks.size() - 1, new Hunk(last.oldStart(), aHi, last.newStart(), bHi));
+                return;
+            }
+        }
+        hunks.add(new Hunk(aLo, aHi, bLo, bHi));
+    }
+}
@@ -0,0 +1,33 @@
+package com.DevScribe.editor.diff;
+
+// 64-bit hashes of the lines of a text, compared instead of the lines themselves.
+// Line endings are ignored so CRLF and LF versions of a line are equal.
+public final class LineHashes {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private LineHashes() {
+    }
+
+    public static long[] of(CharSequence text) {
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') lines++;
+        }
+
+        long[] hashes = new long[lines];
+        int line = 0;
+        long hash = OFFSET_BASIS;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                hashes[line++] = hash;
+                hash = OFFSET_BASIS;
+            } else if (c != '\r') {
+                hash = (hash ^ c) * PRIME;
+            }
+        }
+        hashes[line] = hash;
+        return hashes;
+    }
+}
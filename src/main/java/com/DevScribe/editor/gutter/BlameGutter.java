@@ -0,0 +1,198 @@
+package com.DevScribe.editor.gutter;
+
+import com.DevScribe.editor.diff.LineDiff;
+import com.DevScribe.editor.diff.LineHashes;
+import com.DevScribe.git.BlameService;
+import com.DevScribe.git.BlameService.BlameCommit;
+import com.DevScribe.git.GitProject;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import org.eclipse.jgit.lib.ObjectId;
+import org.fxmisc.richtext.CodeArea;
+import org.reactfx.Subscription;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+// Gutter column with the commit, author and date of each line. Blame runs on the HEAD
+// version of the file and fills in as regions are resolved. Edits don't re-run blame:
+// the buffer is diffed against HEAD (as for the change markers) and annotations follow
+// the lines they belong to; added or changed lines show as not committed.
+public class BlameGutter implements IntFunction<Node> {
+    private static final Duration EDIT_QUIET_PERIOD = Duration.ofMillis(150);
+    private static final long REPAINT_INTERVAL_MS = 100;
+    private static final Object LISTENER_KEY = new Object();
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
+
+    private final CodeArea area;
+    private final GutterFactory gutter;
+    private final GitProject project;
+    private final Path file;
+    private final IntegerProperty version = new SimpleIntegerProperty();
+    private final AtomicBoolean repaintScheduled = new AtomicBoolean(false);
+    private final AtomicLong generation = new AtomicLong();
+    private final Subscription edits;
+    private BlameService.BlameHandle running;
+    private ObjectId blamedHead;
+    // Written by the blame thread, read on the FX thread; a missing entry only means "not yet"
+    private volatile BlameCommit[] headLines = new BlameCommit[0];
+    // Buffer line -> HEAD line, or -1 for uncommitted lines; null until computed
+    private int[] mapping;
+
+    private BlameGutter(CodeArea area, GutterFactory gutter, GitProject project, Path file) {
+        this.area = area;
+        this.gutter = gutter;
+        this.project = project;
+        this.file = file;
+        this.edits = area.multiPlainChanges()
+                .successionEnds(EDIT_QUIET_PERIOD)
+                .subscribe(ignore -> scheduleMapping());
+    }
+
+    public static BlameGutter attach(CodeArea area, GutterFactory gutter, GitProject project, Path file) {
+        BlameGutter blameGutter = new BlameGutter(area, gutter, project, file);
+        gutter.addColumn(blameGutter);
+        blameGutter.reload();
+        return blameGutter;
+    }
+
+    // Starts blame again if HEAD moved since the last one
+    public void reload() {
+        ObjectId head;
+        try {
+            head = project.getRepository().resolve("HEAD");
+        } catch (Exception e) {
+            head = null;
+        }
+        if (head != null && head.equals(blamedHead)) {
+            scheduleMapping();
+            return;
+        }
+        if (running != null) running.cancel();
+        headLines = new BlameCommit[0];
+        running = project.getBlame().blame(file, new BlameService.BlameListener() {
+            @Override
+            public void onStart(ObjectId head, int lineCount) {
+                headLines = new BlameCommit[lineCount];
+                Platform.runLater(() -> blamedHead = head);
+            }
+
+            @Override
+            public void onLines(int start, int end, BlameCommit commit) {
+                BlameCommit[] lines = headLines;
+                for (int i = start; i < end && i < lines.length; i++) lines[i] = commit;
+                scheduleRepaint();
+            }
+
+            @Override
+            public void onCompleted() {
+                scheduleRepaint();
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                System.err.println("Blame failed for " + file + ": " + e.getMessage());
+            }
+        });
+        scheduleMapping();
+    }
+
+    public void detach() {
+        if (running != null) running.cancel();
+        edits.unsubscribe();
+        generation.incrementAndGet();
+        gutter.removeColumn(this);
+    }
+
+    // Regions arrive in quick succession; repaint at most every REPAINT_INTERVAL_MS
+    private void scheduleRepaint() {
+        if (repaintScheduled.compareAndSet(false, true)) {
+            Thread.ofVirtual().start(() -> {
+                try {
+                    Thread.sleep(REPAINT_INTERVAL_MS);
+                } catch (InterruptedException ignored) {
+                }
+                repaintScheduled.set(false);
+                Platform.runLater(() -> version.set(version.get() + 1));
+            });
+        }
+    }
+
+    private void scheduleMapping() {
+        long current = generation.incrementAndGet();
+        String text = area.getText();
+        DiffGutter.DIFF_EXECUTOR.execute(() -> {
+            if (current != generation.get()) return;
+            int[] next;
+            try {
+                long[] head = project.getHeadContent().getLineHashes(file);
+                long[] lines = LineHashes.of(text);
+                if (head == null) {
+                    next = new int[lines.length];
+                    Arrays.fill(next, -1);
+                } else {
+                    next = LineDiff.lineMapping(LineDiff.diff(head, lines), lines.length);
+                }
+            } catch (Exception e) {
+                System.err.println("Could not map blame to the edited file: " + e.getMessage());
+                return;
+            }
+            Platform.runLater(() -> {
+                if (current == generation.get()) {
+                    mapping = next;
+                    version.set(version.get() + 1);
+                }
+            });
+        });
+    }
+
+    @Override
+    public Node apply(int paragraph) {
+        Label label = new Label();
+        label.getStyleClass().add("blame-annotation");
+        update(label, paragraph);
+        InvalidationListener listener = obs -> update(label, paragraph);
+        label.getProperties().put(LISTENER_KEY, listener);
+        version.addListener(new WeakInvalidationListener(listener));
+        return label;
+    }
+
+    private BlameCommit commitAt(int paragraph) {
+        BlameCommit[] lines = headLines;
+        if (mapping == null || paragraph < 0 || paragraph >= mapping.length) return null;
+        int headLine = mapping[paragraph];
+        return headLine >= 0 && headLine < lines.length ? lines[headLine] : null;
+    }
+
+    private void update(Label label, int paragraph) {
+        boolean uncommitted = mapping != null && paragraph < mapping.length && mapping[paragraph] < 0;
+        BlameCommit commit = commitAt(paragraph);
+        // Like most blame views, only the first line of a block from one commit is labelled
+        boolean blockStart = paragraph == 0 || commitAt(paragraph - 1) != commit;
+        BlameCommit shown = uncommitted || !blockStart ? null : commit;
+        if (label.getUserData() == shown && shown != null) return;
+        label.setUserData(shown);
+        if (shown != null) {
+            label.setText(shown.shortId() + "  " + DATE_FORMAT.format(Instant.ofEpochMilli(shown.time()))
+                    + "  " + shown.author());
+            label.setTooltip(new Tooltip(shown.id() + "\n" + shown.author() + "\n\n" + shown.summary()));
+        } else {
+            label.setText(uncommitted && (paragraph == 0 || mapping[paragraph - 1] >= 0) ? "Not committed" : "");
+            label.setTooltip(null);
+        }
+    }
+}
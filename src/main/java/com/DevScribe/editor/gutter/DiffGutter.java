@@ -0,0 +1,150 @@
+package com.DevScribe.editor.gutter;
+
+import com.DevScribe.editor.diff.LineDiff;
+import com.DevScribe.editor.diff.LineHashes;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+import javafx.scene.layout.Region;
+import org.fxmisc.richtext.CodeArea;
+import org.reactfx.Subscription;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+// Gutter column marking lines added, changed or deleted compared to a baseline (the
+// file's HEAD version). The baseline is loaded once; after each burst of edits the buffer
+// is hashed and diffed against it off the FX thread, and only the marker array is handed
+// back. Markers repaint through a version counter, so the gutter is never rebuilt.
+public class DiffGutter implements IntFunction<Node> {
+    private static final Duration EDIT_QUIET_PERIOD = Duration.ofMillis(150);
+    private static final Object LISTENER_KEY = new Object();
+
+    private static final byte NONE = 0;
+    private static final byte ADDED = 1;
+    private static final byte MODIFIED = 2;
+    private static final byte DELETED_ABOVE = 3;
+    private static final byte DELETED_BELOW = 4;
+
+    private static final PseudoClass[] PSEUDO_CLASSES = {
+            null,
+            PseudoClass.getPseudoClass("added"),
+            PseudoClass.getPseudoClass("modified"),
+            PseudoClass.getPseudoClass("deleted-above"),
+            PseudoClass.getPseudoClass("deleted-below")
+    };
+
+    // Shared by all editors: diffs are short and only the latest one per editor matters
+    static final ExecutorService DIFF_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "gutter-diff");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CodeArea area;
+    private final Callable<long[]> baselineLoader;
+    private final IntegerProperty version = new SimpleIntegerProperty();
+    private final AtomicLong generation = new AtomicLong();
+    private final Subscription edits;
+    // Baseline line hashes; null until loaded or when the file has no baseline
+    private volatile long[] baseline;
+    private byte[] markers = new byte[0];
+
+    private DiffGutter(CodeArea area, Callable<long[]> baselineLoader) {
+        this.area = area;
+        this.baselineLoader = baselineLoader;
+        this.edits = area.multiPlainChanges()
+                .successionEnds(EDIT_QUIET_PERIOD)
+                .subscribe(ignore -> scheduleDiff(false));
+    }
+
+    // baselineLoader runs on a background thread and returns null when there is nothing
+    // to compare with (untracked file); the markers then stay empty
+    public static DiffGutter attach(CodeArea area, GutterFactory gutter, Callable<long[]> baselineLoader) {
+        DiffGutter diffGutter = new DiffGutter(area, baselineLoader);
+        gutter.addColumn(diffGutter);
+        diffGutter.reloadBaseline();
+        return diffGutter;
+    }
+
+    // Re-reads the baseline, e.g. after a commit or checkout moved HEAD
+    public void reloadBaseline() {
+        scheduleDiff(true);
+    }
+
+    public void dispose() {
+        edits.unsubscribe();
+        generation.incrementAndGet();
+    }
+
+    private void scheduleDiff(boolean reload) {
+        long current = generation.incrementAndGet();
+        String text = area.getText();
+        DIFF_EXECUTOR.execute(() -> {
+            if (reload) {
+                try {
+                    baseline = baselineLoader.call();
+                } catch (Exception e) {
+                    System.err.println("Could not load baseline for change markers: " + e.getMessage());
+                    baseline = null;
+                }
+            }
+            // A newer edit is already queued; it will use the same baseline
+            if (current != generation.get()) return;
+            byte[] next = computeMarkers(baseline, text);
+            Platform.runLater(() -> {
+                if (current == generation.get() && !Arrays.equals(markers, next)) {
+                    markers = next;
+                    version.set(version.get() + 1);
+                }
+            });
+        });
+    }
+
+    private static byte[] computeMarkers(long[] baseline, String text) {
+        if (baseline == null) return new byte[0];
+        long[] lines = LineHashes.of(text);
+        byte[] result = new byte[lines.length];
+        for (LineDiff.Hunk hunk : LineDiff.diff(baseline, lines)) {
+            if (hunk.isDeletion()) {
+                if (hunk.newStart() < lines.length) {
+                    if (result[hunk.newStart()] == NONE) result[hunk.newStart()] = DELETED_ABOVE;
+                } else if (lines.length > 0) {
+                    if (result[lines.length - 1] == NONE) result[lines.length - 1] = DELETED_BELOW;
+                }
+            } else {
+                Arrays.fill(result, hunk.newStart(), hunk.newEnd(), hunk.isInsertion() ? ADDED : MODIFIED);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Node apply(int paragraph) {
+        Region marker = new Region();
+        marker.getStyleClass().add("diff-marker");
+        update(marker, paragraph);
+        InvalidationListener listener = obs -> update(marker, paragraph);
+        // The node keeps the listener alive; the weak registration lets discarded
+        // gutter nodes be collected
+        marker.getProperties().put(LISTENER_KEY, listener);
+        version.addListener(new WeakInvalidationListener(listener));
+        return marker;
+    }
+
+    private void update(Region marker, int paragraph) {
+        byte kind = paragraph < markers.length ? markers[paragraph] : NONE;
+        for (int i = 1; i < PSEUDO_CLASSES.length; i++) {
+            marker.pseudoClassStateChanged(PSEUDO_CLASSES[i], i == kind);
+        }
+    }
+}
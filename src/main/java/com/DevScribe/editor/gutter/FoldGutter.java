@@ -0,0 +1,86 @@
+package com.DevScribe.editor.gutter;
+
+import com.DevScribe.editor.structure.StructureIndex;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import org.fxmisc.richtext.CodeArea;
+import org.reactfx.Subscription;
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+// Gutter column with a fold marker on every line that opens a bracket closed on a later
+// line; clicking it hides the lines up to the closing one. Folded lines keep their text
+// and get RichTextFX's "collapse" paragraph style, so they take no space in the layout.
+// Like DiffGutter, markers repaint through a version counter after edits settle.
+public class FoldGutter implements IntFunction<Node> {
+    private static final Duration EDIT_QUIET_PERIOD = Duration.ofMillis(150);
+    private static final Object LISTENER_KEY = new Object();
+    private static final String FOLDED_STYLE = "collapse";
+
+    private final CodeArea area;
+    private final StructureIndex index;
+    private final IntegerProperty version = new SimpleIntegerProperty();
+    private final Subscription edits;
+
+    public FoldGutter(CodeArea area, StructureIndex index) {
+        this.area = area;
+        this.index = index;
+        this.edits = area.multiPlainChanges()
+                .successionEnds(EDIT_QUIET_PERIOD)
+                .subscribe(ignore -> repaint());
+    }
+
+    public void dispose() {
+        edits.unsubscribe();
+    }
+
+    public boolean isFolded(int paragraph) {
+        return paragraph + 1 < area.getParagraphs().size()
+                && area.getParagraph(paragraph + 1).getParagraphStyle().contains(FOLDED_STYLE);
+    }
+
+    // Folds the region opened on paragraph, or unfolds it if it is folded
+    public void toggle(int paragraph) {
+        if (isFolded(paragraph)) {
+            area.unfoldParagraphs(paragraph);
+        } else {
+            int end = index.foldEnd(paragraph);
+            if (end - 1 <= paragraph) return;
+            area.foldParagraphs(paragraph, end - 1);
+        }
+        repaint();
+    }
+
+    private void repaint() {
+        version.set(version.get() + 1);
+    }
+
+    @Override
+    public Node apply(int paragraph) {
+        Label marker = new Label();
+        marker.getStyleClass().add("fold-marker");
+        marker.setOnMouseClicked(event -> toggle(paragraph));
+        update(marker, paragraph);
+        InvalidationListener listener = obs -> update(marker, paragraph);
+        // The node keeps the listener alive; the weak registration lets discarded
+        // gutter nodes be collected
+        marker.getProperties().put(LISTENER_KEY, listener);
+        version.addListener(new WeakInvalidationListener(listener));
+        return marker;
+    }
+
+    private void update(Label marker, int paragraph) {
+        if (paragraph >= area.getParagraphs().size()) {
+            marker.setText("");
+        } else if (isFolded(paragraph)) {
+            marker.setText("▸");
+        } else {
+            marker.setText(index.foldEnd(paragraph) - 1 > paragraph ? "▾" : "");
+        }
+    }
+}
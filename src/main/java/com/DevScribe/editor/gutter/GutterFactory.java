@@ -0,0 +1,57 @@
+package com.DevScribe.editor.gutter;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.layout.HBox;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.LineNumberFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Paragraph graphic of an editor: the line number followed by any extra columns (change
+// markers, ...). Columns build one small node per visible line; RichTextFX only asks for
+// lines on screen, so the cost does not grow with the file.
+public class GutterFactory implements IntFunction<Node> {
+    private final CodeArea area;
+    private final IntFunction<Node> lineNumbers;
+    private final List<IntFunction<Node>> columns = new ArrayList<>();
+
+    private GutterFactory(CodeArea area) {
+        this.area = area;
+        this.lineNumbers = LineNumberFactory.get(area);
+    }
+
+    public static GutterFactory install(CodeArea area) {
+        GutterFactory gutter = new GutterFactory(area);
+        area.setParagraphGraphicFactory(gutter);
+        return gutter;
+    }
+
+    public void addColumn(IntFunction<Node> column) {
+        columns.add(column);
+        refresh();
+    }
+
+    public void removeColumn(IntFunction<Node> column) {
+        if (columns.remove(column)) refresh();
+    }
+
+    // Rebuilds the gutter of every line on screen
+    public void refresh() {
+        area.setParagraphGraphicFactory(null);
+        area.setParagraphGraphicFactory(this);
+    }
+
+    @Override
+    public Node apply(int paragraph) {
+        HBox box = new HBox(lineNumbers.apply(paragraph));
+        for (IntFunction<Node> column : columns) {
+            box.getChildren().add(column.apply(paragraph));
+        }
+        box.setAlignment(Pos.CENTER_LEFT);
+        box.getStyleClass().add("gutter");
+        return box;
+    }
+}
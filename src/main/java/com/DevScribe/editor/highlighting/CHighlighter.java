@@ -45,5 +45,10 @@ public class CHighlighter implements LanguageHighlighter {
         spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
         return spansBuilder.create();
     }
+
+    @Override
+    public List<String> getKeywords() {
+        return List.of(KEYWORDS);
+    }
 }
 
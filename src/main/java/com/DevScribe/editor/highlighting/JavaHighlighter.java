@@ -77,4 +77,9 @@ public class JavaHighlighter implements LanguageHighlighter {
         spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
         return spansBuilder.create();
     }
+
+    @Override
+    public List<String> getKeywords() {
+        return List.of(KEYWORDS);
+    }
 }
@@ -2,7 +2,11 @@ package com.DevScribe.editor.highlighting;
 
 import org.fxmisc.richtext.model.StyleSpans;
 import java.util.Collection;
+import java.util.List;
 
 public interface LanguageHighlighter {
     StyleSpans<Collection<String>> computeHighlighting(String text);
+
+    // The language's reserved words, offered by completion
+    List<String> getKeywords();
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.DevScribe.editor.highlighting;
+
+import com.DevScribe.editor.LongLines;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.util.Collection;
+import java.util.List;
+
+// Highlights with another highlighter except on lines over LongLines.LIMIT, which get no
+// tokens and are cut into CHUNK-sized spans instead. Each span becomes its own text node,
+// so a huge line is drawn and culled piecewise rather than as one node. Neighbouring spans
+// alternate between two style classes that look the same; equal ones would be merged.
+// Text without long lines goes to the other highlighter unchanged.
+public class LongLineHighlighter implements LanguageHighlighter {
+    private static final Collection<String> CHUNK_A = List.of("chunk-a");
+    private static final Collection<String> CHUNK_B = List.of("chunk-b");
+
+    private final LanguageHighlighter delegate;
+
+    public LongLineHighlighter(LanguageHighlighter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public StyleSpans<Collection<String>> computeHighlighting(String text) {
+        StyleSpansBuilder<Collection<String>> spans = new StyleSpansBuilder<>();
+        int regionStart = 0;
+        int lineStart = 0;
+        boolean longLines = false;
+        while (lineStart <= text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = text.length();
+            if (lineEnd - lineStart > LongLines.LIMIT) {
+                if (lineStart > regionStart) {
+                    spans.addAll(delegate.computeHighlighting(text.substring(regionStart, lineStart)));
+                }
+                for (int i = lineStart, chunk = 0; i < lineEnd; i += LongLines.CHUNK, chunk++) {
+                    spans.add(chunk % 2 == 0 ? CHUNK_A : CHUNK_B, Math.min(LongLines.CHUNK, lineEnd - i));
+                }
+                // The line break starts the next region
+                regionStart = lineEnd;
+                longLines = true;
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (!longLines) return delegate.computeHighlighting(text);
+        if (text.length() > regionStart) {
+            spans.addAll(delegate.computeHighlighting(text.substring(regionStart)));
+        }
+        return spans.create();
+    }
+
+    @Override
+    public List<String> getKeywords() {
+        return delegate.getKeywords();
+    }
+}
@@ -42,4 +42,9 @@ public class PythonHighlighter implements LanguageHighlighter {
         spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
         return spansBuilder.create();
     }
+
+    @Override
+    public List<String> getKeywords() {
+        return List.of(KEYWORDS);
+    }
 }
@@ -0,0 +1,160 @@
+package com.DevScribe.editor.history;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+// Undo and redo for one document, kept apart from its editor so it survives hibernation
+// and, written to the project cache when the document closes, a restart. Entries are
+// trimmed to the part of the text that actually changed, so replacing a whole buffer
+// with a slightly different one costs a few characters, and a run of typing or deleting
+// becomes one entry until the user pauses, jumps elsewhere or presses enter. Each stack
+// keeps its newest entries in memory and spills older ones to a file (see EditStack), so
+// a tab's memory stays bounded however deep its history goes.
+public class EditHistory {
+    // Undoing replaces inserted at position with removed; redoing does the opposite
+    public record Edit(int position, String removed, String inserted) {
+        int size() {
+            return removed.length() + inserted.length();
+        }
+    }
+
+    private static final long MERGE_WINDOW_MS = 1000;
+    private static final int MAX_RUN = 256;
+
+    private final EditStack undo;
+    private final EditStack redo;
+    private boolean mergeable = false;
+    private long lastEdit = 0;
+
+    private EditHistory(EditStack undo, EditStack redo) {
+        this.undo = undo;
+        this.redo = redo;
+    }
+
+    // An empty history spilling into dir
+    public EditHistory(Path dir) {
+        this(new EditStack(dir), new EditStack(dir));
+    }
+
+    // The history persisted for a file, if it was written for exactly this text
+    public static EditHistory load(Path file, String text, Path dir) {
+        return new EditHistory(EditStack.load(file, text, dir), new EditStack(dir));
+    }
+
+    public void record(int position, String removed, String inserted, long now) {
+        Edit edit = trim(position, removed, inserted);
+        if (edit == null) return;
+        redo.clear();
+        Edit top = mergeable && now - lastEdit < MERGE_WINDOW_MS ? undo.peek() : null;
+        Edit merged = top == null ? null : merge(top, edit);
+        if (merged != null) {
+            undo.replaceTop(merged);
+        } else {
+            undo.push(edit);
+        }
+        mergeable = edit.size() == 1 || (edit.inserted().length() == 1 && !edit.removed().isEmpty());
+        lastEdit = now;
+    }
+
+    // The entry to revert, or null
+    public Edit undo() {
+        mergeable = false;
+        Edit edit = undo.pop();
+        if (edit != null) redo.push(edit);
+        return edit;
+    }
+
+    // The entry to apply again, or null
+    public Edit redo() {
+        mergeable = false;
+        Edit edit = redo.pop();
+        if (edit != null) undo.push(edit);
+        return edit;
+    }
+
+    public boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    // The next edit starts a new entry
+    public void preventMerge() {
+        mergeable = false;
+    }
+
+    public void clear() {
+        undo.clear();
+        redo.clear();
+        mergeable = false;
+    }
+
+    // Writes the undo entries for the next session and releases the spill files. Redo
+    // entries are dropped, as after any edit
+    public void persist(Path file, String text) {
+        undo.persist(file, text);
+        redo.close();
+    }
+
+    public void close() {
+        undo.close();
+        redo.close();
+    }
+
+    // Spill files left behind by a crash; live ones are written to whenever their editor spills
+    public static void deleteStaleSpills(Path dir) {
+        FileTime cutoff = FileTime.from(Instant.now().minus(1, ChronoUnit.DAYS));
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".spill")).forEach(file -> {
+                try {
+                    if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0) Files.delete(file);
+                } catch (IOException ignored) {
+                }
+            });
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Drops the common prefix and suffix of the removed and inserted text
+    static Edit trim(int position, String removed, String inserted) {
+        int max = Math.min(removed.length(), inserted.length());
+        int prefix = 0;
+        while (prefix < max && removed.charAt(prefix) == inserted.charAt(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < max - prefix
+                && removed.charAt(removed.length() - 1 - suffix) == inserted.charAt(inserted.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (prefix == removed.length() && prefix == inserted.length()) return null;
+        if (prefix == 0 && suffix == 0) return new Edit(position, removed, inserted);
+        return new Edit(position + prefix,
+                removed.substring(prefix, removed.length() - suffix),
+                inserted.substring(prefix, inserted.length() - suffix));
+    }
+
+    // The entry covering both, or null if edit doesn't continue top's typing or deleting
+    private static Edit merge(Edit top, Edit edit) {
+        if (top.size() >= MAX_RUN) return null;
+        if (edit.removed().isEmpty() && edit.inserted().length() == 1 && !edit.inserted().equals("\n")
+                && !top.inserted().isEmpty() && edit.position() == top.position() + top.inserted().length()) {
+            return new Edit(top.position(), top.removed(), top.inserted() + edit.inserted());
+        }
+        if (edit.inserted().isEmpty() && edit.removed().length() == 1 && top.inserted().isEmpty()) {
+            // Backspace, then delete
+            if (edit.position() + 1 == top.position()) {
+                return new Edit(edit.position(), edit.removed() + top.removed(), "");
+            }
+            if (edit.position() == top.position()) {
+                return new Edit(top.position(), top.removed() + edit.removed(), "");
+            }
+        }
+        return null;
+    }
+}
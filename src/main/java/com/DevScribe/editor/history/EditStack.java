@@ -0,0 +1,250 @@
+package com.DevScribe.editor.history;
+
+import com.DevScribe.editor.history.EditHistory.Edit;
+import com.DevScribe.utils.AppDirs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+// A stack of edits whose newest entries stay in memory, up to MEMORY_CHARS, while older
+// ones are spilled to a file in batches. Records are framed with their length at both
+// ends, so the file is popped from its end and trimmed from its front without an index.
+// A persisted history is the same file with the hash of its text in the header.
+final class EditStack {
+    private static final int MAGIC = 0x44535548;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int MEMORY_CHARS = Integer.getInteger("devscribe.undoMemoryChars", 128 * 1024);
+    // Beyond this the oldest half of the spilled history is dropped
+    private static final long SPILL_LIMIT = 32L * 1024 * 1024;
+
+    private final Path dir;
+    // Newest last
+    private final ArrayDeque<Edit> memory = new ArrayDeque<>();
+    private long memoryChars = 0;
+    private Path spillPath;
+    private FileChannel spill;
+    private long spillEnd = HEADER_BYTES;
+
+    EditStack(Path dir) {
+        this.dir = dir;
+    }
+
+    static EditStack load(Path file, String text, Path dir) {
+        EditStack stack = new EditStack(dir);
+        if (!Files.isRegularFile(file)) return stack;
+        try {
+            boolean matches;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                while (header.hasRemaining()) {
+                    if (channel.read(header) < 0) break;
+                }
+                header.flip();
+                matches = header.remaining() == HEADER_BYTES && header.getInt() == MAGIC
+                        && header.getInt() == FORMAT_VERSION && header.getInt() == text.length()
+                        && header.getInt() == text.hashCode();
+            }
+            if (!matches) {
+                // The file changed since; its history no longer applies
+                Files.deleteIfExists(file);
+                return stack;
+            }
+            stack.spillPath = Files.createTempFile(AppDirs.ensureDirectory(dir), "undo-", ".spill");
+            Files.move(file, stack.spillPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            stack.spill = FileChannel.open(stack.spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            stack.spillEnd = stack.spill.size();
+        } catch (IOException e) {
+            System.err.println("Could not load undo history " + file + ": " + e.getMessage());
+            stack.close();
+        }
+        return stack;
+    }
+
+    boolean isEmpty() {
+        return memory.isEmpty() && spillEnd <= HEADER_BYTES;
+    }
+
+    // The newest entry if it is in memory
+    Edit peek() {
+        return memory.peekLast();
+    }
+
+    void push(Edit edit) {
+        memory.addLast(edit);
+        memoryChars += edit.size();
+        if (memoryChars > MEMORY_CHARS && memory.size() > 1) spill(MEMORY_CHARS / 2);
+    }
+
+    void replaceTop(Edit edit) {
+        memoryChars -= memory.removeLast().size();
+        push(edit);
+    }
+
+    Edit pop() {
+        if (!memory.isEmpty()) {
+            Edit edit = memory.removeLast();
+            memoryChars -= edit.size();
+            return edit;
+        }
+        if (spillEnd <= HEADER_BYTES) return null;
+        try {
+            int length = readInt(spillEnd - 4);
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, spillEnd - 4 - length);
+            spillEnd -= length + 8;
+            spill.truncate(spillEnd);
+            return decode(payload.array());
+        } catch (IOException e) {
+            System.err.println("Undo history lost: " + e.getMessage());
+            close();
+            return null;
+        }
+    }
+
+    void clear() {
+        memory.clear();
+        memoryChars = 0;
+        if (spill == null) return;
+        try {
+            spill.truncate(HEADER_BYTES);
+        } catch (IOException e) {
+            close();
+        }
+        spillEnd = HEADER_BYTES;
+    }
+
+    void persist(Path file, String text) {
+        try {
+            if (isEmpty()) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            spill(0);
+            if (spill == null) return;
+            spill.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT_VERSION)
+                    .putInt(text.length()).putInt(text.hashCode()).flip(), 0);
+            spill.force(false);
+            spill.close();
+            spill = null;
+            Files.move(spillPath, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            spillPath = null;
+        } catch (IOException e) {
+            System.err.println("Could not save undo history " + file + ": " + e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    void close() {
+        memory.clear();
+        memoryChars = 0;
+        try {
+            if (spill != null) spill.close();
+            if (spillPath != null) Files.deleteIfExists(spillPath);
+        } catch (IOException ignored) {
+        }
+        spill = null;
+        spillPath = null;
+        spillEnd = HEADER_BYTES;
+    }
+
+    // Moves the oldest entries in memory to the file until at most keepChars remain; the
+    // newest entry always stays, for merging
+    private void spill(int keepChars) {
+        try {
+            if (spill == null) {
+                spillPath = Files.createTempFile(AppDirs.ensureDirectory(dir), "undo-", ".spill");
+                spill = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                spill.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT_VERSION)
+                        .putInt(-1).putInt(0).flip(), 0);
+                spillEnd = HEADER_BYTES;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            while (memoryChars > keepChars && memory.size() > (keepChars == 0 ? 0 : 1)) {
+                Edit edit = memory.removeFirst();
+                memoryChars -= edit.size();
+                encode(edit, buffer);
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) spillEnd += spill.write(bytes, spillEnd);
+            if (spillEnd > SPILL_LIMIT) dropOldest();
+        } catch (IOException e) {
+            // The entries already taken out of memory are gone; the rest still works
+            System.err.println("Could not spill undo history: " + e.getMessage());
+        }
+    }
+
+    private void dropOldest() throws IOException {
+        long position = HEADER_BYTES;
+        while (position < spillEnd - SPILL_LIMIT / 2) {
+            position += readInt(position) + 8;
+        }
+        Path trimmed = Files.createTempFile(dir, "undo-", ".spill");
+        try (FileChannel out = FileChannel.open(trimmed, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(header, 0);
+            out.write(header.flip());
+            long copied = 0;
+            while (copied < spillEnd - position) {
+                copied += spill.transferTo(position + copied, spillEnd - position - copied, out);
+            }
+            spillEnd = out.size();
+        }
+        spill.close();
+        Files.deleteIfExists(spillPath);
+        spillPath = trimmed;
+        spill = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private int readInt(long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        readFully(buffer, position);
+        return buffer.getInt(0);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (spill.read(buffer, position + buffer.position()) < 0) throw new IOException("Truncated undo history");
+        }
+    }
+
+    // [length][position, removed, inserted][length]
+    private static void encode(Edit edit, ByteArrayOutputStream buffer) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeInt(edit.position());
+        writeText(payload, edit.removed());
+        writeText(payload, edit.inserted());
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(payloadBytes.size());
+        payloadBytes.writeTo(out);
+        out.writeInt(payloadBytes.size());
+    }
+
+    private static Edit decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        return new Edit(in.readInt(), readText(in), readText(in));
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+}
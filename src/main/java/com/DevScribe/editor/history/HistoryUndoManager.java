@@ -0,0 +1,159 @@
+package com.DevScribe.editor.history;
+
+import com.DevScribe.editor.history.EditHistory.Edit;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.value.ObservableBooleanValue;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.undo.UndoManager;
+import org.reactfx.Subscription;
+import org.reactfx.value.Val;
+import org.reactfx.value.Var;
+
+// Connects a CodeArea's undo and redo (menu items and shortcuts alike) to a document's
+// EditHistory in place of the area's own manager, which keeps every change in memory.
+// A new one is made each time a hibernated document gets its editor back.
+public class HistoryUndoManager implements UndoManager<Edit> {
+    private final CodeArea area;
+    private final EditHistory history;
+    private final Subscription changes;
+    private final ReadOnlyBooleanWrapper performingAction = new ReadOnlyBooleanWrapper(false);
+    private final Var<Boolean> undoAvailable = Var.newSimpleVar(false);
+    private final Var<Boolean> redoAvailable = Var.newSimpleVar(false);
+    private final ReadOnlyBooleanWrapper atMarkedPosition = new ReadOnlyBooleanWrapper(true);
+    // Bumped on every change to the history; a mark holds on to the value it saw
+    private long version = 0;
+    private long markedVersion = 0;
+
+    public HistoryUndoManager(CodeArea area, EditHistory history) {
+        this.area = area;
+        this.history = history;
+        this.changes = area.plainTextChanges().subscribe(change -> {
+            if (performingAction.get()) return;
+            history.record(change.getPosition(), change.getRemoved(), change.getInserted(), System.currentTimeMillis());
+            changed();
+        });
+        changed();
+    }
+
+    @Override
+    public boolean undo() {
+        Edit edit = history.undo();
+        if (edit == null) return false;
+        apply(edit.position(), edit.inserted(), edit.removed());
+        return true;
+    }
+
+    @Override
+    public boolean redo() {
+        Edit edit = history.redo();
+        if (edit == null) return false;
+        apply(edit.position(), edit.removed(), edit.inserted());
+        return true;
+    }
+
+    private void apply(int position, String current, String replacement) {
+        performingAction.set(true);
+        try {
+            area.replaceText(position, position + current.length(), replacement);
+            area.moveTo(position + replacement.length());
+            area.requestFollowCaret();
+        } finally {
+            performingAction.set(false);
+        }
+        changed();
+    }
+
+    private void changed() {
+        version++;
+        undoAvailable.setValue(history.canUndo());
+        redoAvailable.setValue(history.canRedo());
+        atMarkedPosition.set(version == markedVersion);
+    }
+
+    @Override
+    public Val<Boolean> undoAvailableProperty() {
+        return undoAvailable;
+    }
+
+    @Override
+    public boolean isUndoAvailable() {
+        return undoAvailable.getValue();
+    }
+
+    @Override
+    public Val<Boolean> redoAvailableProperty() {
+        return redoAvailable;
+    }
+
+    @Override
+    public boolean isRedoAvailable() {
+        return redoAvailable.getValue();
+    }
+
+    // Older entries may only be on disk, so the next ones are not exposed
+    @Override
+    public Val<Edit> nextUndoProperty() {
+        return Val.constant(null);
+    }
+
+    @Override
+    public Val<Edit> nextRedoProperty() {
+        return Val.constant(null);
+    }
+
+    @Override
+    public ObservableBooleanValue performingActionProperty() {
+        return performingAction.getReadOnlyProperty();
+    }
+
+    @Override
+    public boolean isPerformingAction() {
+        return performingAction.get();
+    }
+
+    @Override
+    public void preventMerge() {
+        history.preventMerge();
+    }
+
+    @Override
+    public void forgetHistory() {
+        history.clear();
+        changed();
+    }
+
+    // Only exact positions are recognised: undoing back to a mark after further edits
+    // doesn't count as being at it
+    @Override
+    public UndoPosition getCurrentPosition() {
+        long position = version;
+        return new UndoPosition() {
+            @Override
+            public void mark() {
+                markedVersion = position;
+                atMarkedPosition.set(version == markedVersion);
+            }
+
+            @Override
+            public boolean isValid() {
+                return position == version;
+            }
+        };
+    }
+
+    @Override
+    public ObservableBooleanValue atMarkedPositionProperty() {
+        return atMarkedPosition.getReadOnlyProperty();
+    }
+
+    @Override
+    public boolean isAtMarkedPosition() {
+        return atMarkedPosition.get();
+    }
+
+    // Stops listening to the editor; the history itself belongs to the document
+    @Override
+    public void close() {
+        changes.unsubscribe();
+    }
+}
@@ -0,0 +1,106 @@
+package com.DevScribe.editor.structure;
+
+import com.DevScribe.model.Language;
+
+import java.util.List;
+
+// Finds the brackets of one line, skipping those in comments and string literals. The
+// state a line ends in (inside a block comment or a multi-line string) is what the next
+// line starts in, so a line can be lexed again on its own after an edit.
+final class BracketLexer {
+    static final int NORMAL = 0;
+    static final int BLOCK_COMMENT = 1;
+    static final int TEXT_BLOCK = 2;
+    static final int TRIPLE_SINGLE = 3;
+
+    private final boolean python;
+    private final boolean textBlocks;
+
+    BracketLexer(Language language) {
+        this.python = language == Language.PYTHON;
+        this.textBlocks = language != Language.C;
+    }
+
+    // Adds the brackets of line, which starts at offset lineStart, to out and returns the
+    // state the line ends in
+    int lex(String line, int state, int lineStart, List<BracketTree.Node> out) {
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            if (state == BLOCK_COMMENT) {
+                int end = line.indexOf("*/", i);
+                if (end < 0) return state;
+                i = end + 2;
+                state = NORMAL;
+                continue;
+            }
+            if (state == TEXT_BLOCK || state == TRIPLE_SINGLE) {
+                String close = state == TEXT_BLOCK ? "\"\"\"" : "'''";
+                int end = closingQuotes(line, i, close);
+                if (end < 0) return state;
+                i = end + 3;
+                state = NORMAL;
+                continue;
+            }
+            char c = line.charAt(i);
+            switch (c) {
+                case '(', ')', '{', '}', '[', ']' -> {
+                    out.add(new BracketTree.Node(lineStart + i, c));
+                    i++;
+                }
+                case '/' -> {
+                    if (python || i + 1 >= length) {
+                        i++;
+                    } else if (line.charAt(i + 1) == '/') {
+                        return NORMAL;
+                    } else if (line.charAt(i + 1) == '*') {
+                        state = BLOCK_COMMENT;
+                        i += 2;
+                    } else {
+                        i++;
+                    }
+                }
+                case '#' -> {
+                    if (python) return NORMAL;
+                    i++;
+                }
+                case '"', '\'' -> {
+                    if (textBlocks && line.startsWith(c == '"' ? "\"\"\"" : "'''", i) && (c == '"' || python)) {
+                        state = c == '"' ? TEXT_BLOCK : TRIPLE_SINGLE;
+                        i += 3;
+                    } else {
+                        i = endOfLiteral(line, i + 1, c);
+                    }
+                }
+                default -> i++;
+            }
+        }
+        return state;
+    }
+
+    // Index of the closing triple quote at or after from, or -1
+    private static int closingQuotes(String line, int from, String close) {
+        for (int i = from; i + 3 <= line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (line.startsWith(close, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Index just past the literal's closing quote; an unterminated literal ends the line
+    private static int endOfLiteral(String line, int from, char quote) {
+        for (int i = from; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i + 1;
+            }
+        }
+        return line.length();
+    }
+}
@@ -0,0 +1,211 @@
+package com.DevScribe.editor.structure;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// The brackets of a document in text order, kept in a treap. Each node holds its
+// bracket's offset, shifted lazily so an edit moves everything after it in O(log n), and
+// the depth aggregates the match searches descend by: the sum of the +1/-1 steps in its
+// subtree and the lowest depth reached before and after each bracket. Finding a partner
+// is then a single walk down the tree instead of a scan.
+final class BracketTree {
+    static final class Node {
+        private int offset;
+        private final char bracket;
+        private final int step;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        // Pending shift for this node and everything below it
+        private int shift;
+        private int sum;
+        private int minBefore;
+        private int minAfter;
+
+        Node(int offset, char bracket) {
+            this.offset = offset;
+            this.bracket = bracket;
+            this.step = isOpening(bracket) ? 1 : -1;
+            update();
+        }
+
+        int offset() {
+            return offset;
+        }
+
+        char bracket() {
+            return bracket;
+        }
+
+        private void push() {
+            if (shift == 0) return;
+            offset += shift;
+            if (left != null) left.shift += shift;
+            if (right != null) right.shift += shift;
+            shift = 0;
+        }
+
+        private void update() {
+            int leftSum = left == null ? 0 : left.sum;
+            int afterSelf = leftSum + step;
+            sum = afterSelf + (right == null ? 0 : right.sum);
+            minBefore = Math.min(leftSum, left == null ? Integer.MAX_VALUE : left.minBefore);
+            minAfter = Math.min(afterSelf, left == null ? Integer.MAX_VALUE : left.minAfter);
+            if (right != null) {
+                minBefore = Math.min(minBefore, afterSelf + right.minBefore);
+                minAfter = Math.min(minAfter, afterSelf + right.minAfter);
+            }
+        }
+    }
+
+    private Node root;
+
+    static boolean isOpening(char bracket) {
+        return bracket == '(' || bracket == '{' || bracket == '[';
+    }
+
+    static boolean pairs(char open, char close) {
+        return (open == '(' && close == ')') || (open == '{' && close == '}') || (open == '[' && close == ']');
+    }
+
+    // Replaces the whole tree with nodes already in text order, in linear time
+    void build(List<Node> nodes) {
+        Node[] spine = new Node[nodes.size()];
+        int height = 0;
+        for (Node node : nodes) {
+            Node last = null;
+            while (height > 0 && spine[height - 1].priority < node.priority) {
+                last = spine[--height];
+                last.update();
+            }
+            node.left = last;
+            if (height > 0) spine[height - 1].right = node;
+            spine[height++] = node;
+        }
+        while (height > 0) spine[--height].update();
+        // The bottom of the spine holds the highest priority seen, so it is the root
+        root = nodes.isEmpty() ? null : spine[0];
+    }
+
+    // Replaces the brackets at offsets [from, to) with replacement, whose offsets are
+    // final, and moves the brackets from to onwards by shift
+    void replace(int from, int to, List<Node> replacement, int shift) {
+        Node[] head = split(root, from);
+        Node[] tail = split(head[1], to);
+        if (tail[1] != null) tail[1].shift += shift;
+        Node middle = null;
+        for (Node node : replacement) middle = merge(middle, node);
+        root = merge(merge(head[0], middle), tail[1]);
+    }
+
+    // The bracket starting at offset, or null
+    Node at(int offset) {
+        Node node = root;
+        while (node != null) {
+            node.push();
+            if (offset < node.offset) {
+                node = node.left;
+            } else if (offset > node.offset) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // The partner of the bracket at offset: the first later bracket that takes the depth
+    // below the opener's, or the last earlier one the closer returns to. Null if unmatched
+    Node partner(int offset) {
+        Node[] before = split(root, offset);
+        Node[] self = split(before[1], offset + 1);
+        Node bracket = self[0];
+        Node partner = null;
+        if (bracket != null) {
+            int depthBefore = before[0] == null ? 0 : before[0].sum;
+            if (bracket.step > 0) {
+                partner = firstAtOrBelow(self[1], depthBefore + 1, depthBefore);
+            } else {
+                partner = lastStartingAtOrBelow(before[0], depthBefore - 1);
+            }
+        }
+        root = merge(merge(before[0], bracket), self[1]);
+        return partner;
+    }
+
+    // Brackets with offsets in [from, to), in order
+    void collect(int from, int to, List<Node> out) {
+        collect(root, from, to, out);
+    }
+
+    private static void collect(Node node, int from, int to, List<Node> out) {
+        if (node == null) return;
+        node.push();
+        if (from < node.offset) collect(node.left, from, to, out);
+        if (node.offset >= from && node.offset < to) out.add(node);
+        if (node.offset < to - 1) collect(node.right, from, to, out);
+    }
+
+    // First node where base plus the depth after it is at most target
+    private static Node firstAtOrBelow(Node node, int base, int target) {
+        if (node == null || base + node.minAfter > target) return null;
+        while (true) {
+            node.push();
+            if (node.left != null && base + node.left.minAfter <= target) {
+                node = node.left;
+                continue;
+            }
+            base += (node.left == null ? 0 : node.left.sum) + node.step;
+            if (base <= target) return node;
+            node = node.right;
+        }
+    }
+
+    // Last node where the depth before it is at most target
+    private static Node lastStartingAtOrBelow(Node node, int target) {
+        if (node == null || node.minBefore > target) return null;
+        int base = 0;
+        while (true) {
+            node.push();
+            int before = base + (node.left == null ? 0 : node.left.sum);
+            if (node.right != null && before + node.step + node.right.minBefore <= target) {
+                base = before + node.step;
+                node = node.right;
+                continue;
+            }
+            if (before <= target) return node;
+            node = node.left;
+        }
+    }
+
+    // [offsets below offset, the rest]
+    private static Node[] split(Node node, int offset) {
+        if (node == null) return new Node[2];
+        node.push();
+        if (node.offset < offset) {
+            Node[] right = split(node.right, offset);
+            node.right = right[0];
+            node.update();
+            return new Node[]{node, right[1]};
+        }
+        Node[] left = split(node.left, offset);
+        node.left = left[1];
+        node.update();
+        return new Node[]{left[0], node};
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.push();
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.push();
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+}
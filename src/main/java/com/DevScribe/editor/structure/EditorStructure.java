@@ -0,0 +1,114 @@
+package com.DevScribe.editor.structure;
+
+import com.DevScribe.editor.gutter.FoldGutter;
+import com.DevScribe.editor.gutter.GutterFactory;
+import com.DevScribe.model.Language;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.Selection;
+import org.fxmisc.richtext.SelectionImpl;
+import org.fxmisc.richtext.model.TwoDimensional.Bias;
+import org.reactfx.Subscription;
+
+import java.util.Collection;
+import java.util.List;
+
+// Keeps a StructureIndex in step with an editor and puts it to use: the bracket next to
+// the caret and its partner are highlighted, and a gutter column folds bracketed regions.
+public class EditorStructure {
+    private final CodeArea area;
+    private final GutterFactory gutter;
+    private final StructureIndex index;
+    private final FoldGutter foldGutter;
+    private final Subscription edits;
+    private final InvalidationListener caretListener = obs -> scheduleHighlight();
+    private final Selection<Collection<String>, String, Collection<String>> bracket;
+    private final Selection<Collection<String>, String, Collection<String>> partner;
+    private boolean highlightPending = false;
+    private boolean disposed = false;
+
+    private EditorStructure(CodeArea area, GutterFactory gutter, Language language) {
+        this.area = area;
+        this.gutter = gutter;
+        this.index = new StructureIndex(new StructureIndex.LineSource() {
+            @Override
+            public int lineCount() {
+                return area.getParagraphs().size();
+            }
+
+            @Override
+            public String line(int index) {
+                return area.getText(index);
+            }
+
+            @Override
+            public int lineStart(int index) {
+                return area.getAbsolutePosition(index, 0);
+            }
+
+            @Override
+            public int lineOf(int offset) {
+                return area.offsetToPosition(offset, Bias.Forward).getMajor();
+            }
+        }, language);
+        this.foldGutter = new FoldGutter(area, index);
+        this.bracket = matchSelection("bracket");
+        this.partner = matchSelection("bracket-partner");
+        this.edits = area.plainTextChanges().subscribe(change -> {
+            index.update(change.getPosition(), change.getRemoved(), change.getInserted());
+            scheduleHighlight();
+        });
+        area.caretPositionProperty().addListener(caretListener);
+    }
+
+    public static EditorStructure attach(CodeArea area, GutterFactory gutter, Language language) {
+        EditorStructure structure = new EditorStructure(area, gutter, language);
+        gutter.addColumn(structure.foldGutter);
+        structure.highlight();
+        return structure;
+    }
+
+    public void dispose() {
+        disposed = true;
+        edits.unsubscribe();
+        area.caretPositionProperty().removeListener(caretListener);
+        foldGutter.dispose();
+        gutter.removeColumn(foldGutter);
+        for (Selection<Collection<String>, String, Collection<String>> selection : List.of(bracket, partner)) {
+            area.removeSelection(selection);
+            selection.dispose();
+        }
+    }
+
+    private Selection<Collection<String>, String, Collection<String>> matchSelection(String name) {
+        Selection<Collection<String>, String, Collection<String>> selection =
+                new SelectionImpl<>(name, area, path -> path.getStyleClass().add("bracket-match"));
+        area.addSelection(selection);
+        return selection;
+    }
+
+    // The caret moves before the change that moved it reaches the index, so the
+    // highlight waits until the current event is over
+    private void scheduleHighlight() {
+        if (highlightPending) return;
+        highlightPending = true;
+        Platform.runLater(() -> {
+            highlightPending = false;
+            if (!disposed) highlight();
+        });
+    }
+
+    private void highlight() {
+        int caret = area.getCaretPosition();
+        int offset = caret > 0 && index.isBracket(caret - 1) ? caret - 1 : caret;
+        int match = index.matchOf(offset);
+        if (match < 0) {
+            bracket.selectRange(0, 0);
+            partner.selectRange(0, 0);
+        } else {
+            bracket.selectRange(offset, offset + 1);
+            partner.selectRange(match, match + 1);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.DevScribe.editor.structure;
+
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
+import com.DevScribe.model.Language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The bracket structure of a document: which bracket matches which, and which lines
+// open a region that can be folded. An edit re-lexes only the lines it touched, plus
+// any following lines whose comment or string state it changed, and splices their
+// brackets into a BracketTree; everything after just moves by the length difference.
+// Queries take logarithmic time, so neither depends on the size of the file.
+public class StructureIndex {
+    private static final Timer UPDATE = Metrics.timer("structure.update");
+
+    // The text being indexed, as lines; offsets count the newline ending each line
+    public interface LineSource {
+        int lineCount();
+
+        String line(int index);
+
+        int lineStart(int index);
+
+        int lineOf(int offset);
+    }
+
+    private final LineSource source;
+    private final BracketLexer lexer;
+    private final BracketTree tree = new BracketTree();
+    // The lexer state each line starts in
+    private int[] states = new int[0];
+    private int lineCount = 0;
+
+    public StructureIndex(LineSource source, Language language) {
+        this.source = source;
+        this.lexer = new BracketLexer(language);
+        rebuild();
+    }
+
+    public void rebuild() {
+        lineCount = source.lineCount();
+        states = new int[Math.max(16, lineCount + 1)];
+        List<BracketTree.Node> nodes = new ArrayList<>();
+        int state = BracketLexer.NORMAL;
+        for (int i = 0; i < lineCount; i++) {
+            states[i] = state;
+            state = lexer.lex(source.line(i), state, source.lineStart(i), nodes);
+        }
+        states[lineCount] = state;
+        tree.build(nodes);
+    }
+
+    // Brings the index up to date after removed was replaced by inserted at position;
+    // the source already holds the new text
+    public void update(int position, String removed, String inserted) {
+        long start = UPDATE.start();
+        int removedLines = newlines(removed);
+        int insertedLines = newlines(inserted);
+        if (lineCount - removedLines + insertedLines != source.lineCount()) {
+            // Out of step with the source (several changes folded into one); start over
+            rebuild();
+            UPDATE.stop(start);
+            return;
+        }
+        int delta = inserted.length() - removed.length();
+        int first = source.lineOf(position);
+        int last = first + insertedLines;
+        spliceStates(first + 1, removedLines, insertedLines);
+
+        List<BracketTree.Node> nodes = new ArrayList<>();
+        int line = first;
+        int state = states[first];
+        while (line < lineCount) {
+            state = lexer.lex(source.line(line), state, source.lineStart(line), nodes);
+            line++;
+            // Lines past the edit only need lexing again while their start state changes
+            boolean settled = line > last && states[line] == state;
+            states[line] = state;
+            if (settled) break;
+        }
+        int from = source.lineStart(first);
+        int to = line < lineCount ? source.lineStart(line) - delta : Integer.MAX_VALUE;
+        tree.replace(from, to, nodes, delta);
+        UPDATE.stop(start);
+    }
+
+    // Offset of the bracket matching the one at offset, or -1 if there is no bracket
+    // there or it is unmatched
+    public int matchOf(int offset) {
+        BracketTree.Node bracket = tree.at(offset);
+        if (bracket == null) return -1;
+        BracketTree.Node partner = tree.partner(offset);
+        if (partner == null) return -1;
+        boolean pairs = BracketTree.isOpening(bracket.bracket())
+                ? BracketTree.pairs(bracket.bracket(), partner.bracket())
+                : BracketTree.pairs(partner.bracket(), bracket.bracket());
+        return pairs ? partner.offset() : -1;
+    }
+
+    public boolean isBracket(int offset) {
+        return tree.at(offset) != null;
+    }
+
+    // Line holding the close of the first bracket opened on line and closed on a later
+    // one, or -1 if line doesn't start a foldable region
+    public int foldEnd(int line) {
+        if (line < 0 || line >= lineCount) return -1;
+        int from = source.lineStart(line);
+        int to = line + 1 < lineCount ? source.lineStart(line + 1) : Integer.MAX_VALUE;
+        List<BracketTree.Node> brackets = new ArrayList<>();
+        tree.collect(from, to, brackets);
+        for (BracketTree.Node bracket : brackets) {
+            if (!BracketTree.isOpening(bracket.bracket())) continue;
+            int match = matchOf(bracket.offset());
+            if (match >= to) return source.lineOf(match);
+        }
+        return -1;
+    }
+
+    private void spliceStates(int at, int removed, int inserted) {
+        int newCount = lineCount - removed + inserted;
+        if (newCount + 1 > states.length) {
+            states = Arrays.copyOf(states, Math.max(newCount + 1, states.length + states.length / 2));
+        }
+        System.arraycopy(states, at + removed, states, at + inserted, lineCount + 1 - at - removed);
+        lineCount = newCount;
+    }
+
+    private static int newlines(String text) {
+        int count = 0;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) count++;
+        return count;
+    }
+}
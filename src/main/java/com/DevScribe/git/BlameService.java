@@ -0,0 +1,220 @@
+package com.DevScribe.git;
+
+import com.DevScribe.utils.AppDirs;
+import org.eclipse.jgit.blame.BlameGenerator;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Line-by-line authorship of committed files. JGit's BlameGenerator walks history newest
+// first and hands out each region as soon as its commit is known, so recently changed
+// lines appear at once even on files with long histories. Finished results are kept in
+// memory and on disk, keyed by path and HEAD commit, so reopening a file is instant.
+public class BlameService {
+    private static final int FORMAT_VERSION = 1;
+    private static final int MEMORY_ENTRIES = 16;
+
+    public record BlameCommit(String id, String author, long time, String summary) {
+        public String shortId() {
+            return id.substring(0, Math.min(7, id.length()));
+        }
+    }
+
+    // Called on the blame thread. Lines are HEAD line numbers: [start, end) of a region
+    public interface BlameListener {
+        void onStart(ObjectId head, int lineCount);
+
+        void onLines(int start, int end, BlameCommit commit);
+
+        void onCompleted();
+
+        void onFailed(Exception e);
+    }
+
+    public static class BlameHandle {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    private final GitProject project;
+    private final Path cacheDir;
+    private final Map<String, BlameCommit[]> memory = new LinkedHashMap<>(MEMORY_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BlameCommit[]> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+
+    BlameService(GitProject project) {
+        this.project = project;
+        this.cacheDir = AppDirs.getProjectCacheDir(project.getWorkTree()).resolve("blame");
+    }
+
+    // Blames the HEAD version of the file in the background
+    public BlameHandle blame(Path file, BlameListener listener) {
+        BlameHandle handle = new BlameHandle();
+        Thread.ofVirtual().name("git-blame").start(() -> {
+            try {
+                run(file, listener, handle);
+            } catch (Exception e) {
+                if (!handle.isCancelled()) listener.onFailed(e);
+            }
+        });
+        return handle;
+    }
+
+    private void run(Path file, BlameListener listener, BlameHandle handle) throws IOException {
+        String relative = project.relativize(file);
+        ObjectId head = project.getRepository().resolve(Constants.HEAD);
+        if (relative == null || relative.isEmpty() || head == null) {
+            throw new IOException(file.getFileName() + " has no committed history");
+        }
+        String key = relative + "@" + head.name();
+
+        BlameCommit[] lines;
+        synchronized (memory) {
+            lines = memory.get(key);
+        }
+        if (lines == null) {
+            lines = readCache(relative, head);
+        }
+        if (lines != null) {
+            deliver(head, lines, listener);
+            return;
+        }
+
+        try (BlameGenerator generator = new BlameGenerator(project.getRepository(), relative)) {
+            generator.setTextComparator(RawTextComparator.DEFAULT);
+            generator.push(null, head);
+            lines = new BlameCommit[generator.getResultContents().size()];
+            listener.onStart(head, lines.length);
+            // Many regions come from the same commit; share one record per commit
+            Map<ObjectId, BlameCommit> commits = new HashMap<>();
+            while (generator.next()) {
+                if (handle.isCancelled()) return;
+                RevCommit source = generator.getSourceCommit();
+                if (source == null) continue;
+                BlameCommit commit = commits.computeIfAbsent(source.copy(), id -> toBlameCommit(source, generator.getSourceAuthor()));
+                int start = generator.getResultStart();
+                int end = generator.getResultEnd();
+                Arrays.fill(lines, start, end, commit);
+                listener.onLines(start, end, commit);
+            }
+        }
+        synchronized (memory) {
+            memory.put(key, lines);
+        }
+        writeCache(relative, head, lines);
+        listener.onCompleted();
+    }
+
+    private static BlameCommit toBlameCommit(RevCommit commit, PersonIdent author) {
+        String name = author != null ? author.getName() : "";
+        long time = author != null ? author.getWhen().getTime() : commit.getCommitTime() * 1000L;
+        return new BlameCommit(commit.name(), name, time, commit.getShortMessage());
+    }
+
+    private static void deliver(ObjectId head, BlameCommit[] lines, BlameListener listener) {
+        listener.onStart(head, lines.length);
+        int start = 0;
+        for (int i = 1; i <= lines.length; i++) {
+            if (i == lines.length || lines[i] != lines[start]) {
+                if (lines[start] != null) listener.onLines(start, i, lines[start]);
+                start = i;
+            }
+        }
+        listener.onCompleted();
+    }
+
+    // ===================== Disk cache =====================
+
+    private Path cacheFile(String relative, ObjectId head) {
+        return cacheDir.resolve(cachePrefix(relative) + head.name() + ".blame");
+    }
+
+    private static String cachePrefix(String relative) {
+        return UUID.nameUUIDFromBytes(relative.getBytes(StandardCharsets.UTF_8)) + "-";
+    }
+
+    private BlameCommit[] readCache(String relative, ObjectId head) {
+        Path file = cacheFile(relative, head);
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(relative)) return null;
+            BlameCommit[] commits = new BlameCommit[in.readInt()];
+            for (int i = 0; i < commits.length; i++) {
+                commits[i] = new BlameCommit(in.readUTF(), in.readUTF(), in.readLong(), in.readUTF());
+            }
+            BlameCommit[] lines = new BlameCommit[in.readInt()];
+            for (int i = 0; i < lines.length; i++) {
+                int index = in.readInt();
+                lines[i] = index < 0 ? null : commits[index];
+            }
+            return lines;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable blame cache " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCache(String relative, ObjectId head, BlameCommit[] lines) {
+        try {
+            Files.createDirectories(cacheDir);
+            Path target = cacheFile(relative, head);
+            Path temp = Files.createTempFile(cacheDir, "blame", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Map<BlameCommit, Integer> indexes = new IdentityHashMap<>();
+                for (BlameCommit commit : lines) {
+                    if (commit != null) indexes.putIfAbsent(commit, indexes.size());
+                }
+                BlameCommit[] commits = new BlameCommit[indexes.size()];
+                indexes.forEach((commit, index) -> commits[index] = commit);
+
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(relative);
+                out.writeInt(commits.length);
+                for (BlameCommit commit : commits) {
+                    out.writeUTF(commit.id());
+                    out.writeUTF(commit.author());
+                    out.writeLong(commit.time());
+                    out.writeUTF(truncate(commit.summary()));
+                }
+                out.writeInt(lines.length);
+                for (BlameCommit commit : lines) {
+                    out.writeInt(commit == null ? -1 : indexes.get(commit));
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // Results for older HEADs of the same file are not needed anymore
+            String prefix = cachePrefix(relative);
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                files.filter(p -> p.getFileName().toString().startsWith(prefix) && !p.equals(target))
+                        .forEach(p -> p.toFile().delete());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write blame cache: " + e.getMessage());
+        }
+    }
+
+    // writeUTF is limited to 64 KB
+    private static String truncate(String text) {
+        return text.length() > 1000 ? text.substring(0, 1000) : text;
+    }
+}
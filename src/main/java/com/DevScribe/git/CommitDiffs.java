@@ -0,0 +1,90 @@
+package com.DevScribe.git;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Unified diffs of commits against their first parent, computed when a commit is first
+// selected and kept for the most recently viewed ones
+public class CommitDiffs {
+    private static final int CACHED_DIFFS = 32;
+    // Huge commits (vendored code, generated files) are cut off rather than rendered whole
+    private static final int MAX_DIFF_BYTES = 2 * 1024 * 1024;
+
+    private final GitProject project;
+    private final Map<String, String> cache = new LinkedHashMap<>(CACHED_DIFFS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHED_DIFFS;
+        }
+    };
+
+    public CommitDiffs(GitProject project) {
+        this.project = project;
+    }
+
+    public String diff(String commitId) throws IOException {
+        synchronized (cache) {
+            String cached = cache.get(commitId);
+            if (cached != null) return cached;
+        }
+        String diff = compute(commitId);
+        synchronized (cache) {
+            cache.put(commitId, diff);
+        }
+        return diff;
+    }
+
+    private String compute(String commitId) throws IOException {
+        try (RevWalk walk = new RevWalk(project.getRepository());
+             ObjectReader reader = project.getRepository().newObjectReader()) {
+            RevCommit commit = walk.parseCommit(ObjectId.fromString(commitId));
+            AbstractTreeIterator parentTree = new EmptyTreeIterator();
+            if (commit.getParentCount() > 0) {
+                RevCommit parent = walk.parseCommit(commit.getParent(0));
+                parentTree = new CanonicalTreeParser(null, reader, parent.getTree());
+            }
+            AbstractTreeIterator tree = new CanonicalTreeParser(null, reader, commit.getTree());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            StringBuilder header = new StringBuilder()
+                    .append("commit ").append(commit.name()).append('\n')
+                    .append("Author: ").append(commit.getAuthorIdent().getName())
+                    .append(" <").append(commit.getAuthorIdent().getEmailAddress()).append(">\n\n");
+            for (String line : commit.getFullMessage().split("\n")) {
+                header.append("    ").append(line).append('\n');
+            }
+            header.append('\n');
+
+            try (DiffFormatter formatter = new DiffFormatter(out)) {
+                formatter.setRepository(project.getRepository());
+                formatter.setDetectRenames(true);
+                List<DiffEntry> entries = formatter.scan(parentTree, tree);
+                for (int i = 0; i < entries.size(); i++) {
+                    if (out.size() > MAX_DIFF_BYTES) {
+                        formatter.flush();
+                        out.write(("\n... " + (entries.size() - i) + " more files not shown\n")
+                                .getBytes(StandardCharsets.UTF_8));
+                        break;
+                    }
+                    formatter.format(entries.get(i));
+                }
+                formatter.flush();
+            }
+            return header + out.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.DevScribe.git;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// The commit history of HEAD, read a page at a time. The RevWalk is unsorted, so JGit
+// produces commits as it goes instead of loading the whole graph first; opening the log
+// of a huge repository only costs the first page. The walk is not thread-safe, so all
+// pages are read on one background thread.
+public class CommitLog implements AutoCloseable {
+    public record CommitSummary(String id, String shortMessage, String author, long time) {
+        public String shortId() {
+            return id.substring(0, Math.min(7, id.length()));
+        }
+    }
+
+    private final GitProject project;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "git-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private RevWalk walk;
+    private boolean exhausted = false;
+
+    public CommitLog(GitProject project) {
+        this.project = project;
+    }
+
+    // Completes with up to size commits following the previous page; an empty list means
+    // the start of history was reached
+    public CompletableFuture<List<CommitSummary>> nextPage(int size) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readPage(size);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+    }
+
+    private List<CommitSummary> readPage(int size) throws IOException {
+        List<CommitSummary> page = new ArrayList<>(size);
+        if (exhausted) return page;
+        if (walk == null) {
+            ObjectId head = project.getRepository().resolve(Constants.HEAD);
+            if (head == null) {
+                exhausted = true;
+                return page;
+            }
+            walk = new RevWalk(project.getRepository());
+            walk.markStart(walk.parseCommit(head));
+        }
+        while (page.size() < size) {
+            RevCommit commit = walk.next();
+            if (commit == null) {
+                exhausted = true;
+                break;
+            }
+            PersonIdent author = commit.getAuthorIdent();
+            page.add(new CommitSummary(commit.name(), commit.getShortMessage(), author.getName(),
+                    author.getWhen().getTime()));
+            // Message bodies are not needed after this; dropping them keeps memory flat
+            commit.disposeBody();
+        }
+        return page;
+    }
+
+    @Override
+    public void close() {
+        executor.execute(() -> {
+            if (walk != null) walk.close();
+        });
+        executor.shutdown();
+    }
+}
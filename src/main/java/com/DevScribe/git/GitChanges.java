@@ -0,0 +1,98 @@
+package com.DevScribe.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Staging and committing for the source control panel. Calls block on JGit and belong on
+// a background thread.
+public class GitChanges {
+    public enum Kind {
+        ADDED("A"), MODIFIED("M"), DELETED("D"), UNTRACKED("U"), CONFLICTING("C");
+
+        private final String letter;
+
+        Kind(String letter) {
+            this.letter = letter;
+        }
+
+        public String getLetter() {
+            return letter;
+        }
+    }
+
+    // path is relative to the repository, with '/' separators
+    public record Change(String path, Kind kind, boolean staged) {
+    }
+
+    private final GitProject project;
+
+    public GitChanges(GitProject project) {
+        this.project = project;
+    }
+
+    public List<Change> list() throws GitAPIException {
+        Status status = project.getGit().status().call();
+        List<Change> changes = new ArrayList<>();
+        add(changes, status.getAdded(), Kind.ADDED, true);
+        add(changes, status.getChanged(), Kind.MODIFIED, true);
+        add(changes, status.getRemoved(), Kind.DELETED, true);
+        add(changes, status.getConflicting(), Kind.CONFLICTING, false);
+        add(changes, status.getModified(), Kind.MODIFIED, false);
+        add(changes, status.getMissing(), Kind.DELETED, false);
+        add(changes, status.getUntracked(), Kind.UNTRACKED, false);
+        return changes;
+    }
+
+    private static void add(List<Change> changes, Set<String> paths, Kind kind, boolean staged) {
+        for (String path : new TreeSet<>(paths)) {
+            changes.add(new Change(path, kind, staged));
+        }
+    }
+
+    public void stage(Collection<Change> changes) throws GitAPIException {
+        Git git = project.getGit();
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (Change change : changes) {
+            (change.kind() == Kind.DELETED ? removed : added).add(change.path());
+        }
+        if (!added.isEmpty()) {
+            var add = git.add();
+            added.forEach(add::addFilepattern);
+            add.call();
+        }
+        if (!removed.isEmpty()) {
+            var rm = git.rm().setCached(true);
+            removed.forEach(rm::addFilepattern);
+            rm.call();
+        }
+    }
+
+    public void unstage(Collection<Change> changes) throws GitAPIException, IOException {
+        Git git = project.getGit();
+        if (project.getRepository().resolve(Constants.HEAD) == null) {
+            // Nothing committed yet: unstaging means removing from the index
+            var rm = git.rm().setCached(true);
+            changes.forEach(change -> rm.addFilepattern(change.path()));
+            rm.call();
+            return;
+        }
+        var reset = git.reset();
+        changes.forEach(change -> reset.addPath(change.path()));
+        reset.call();
+    }
+
+    public RevCommit commit(String message) throws GitAPIException {
+        return project.getGit().commit().setMessage(message).call();
+    }
+}
@@ -0,0 +1,16 @@
+package com.DevScribe.git;
+
+// Working-tree state of a file as shown in the project tree. Clean files have no status.
+// Declared from lowest to highest precedence.
+public enum GitFileStatus {
+    IGNORED,
+    UNTRACKED,
+    MODIFIED,
+    ADDED,
+    CONFLICTING;
+
+    // Ignored files don't make their folders show as changed
+    public boolean isChange() {
+        return this != IGNORED;
+    }
+}
@@ -0,0 +1,99 @@
+package com.DevScribe.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The git repository containing a project, opened once and shared by the git features
+// (status, diff, blame, ...). The project may be a subfolder of the repository.
+public class GitProject {
+    private static final Map<Path, GitProject> OPEN = new ConcurrentHashMap<>();
+
+    private final Repository repository;
+    private final Git git;
+    private final Path workTree;
+    private final HeadContentCache headContent;
+    private final BlameService blame;
+
+    private GitProject(Repository repository) {
+        this.repository = repository;
+        this.git = new Git(repository);
+        this.workTree = repository.getWorkTree().toPath().toAbsolutePath().normalize();
+        this.headContent = new HeadContentCache(this);
+        this.blame = new BlameService(this);
+    }
+
+    // Returns null when the project is not inside a (non-bare) git repository
+    public static GitProject find(Path projectPath) {
+        FileRepositoryBuilder builder = new FileRepositoryBuilder().findGitDir(projectPath.toAbsolutePath().toFile());
+        if (builder.getGitDir() == null) {
+            return null;
+        }
+        Path gitDir = builder.getGitDir().toPath().toAbsolutePath().normalize();
+        try {
+            return OPEN.computeIfAbsent(gitDir, dir -> {
+                try {
+                    Repository repository = builder.setMustExist(true).build();
+                    if (repository.isBare()) {
+                        repository.close();
+                        return null;
+                    }
+                    return new GitProject(repository);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            System.err.println("Could not open git repository " + gitDir + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void closeAll() {
+        OPEN.values().forEach(project -> project.repository.close());
+        OPEN.clear();
+    }
+
+    public Repository getRepository() {
+        return repository;
+    }
+
+    public Git getGit() {
+        return git;
+    }
+
+    public Path getWorkTree() {
+        return workTree;
+    }
+
+    public HeadContentCache getHeadContent() {
+        return headContent;
+    }
+
+    public BlameService getBlame() {
+        return blame;
+    }
+
+    public Path getGitDir() {
+        return repository.getDirectory().toPath().toAbsolutePath().normalize();
+    }
+
+    // Repository-relative path with '/' separators ("" for the work tree itself), or null
+    // when the file lies outside the work tree
+    public String relativize(Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        if (!absolute.startsWith(workTree)) {
+            return null;
+        }
+        return workTree.relativize(absolute).toString().replace('\\', '/');
+    }
+
+    public Path resolve(String repositoryPath) {
+        return repositoryPath.isEmpty() ? workTree : workTree.resolve(repositoryPath);
+    }
+}
@@ -0,0 +1,334 @@
+package com.DevScribe.git;
+
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.Status;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+// Keeps the git status of a project's files in memory for the project tree. One full
+// JGit status runs in the background when the project opens (JGit compares index stat
+// data, so unchanged files are not read); after that only saved files and paths reported
+// by the file watcher are re-checked. All git work runs on one background thread; reads
+// from the UI only touch the concurrent maps.
+public class GitStatusService {
+    // Quiet period used to batch bursts of file-system events into one status call
+    private static final long EVENT_DEBOUNCE_MS = 50;
+    // Changes to .git (commits, checkouts, staging from a shell) trigger a full rescan
+    private static final long GIT_DIR_DEBOUNCE_MS = 300;
+
+    private final GitProject project;
+    private final Path projectRoot;
+    private final String scope;
+    private final Map<String, GitFileStatus> statuses = new ConcurrentHashMap<>();
+    // Number of changed files below each folder, so folders can be marked without a scan
+    private final Map<String, Integer> changedBelow = new ConcurrentHashMap<>();
+    private final Set<Path> pendingPaths = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean incrementalScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean fullScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService executor;
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private volatile Consumer<Set<Path>> onChanged;
+    private volatile boolean closed = false;
+
+    private GitStatusService(GitProject project, Path projectRoot) {
+        this.project = project;
+        this.projectRoot = projectRoot.toAbsolutePath().normalize();
+        this.scope = project.relativize(this.projectRoot);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "git-status");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts tracking the project; returns null when it is not inside a git repository
+    public static GitStatusService start(Path projectRoot) {
+        GitProject project = GitProject.find(projectRoot);
+        if (project == null) {
+            return null;
+        }
+        GitStatusService service = new GitStatusService(project, projectRoot);
+        service.executor.execute(() -> {
+            service.fullRefresh();
+            service.startWatching();
+        });
+        return service;
+    }
+
+    public GitProject getProject() {
+        return project;
+    }
+
+    // Receives the absolute paths whose status changed; called on the status thread
+    public void setOnChanged(Consumer<Set<Path>> onChanged) {
+        this.onChanged = onChanged;
+    }
+
+    // Status of a file or folder, or null when it is clean (or unknown yet)
+    public GitFileStatus getStatus(Path path) {
+        String relative = project.relativize(path);
+        if (relative == null) return null;
+        GitFileStatus status = statuses.get(relative);
+        if (status != null) return status;
+        // Ignored folders are reported once for the folder, not per file
+        for (int slash = relative.lastIndexOf('/'); slash > 0; slash = relative.lastIndexOf('/', slash - 1)) {
+            if (statuses.get(relative.substring(0, slash)) == GitFileStatus.IGNORED) {
+                return GitFileStatus.IGNORED;
+            }
+        }
+        return null;
+    }
+
+    public boolean hasChangesBelow(Path directory) {
+        String relative = project.relativize(directory);
+        return relative != null && changedBelow.getOrDefault(relative, 0) > 0;
+    }
+
+    // Re-checks a file right away, without waiting for the file watcher
+    public void fileSaved(Path file) {
+        if (closed) return;
+        executor.execute(() -> refreshPaths(Set.of(file.toAbsolutePath().normalize())));
+    }
+
+    public void refreshAll() {
+        scheduleFull();
+    }
+
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void fullRefresh() {
+        fullScheduled.set(false);
+        if (closed) return;
+        Status status;
+        try {
+            StatusCommand command = project.getGit().status();
+            if (!scope.isEmpty()) command.addPath(scope);
+            status = command.call();
+        } catch (GitAPIException | RuntimeException e) {
+            System.err.println("git status failed: " + e.getMessage());
+            return;
+        }
+
+        Map<String, GitFileStatus> fresh = collect(status);
+        Set<Path> changed = new HashSet<>();
+        for (String path : new ArrayList<>(statuses.keySet())) {
+            if (!fresh.containsKey(path)) {
+                setStatus(path, null);
+                changed.add(project.resolve(path));
+            }
+        }
+        for (Map.Entry<String, GitFileStatus> entry : fresh.entrySet()) {
+            if (setStatus(entry.getKey(), entry.getValue())) {
+                changed.add(project.resolve(entry.getKey()));
+            }
+        }
+        notifyChanged(changed);
+    }
+
+    // Re-runs status limited to the given files and folders and merges the result
+    private void refreshPaths(Set<Path> paths) {
+        if (closed || paths.isEmpty()) return;
+        StatusCommand command = project.getGit().status();
+        List<String> requested = new ArrayList<>();
+        for (Path path : paths) {
+            String relative = project.relativize(path);
+            if (relative == null || relative.isEmpty() || relative.equals(".git") || relative.startsWith(".git/")) {
+                continue;
+            }
+            if (!scope.isEmpty() && !relative.equals(scope) && !relative.startsWith(scope + "/")) {
+                continue;
+            }
+            command.addPath(relative);
+            requested.add(relative);
+        }
+        if (requested.isEmpty()) return;
+
+        Status status;
+        try {
+            status = command.call();
+        } catch (GitAPIException | RuntimeException e) {
+            System.err.println("git status failed: " + e.getMessage());
+            return;
+        }
+
+        Map<String, GitFileStatus> fresh = collect(status);
+        Set<Path> changed = new HashSet<>();
+        // Anything previously known under a requested path and no longer reported is clean
+        for (String path : new ArrayList<>(statuses.keySet())) {
+            if (!fresh.containsKey(path) && isUnderAny(path, requested) && setStatus(path, null)) {
+                changed.add(project.resolve(path));
+            }
+        }
+        for (Map.Entry<String, GitFileStatus> entry : fresh.entrySet()) {
+            if (setStatus(entry.getKey(), entry.getValue())) {
+                changed.add(project.resolve(entry.getKey()));
+            }
+        }
+        notifyChanged(changed);
+    }
+
+    private static boolean isUnderAny(String path, List<String> roots) {
+        for (String root : roots) {
+            if (path.equals(root) || path.startsWith(root + "/")) return true;
+        }
+        return false;
+    }
+
+    private static Map<String, GitFileStatus> collect(Status status) {
+        Map<String, GitFileStatus> result = new HashMap<>();
+        // Later sets win, in order of precedence
+        put(result, status.getIgnoredNotInIndex(), GitFileStatus.IGNORED);
+        put(result, status.getUntracked(), GitFileStatus.UNTRACKED);
+        put(result, status.getModified(), GitFileStatus.MODIFIED);
+        put(result, status.getChanged(), GitFileStatus.MODIFIED);
+        put(result, status.getAdded(), GitFileStatus.ADDED);
+        put(result, status.getConflicting(), GitFileStatus.CONFLICTING);
+        return result;
+    }
+
+    private static void put(Map<String, GitFileStatus> result, Set<String> paths, GitFileStatus status) {
+        for (String path : paths) {
+            // Ignored folders come back with a trailing slash
+            result.put(path.endsWith("/") ? path.substring(0, path.length() - 1) : path, status);
+        }
+    }
+
+    // Returns true if the stored status changed
+    private boolean setStatus(String path, GitFileStatus status) {
+        GitFileStatus previous = status == null ? statuses.remove(path) : statuses.put(path, status);
+        if (previous == status) return false;
+
+        boolean wasChange = previous != null && previous.isChange();
+        boolean isChange = status != null && status.isChange();
+        if (wasChange != isChange) {
+            int delta = isChange ? 1 : -1;
+            for (int slash = path.lastIndexOf('/'); ; slash = path.lastIndexOf('/', slash - 1)) {
+                String folder = slash < 0 ? "" : path.substring(0, slash);
+                changedBelow.merge(folder, delta, (a, b) -> a + b == 0 ? null : a + b);
+                if (slash <= 0) break;
+            }
+        }
+        return true;
+    }
+
+    private void notifyChanged(Set<Path> changed) {
+        Consumer<Set<Path>> listener = onChanged;
+        if (listener != null && !changed.isEmpty()) {
+            listener.accept(changed);
+        }
+    }
+
+    private void scheduleIncremental() {
+        if (!closed && incrementalScheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                incrementalScheduled.set(false);
+                Set<Path> batch = new HashSet<>(pendingPaths);
+                pendingPaths.removeAll(batch);
+                refreshPaths(batch);
+            }, EVENT_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scheduleFull() {
+        if (!closed && fullScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::fullRefresh, GIT_DIR_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // ===================== File watching =====================
+
+    private void startWatching() {
+        if (closed) return;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            // Only the top of .git matters: index and HEAD change on commit, stage and checkout
+            watchedDirs.put(project.getGitDir().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE),
+                    project.getGitDir());
+            registerTree(projectRoot);
+        } catch (IOException e) {
+            System.err.println("File watching unavailable, git status will only refresh on save: " + e.getMessage());
+        }
+        Thread.ofVirtual().name("git-status-watcher").start(this::watchLoop);
+    }
+
+    private void registerTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path name = dir.getFileName();
+                // Skip .git and ignored folders (build output, node_modules, ...)
+                if ((name != null && name.toString().equals(".git")) || getStatus(dir) == GitFileStatus.IGNORED) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                watchedDirs.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watchLoop() {
+        WatchService service = watchService;
+        if (service == null) return;
+        Path gitDir = project.getGitDir();
+        try {
+            while (!closed) {
+                WatchKey key = service.take();
+                Path dir = watchedDirs.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW || dir == null) {
+                        scheduleFull();
+                        continue;
+                    }
+                    Path child = dir.resolve((Path) event.context());
+                    if (dir.equals(gitDir)) {
+                        String name = child.getFileName().toString();
+                        if (name.equals("index") || name.equals("HEAD")) {
+                            scheduleFull();
+                        }
+                        continue;
+                    }
+                    if (event.kind() == ENTRY_CREATE && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        try {
+                            registerTree(child);
+                        } catch (IOException e) {
+                            System.err.println("Cannot watch " + child + ": " + e.getMessage());
+                        }
+                    }
+                    pendingPaths.add(child);
+                }
+                if (!key.reset()) {
+                    watchedDirs.remove(key);
+                }
+                scheduleIncremental();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+}
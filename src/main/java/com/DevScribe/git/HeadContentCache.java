@@ -0,0 +1,76 @@
+package com.DevScribe.git;
+
+import com.DevScribe.editor.diff.LineHashes;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The committed (HEAD) version of files, read from the object database once per file and
+// kept until HEAD moves. Used as the baseline for the editor's change markers.
+public class HeadContentCache {
+    private final GitProject project;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // content is null when the file is not part of HEAD or is binary
+    private record Entry(ObjectId head, String content, long[] lineHashes) {
+    }
+
+    HeadContentCache(GitProject project) {
+        this.project = project;
+    }
+
+    // Text of the file at HEAD, or null when it is untracked, new or binary
+    public String getContent(Path file) throws IOException {
+        Entry entry = load(file);
+        return entry == null ? null : entry.content();
+    }
+
+    // Line hashes of the file at HEAD (see LineHashes), or null like getContent
+    public long[] getLineHashes(Path file) throws IOException {
+        Entry entry = load(file);
+        return entry == null ? null : entry.lineHashes();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private Entry load(Path file) throws IOException {
+        String relative = project.relativize(file);
+        if (relative == null || relative.isEmpty()) return null;
+        ObjectId head = project.getRepository().resolve(Constants.HEAD);
+        if (head == null) return null; // no commits yet
+
+        Entry cached = entries.get(relative);
+        if (cached != null && cached.head().equals(head)) {
+            return cached;
+        }
+
+        Entry entry = new Entry(head, null, null);
+        try (RevWalk walk = new RevWalk(project.getRepository())) {
+            RevCommit commit = walk.parseCommit(head);
+            try (TreeWalk tree = TreeWalk.forPath(project.getRepository(), relative, commit.getTree())) {
+                if (tree != null && (tree.getRawMode(0) & 0170000) == 0100000) {
+                    ObjectLoader loader = project.getRepository().open(tree.getObjectId(0), Constants.OBJ_BLOB);
+                    byte[] bytes = loader.getBytes();
+                    if (!RawText.isBinary(bytes)) {
+                        String content = new String(bytes, StandardCharsets.UTF_8);
+                        entry = new Entry(head, content, LineHashes.of(content));
+                    }
+                }
+            }
+        }
+        entries.put(relative, entry);
+        return entry;
+    }
+}
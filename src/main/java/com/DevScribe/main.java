@@ -1,7 +1,12 @@
 package com.DevScribe;
 
 public class main {
-    public static void main(String[] args) {
-       App.main(args);
+    public static void main(String[] args) throws Exception {
+        // Scripted session used to build and benchmark the class-data-sharing archive
+        if (args.length > 0 && args[0].equals("--training-session")) {
+            TrainingSession.main(args);
+            return;
+        }
+        App.main(args);
     }
 }
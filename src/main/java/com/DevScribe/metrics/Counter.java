@@ -0,0 +1,26 @@
+package com.DevScribe.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// A running total, such as characters written to the terminal; the stats window shows
+// it together with its rate per second
+public class Counter {
+    private final String name;
+    private final LongAdder total = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void add(long amount) {
+        if (Metrics.ENABLED) total.add(amount);
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+}
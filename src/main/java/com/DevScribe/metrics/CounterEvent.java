@@ -0,0 +1,17 @@
+package com.DevScribe.metrics;
+
+import jdk.jfr.*;
+
+@Name("devscribe.Counter")
+@Label("Counter")
+@Category("DevScribe")
+@Description("Running total of a counter")
+@Period("1 s")
+@StackTrace(false)
+class CounterEvent extends Event {
+    @Label("Name")
+    String name;
+
+    @Label("Total")
+    long total;
+}
@@ -0,0 +1,35 @@
+package com.DevScribe.metrics;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Measures how long the FX thread takes to get to a posted task, which is how late input
+// and pulses are handled while it is busy. One probe is in flight at a time, so a stalled
+// FX thread is recorded as one long lag instead of a pile of queued probes.
+public class FxLagMonitor {
+    private static final long PROBE_INTERVAL_MS = 100;
+    private static final Timer FX_LAG = Metrics.timer("fx.lag");
+    private static final AtomicBoolean started = new AtomicBoolean(false);
+    private static final AtomicBoolean probePending = new AtomicBoolean(false);
+
+    public static void start() {
+        if (!Metrics.ENABLED || !started.compareAndSet(false, true)) return;
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fx-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            if (!probePending.compareAndSet(false, true)) return;
+            long posted = System.nanoTime();
+            Platform.runLater(() -> {
+                FX_LAG.record(System.nanoTime() - posted);
+                probePending.set(false);
+            });
+        }, PROBE_INTERVAL_MS, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,63 @@
+package com.DevScribe.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Durations of one kind of operation. Typical use, with the timer in a static field:
+//   long start = FILE_OPEN.start();
+//   ...
+//   FILE_OPEN.stop(start);
+public class Timer {
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private volatile long lastNanos;
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long start() {
+        return Metrics.ENABLED ? System.nanoTime() : 0;
+    }
+
+    public void stop(long start) {
+        if (Metrics.ENABLED) record(System.nanoTime() - start);
+    }
+
+    public void record(long nanos) {
+        if (!Metrics.ENABLED) return;
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        lastNanos = nanos;
+
+        TimerEvent event = new TimerEvent();
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getLastNanos() {
+        return lastNanos;
+    }
+}
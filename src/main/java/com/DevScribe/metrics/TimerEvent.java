@@ -0,0 +1,17 @@
+package com.DevScribe.metrics;
+
+import jdk.jfr.*;
+
+@Name("devscribe.Timer")
+@Label("Timer")
+@Category("DevScribe")
+@Description("One timed operation, such as opening a file or a highlighting pass")
+@StackTrace(false)
+class TimerEvent extends Event {
+    @Label("Name")
+    String name;
+
+    @Label("Duration")
+    @Timespan
+    long elapsed;
+}
@@ -1,14 +1,21 @@
 package com.DevScribe.model;
 
+import com.DevScribe.utils.FuzzyMatch;
+
 import java.nio.file.Path;
 
 public class ProjectItem {
     private final String name;
     private final Path path;
+    // Normalized once, so searching doesn't lowercase every name on each keystroke
+    private final String searchName;
+    // Filled in asynchronously by the launcher; null until known
+    private ProjectMetadata metadata;
 
     public ProjectItem(String name, Path path) {
         this.name = name;
         this.path = path;
+        this.searchName = FuzzyMatch.normalize(name);
     }
 
     public String getName() {
@@ -19,6 +26,18 @@ public class ProjectItem {
         return path;
     }
 
+    public String getSearchName() {
+        return searchName;
+    }
+
+    public ProjectMetadata getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(ProjectMetadata metadata) {
+        this.metadata = metadata;
+    }
+
     @Override
     public String toString() {
         return name; // Display name in ListView
@@ -0,0 +1,24 @@
+package com.DevScribe.model;
+
+// What the launcher shows about a project besides its name. branch and language are
+// null when unknown; checkedAt is when the values were read from disk.
+public record ProjectMetadata(State state, long sizeBytes, long lastModified, String branch, boolean dirty,
+                              String language, long checkedAt) {
+
+    public enum State {
+        // Only the existence check has finished; size, git and language follow
+        PARTIAL,
+        COMPLETE,
+        MISSING,
+        // The path did not answer in time (offline network mount, sleeping disk)
+        UNREACHABLE
+    }
+
+    public static ProjectMetadata missing() {
+        return new ProjectMetadata(State.MISSING, 0, 0, null, false, null, System.currentTimeMillis());
+    }
+
+    public static ProjectMetadata unreachable() {
+        return new ProjectMetadata(State.UNREACHABLE, 0, 0, null, false, null, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,18 @@
+package com.DevScribe.runner;
+
+import java.io.OutputStream;
+
+// A program run hosted by a long-lived worker (WarmJvmRunner, PythonKernel) rather than
+// a process of its own
+public interface ManagedRun {
+    // Feeds the program's standard input
+    OutputStream getInput();
+
+    boolean isActive();
+
+    // Asks the program to stop, the way Ctrl+C would
+    void interrupt();
+
+    // Ends the run by killing its worker
+    void kill();
+}
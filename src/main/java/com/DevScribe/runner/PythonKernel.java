@@ -0,0 +1,298 @@
+package com.DevScribe.runner;
+
+import com.DevScribe.utils.AppDirs;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// One long-lived Python interpreter per project that runs scripts on request, so modules
+// like numpy or pandas are imported once instead of on every Run. The interpreter side
+// is python/devscribe_kernel.py; like WarmJvmRunner, output, input and the exit status
+// travel over a loopback socket.
+public class PythonKernel {
+    private static final Map<Path, PythonKernel> KERNELS = new ConcurrentHashMap<>();
+    private static final String KERNEL_SCRIPT = "devscribe_kernel.py";
+    private static final int CONNECT_TIMEOUT_MS = 15_000;
+    private static final long INTERRUPT_GRACE_MS = 2_000;
+
+    // Frame types shared with devscribe_kernel.py
+    private static final byte FRAME_RUN = 1;
+    private static final byte FRAME_STDIN = 2;
+    private static final byte FRAME_STDIN_EOF = 3;
+    private static final byte FRAME_INTERRUPT = 4;
+    private static final byte FRAME_STDOUT = 5;
+    private static final byte FRAME_STDERR = 6;
+    private static final byte FRAME_EXIT = 7;
+    private static final byte FRAME_HELLO = 8;
+
+    public interface RunListener {
+        void onOutput(String text, boolean error);
+
+        // missingModule is the top-level module of an uncaught ModuleNotFoundError, or null
+        void onExit(int exitCode, String missingModule);
+    }
+
+    private final Path projectRoot;
+    private Interpreter interpreter;
+    private volatile Run activeRun;
+
+    private record Interpreter(Process process, Socket socket, DataOutputStream out, String pythonCommand) {
+        void destroy() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            process.destroyForcibly();
+        }
+    }
+
+    private PythonKernel(Path projectRoot) {
+        this.projectRoot = projectRoot;
+    }
+
+    public static PythonKernel forProject(Path projectRoot) {
+        return KERNELS.computeIfAbsent(projectRoot.toAbsolutePath().normalize(), PythonKernel::new);
+    }
+
+    public static void shutdownAll() {
+        KERNELS.values().forEach(PythonKernel::shutdown);
+        KERNELS.clear();
+    }
+
+    // Runs the script as __main__ in the kernel. Returns null when the kernel is busy
+    // with a run from another terminal session.
+    public synchronized Run start(String pythonCommand, Path script, Path workingDir, RunListener listener) throws IOException {
+        if (activeRun != null) {
+            return null;
+        }
+        if (interpreter == null || !interpreter.process().isAlive()
+                || !interpreter.pythonCommand().equals(pythonCommand)) {
+            shutdown();
+            interpreter = launch(pythonCommand);
+        }
+
+        Run run = new Run(interpreter, listener);
+        activeRun = run;
+        try {
+            String request = script.toAbsolutePath() + "\0" + workingDir.toAbsolutePath() + "\0" + projectRoot;
+            run.send(FRAME_RUN, request.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            activeRun = null;
+            shutdown();
+            throw e;
+        }
+        return run;
+    }
+
+    // Drops the interpreter and everything it has imported; the next run starts a new one
+    public synchronized void shutdown() {
+        if (interpreter != null) {
+            interpreter.destroy();
+            interpreter = null;
+        }
+    }
+
+    private Interpreter launch(String pythonCommand) throws IOException {
+        Path script = installKernelScript();
+
+        byte[] tokenBytes = new byte[16];
+        new SecureRandom().nextBytes(tokenBytes);
+        String token = HexFormat.of().formatHex(tokenBytes);
+
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT_MS);
+
+            ProcessBuilder builder = new ProcessBuilder(pythonCommand, "-X", "utf8", script.toString(),
+                    Integer.toString(server.getLocalPort()), token);
+            builder.directory(projectRoot.toFile());
+            builder.redirectErrorStream(true);
+            Process process = builder.start();
+            // Script output goes over the socket; this only carries interpreter crashes
+            Thread.ofVirtual().name("python-kernel-log").start(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        System.err.println("[python-kernel] " + line);
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketTimeoutException e) {
+                process.destroyForcibly();
+                throw new IOException("Python kernel did not start in time");
+            }
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (in.readByte() != FRAME_HELLO || !token.equals(new String(readPayload(in), StandardCharsets.UTF_8))) {
+                socket.close();
+                process.destroyForcibly();
+                throw new IOException("Python kernel handshake failed");
+            }
+
+            Interpreter started = new Interpreter(process, socket,
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())), pythonCommand);
+            Thread.ofVirtual().name("python-kernel-reader").start(() -> readFrames(started, in));
+            return started;
+        }
+    }
+
+    // Copies the bundled kernel script next to the other DevScribe files, where python can run it
+    private static Path installKernelScript() throws IOException {
+        Path target = AppDirs.ensureDirectory(AppDirs.getAppDir().resolve("python")).resolve(KERNEL_SCRIPT);
+        byte[] bundled;
+        try (InputStream in = PythonKernel.class.getResourceAsStream("/python/" + KERNEL_SCRIPT)) {
+            if (in == null) throw new IOException("Missing kernel script");
+            bundled = in.readAllBytes();
+        }
+        if (!Files.exists(target) || !Arrays.equals(Files.readAllBytes(target), bundled)) {
+            Path temp = Files.createTempFile(target.getParent(), "kernel", ".tmp");
+            Files.write(temp, bundled);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return target;
+    }
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return data;
+    }
+
+    private void readFrames(Interpreter source, DataInputStream in) {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                byte[] payload = readPayload(in);
+                Run run = activeRun;
+                if (run == null || run.interpreter != source) continue;
+                switch (type) {
+                    case FRAME_STDOUT, FRAME_STDERR ->
+                            run.listener.onOutput(new String(payload, StandardCharsets.UTF_8), type == FRAME_STDERR);
+                    case FRAME_EXIT -> {
+                        String[] status = new String(payload, StandardCharsets.UTF_8).split("\0", -1);
+                        finish(source, Integer.parseInt(status[0]), status[1].isEmpty() ? null : status[1]);
+                    }
+                    default -> throw new IOException("Unknown frame " + type);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The interpreter died: os._exit() in the script, a crash or a kill
+            int exitCode = -1;
+            try {
+                if (source.process().waitFor(5, TimeUnit.SECONDS)) {
+                    exitCode = source.process().exitValue();
+                }
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                if (interpreter == source) {
+                    interpreter.destroy();
+                    interpreter = null;
+                }
+            }
+            finish(source, exitCode, null);
+        }
+    }
+
+    private void finish(Interpreter source, int exitCode, String missingModule) {
+        Run run;
+        synchronized (this) {
+            run = activeRun;
+            if (run == null || run.interpreter != source) return;
+            activeRun = null;
+        }
+        run.listener.onExit(exitCode, missingModule);
+    }
+
+    public class Run implements ManagedRun {
+        private final Interpreter interpreter;
+        private final RunListener listener;
+        private final OutputStream stdin;
+
+        private Run(Interpreter interpreter, RunListener listener) {
+            this.interpreter = interpreter;
+            this.listener = listener;
+            this.stdin = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    send(FRAME_STDIN, Arrays.copyOfRange(b, off, off + len));
+                }
+
+                @Override
+                public void close() throws IOException {
+                    send(FRAME_STDIN_EOF, new byte[0]);
+                }
+            };
+        }
+
+        private void send(byte type, byte[] payload) throws IOException {
+            DataOutputStream out = interpreter.out();
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(payload.length);
+                out.write(payload);
+                out.flush();
+            }
+        }
+
+        // Feeds the script's sys.stdin
+        @Override
+        public OutputStream getInput() {
+            return stdin;
+        }
+
+        @Override
+        public boolean isActive() {
+            return activeRun == this;
+        }
+
+        // Raises KeyboardInterrupt in the script; kills the kernel if that does not end it
+        @Override
+        public void interrupt() {
+            try {
+                send(FRAME_INTERRUPT, new byte[0]);
+            } catch (IOException e) {
+                kill();
+                return;
+            }
+            Thread.ofVirtual().name("python-kernel-interrupt").start(() -> {
+                try {
+                    Thread.sleep(INTERRUPT_GRACE_MS);
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+                if (isActive()) kill();
+            });
+        }
+
+        @Override
+        public void kill() {
+            if (isActive()) {
+                interpreter.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.DevScribe.runner;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Entry point of the long-lived child JVM used by WarmJvmRunner. Each run loads the
+// program's classes in a fresh class loader (on top of a long-lived loader for the
+// project's lib jars), with System.in/out/err multiplexed over the control socket.
+public class RunnerDaemon {
+
+    // Frame types shared with WarmJvmRunner
+    static final byte FRAME_RUN = 1;
+    static final byte FRAME_STDIN = 2;
+    static final byte FRAME_STDIN_EOF = 3;
+    static final byte FRAME_INTERRUPT = 4;
+    static final byte FRAME_STDOUT = 5;
+    static final byte FRAME_STDERR = 6;
+    static final byte FRAME_EXIT = 7;
+
+    // After a run, a heap still fuller than this (after GC) means the run leaked memory
+    private static final double RECYCLE_HEAP_RATIO = 0.5;
+
+    private static DataOutputStream socketOut;
+    private static URLClassLoader libraryLoader;
+    private static volatile PipedOutputStream stdinPipe;
+    private static volatile Thread programThread;
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        String token = args[1];
+
+        List<URL> libraries = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            libraries.add(Path.of(args[i]).toUri().toURL());
+        }
+        // Kept for the daemon's lifetime so library classes stay loaded and JIT-compiled
+        libraryLoader = new URLClassLoader(libraries.toArray(new URL[0]), ClassLoader.getPlatformClassLoader());
+
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socketOut = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        DataInputStream socketIn = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        synchronized (socketOut) {
+            socketOut.writeUTF(token);
+            socketOut.flush();
+        }
+
+        System.setOut(new PrintStream(frameStream(FRAME_STDOUT), true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(frameStream(FRAME_STDERR), true, StandardCharsets.UTF_8));
+
+        BlockingQueue<String[]> runs = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> readCommands(socketIn, runs), "runner-commands");
+        reader.setDaemon(true);
+        reader.start();
+
+        while (true) {
+            String[] run = runs.take();
+            if (run.length == 0) {
+                // Control socket closed: the IDE is gone. A normal exit lets the JVM
+                // write its shared archive.
+                System.exit(0);
+            }
+            execute(run);
+        }
+    }
+
+    private static void readCommands(DataInputStream in, BlockingQueue<String[]> runs) {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case FRAME_RUN -> {
+                        String[] run = new String[in.readInt()];
+                        for (int i = 0; i < run.length; i++) {
+                            run[i] = in.readUTF();
+                        }
+                        runs.add(run);
+                    }
+                    case FRAME_STDIN -> {
+                        byte[] data = new byte[in.readInt()];
+                        in.readFully(data);
+                        PipedOutputStream pipe = stdinPipe;
+                        if (pipe != null) {
+                            pipe.write(data);
+                            pipe.flush();
+                        }
+                    }
+                    case FRAME_STDIN_EOF -> {
+                        PipedOutputStream pipe = stdinPipe;
+                        if (pipe != null) pipe.close();
+                    }
+                    case FRAME_INTERRUPT -> {
+                        Thread thread = programThread;
+                        if (thread != null) thread.interrupt();
+                    }
+                    default -> throw new IOException("Unknown frame " + type);
+                }
+            }
+        } catch (IOException e) {
+            runs.add(new String[0]);
+        }
+    }
+
+    // run = { classesDir, mainClass, args... }
+    private static void execute(String[] run) throws Exception {
+        int[] exitCode = {0};
+        ThreadGroup group = new ThreadGroup("program");
+        PipedInputStream stdin = new PipedInputStream(64 * 1024);
+        stdinPipe = new PipedOutputStream(stdin);
+        System.setIn(stdin);
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{Path.of(run[0]).toUri().toURL()}, libraryLoader);
+        String mainClass = run[1];
+        String[] programArgs = new String[run.length - 2];
+        System.arraycopy(run, 2, programArgs, 0, programArgs.length);
+
+        Thread main = new Thread(group, () -> {
+            try {
+                Class<?> type = Class.forName(mainClass, true, loader);
+                Method method = type.getMethod("main", String[].class);
+                method.invoke(null, (Object) programArgs);
+            } catch (InvocationTargetException e) {
+                exitCode[0] = 1;
+                System.err.print("Exception in thread \"main\" ");
+                e.getCause().printStackTrace();
+            } catch (Throwable t) {
+                exitCode[0] = 1;
+                t.printStackTrace();
+            }
+        }, "main");
+        main.setContextClassLoader(loader);
+        programThread = main;
+        main.start();
+        main.join();
+
+        // Like a real JVM, the program ends once its last non-daemon thread does
+        waitForNonDaemonThreads(group);
+        programThread = null;
+        stdinPipe = null;
+        System.out.flush();
+        System.err.flush();
+        loader.close();
+
+        boolean leaked = group.activeCount() > 0 || heapStillFull();
+        synchronized (socketOut) {
+            socketOut.writeByte(FRAME_EXIT);
+            socketOut.writeInt(exitCode[0]);
+            socketOut.writeBoolean(leaked);
+            socketOut.flush();
+        }
+        if (leaked) {
+            // The IDE starts a fresh daemon; leftover threads must not outlive this one
+            System.exit(0);
+        }
+    }
+
+    private static void waitForNonDaemonThreads(ThreadGroup group) throws InterruptedException {
+        while (true) {
+            Thread[] threads = new Thread[group.activeCount() + 8];
+            int count = group.enumerate(threads, true);
+            Thread waitFor = null;
+            for (int i = 0; i < count; i++) {
+                if (!threads[i].isDaemon() && threads[i].isAlive()) {
+                    waitFor = threads[i];
+                    break;
+                }
+            }
+            if (waitFor == null) return;
+            programThread = waitFor;
+            waitFor.join();
+        }
+    }
+
+    private static boolean heapStillFull() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() * RECYCLE_HEAP_RATIO;
+    }
+
+    private static OutputStream frameStream(byte type) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (len == 0) return;
+                synchronized (socketOut) {
+                    socketOut.writeByte(type);
+                    socketOut.writeInt(len);
+                    socketOut.write(b, off, len);
+                    socketOut.flush();
+                }
+            }
+        };
+    }
+}
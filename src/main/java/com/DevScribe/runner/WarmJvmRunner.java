@@ -0,0 +1,397 @@
+package com.DevScribe.runner;
+
+import com.DevScribe.utils.AppDirs;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Keeps one pre-started JVM per project that runs compiled programs without paying JVM
+// startup on every Run. The child runs RunnerDaemon; program output, input and the exit
+// code travel over a loopback socket so they stay in order. The daemon is recycled when
+// a run leaks threads or memory, when it is killed, or when the lib jars or working
+// directory change.
+public class WarmJvmRunner {
+    private static final Map<Path, WarmJvmRunner> RUNNERS = new ConcurrentHashMap<>();
+    private static final int CONNECT_TIMEOUT_MS = 15_000;
+    private static final long INTERRUPT_GRACE_MS = 2_000;
+    private static final long EXIT_GRACE_MS = 3_000;
+
+    public interface RunListener {
+        void onOutput(String text, boolean error);
+
+        // recycled is true when the daemon will not be reused for the next run
+        void onExit(int exitCode, boolean recycled);
+    }
+
+    private final Path projectRoot;
+    private Daemon daemon;
+    private volatile Run activeRun;
+
+    private record Daemon(Process process, Socket socket, DataOutputStream out, Path workingDir, List<Path> libraries) {
+        boolean matches(Path workingDir, List<Path> libraries) {
+            return process.isAlive() && this.workingDir.equals(workingDir) && this.libraries.equals(libraries);
+        }
+
+        void destroy() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            process.destroyForcibly();
+        }
+
+        // Closing the socket makes an idle daemon exit on its own, which lets it write its
+        // shared archive; a daemon that doesn't is killed
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            Thread.ofVirtual().name("warm-runner-close").start(() -> {
+                try {
+                    if (!process.waitFor(EXIT_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                        process.destroyForcibly();
+                    }
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                }
+            });
+        }
+    }
+
+    private WarmJvmRunner(Path projectRoot) {
+        this.projectRoot = projectRoot;
+    }
+
+    public static WarmJvmRunner forProject(Path projectRoot) {
+        return RUNNERS.computeIfAbsent(projectRoot.toAbsolutePath().normalize(), WarmJvmRunner::new);
+    }
+
+    // Stops every daemon; called when the editor closes
+    public static void shutdownAll() {
+        RUNNERS.values().forEach(WarmJvmRunner::shutdown);
+        RUNNERS.clear();
+    }
+
+    // Starts mainClass from classesDir in the warm JVM. Returns null when the daemon is
+    // already busy with a run from another terminal session.
+    public synchronized Run start(String mainClass, Path classesDir, List<Path> libraries, Path workingDir,
+                                  RunListener listener) throws IOException {
+        if (activeRun != null) {
+            return null;
+        }
+        Path dir = workingDir.toAbsolutePath().normalize();
+        if (daemon == null || !daemon.matches(dir, libraries)) {
+            shutdown();
+            daemon = launch(dir, List.copyOf(libraries));
+        }
+
+        Run run = new Run(daemon, listener);
+        activeRun = run;
+        try {
+            synchronized (daemon.out()) {
+                daemon.out().writeByte(RunnerDaemon.FRAME_RUN);
+                daemon.out().writeInt(2);
+                daemon.out().writeUTF(classesDir.toAbsolutePath().toString());
+                daemon.out().writeUTF(mainClass);
+                daemon.out().flush();
+            }
+        } catch (IOException e) {
+            activeRun = null;
+            shutdown();
+            throw e;
+        }
+        return run;
+    }
+
+    // Starts the daemon ahead of the first run so that run is already warm
+    public void prestart(Path workingDir, List<Path> libraries) {
+        Thread.ofVirtual().name("warm-runner-prestart").start(() -> {
+            synchronized (this) {
+                Path dir = workingDir.toAbsolutePath().normalize();
+                if (activeRun != null || (daemon != null && daemon.matches(dir, libraries))) {
+                    return;
+                }
+                shutdown();
+                try {
+                    daemon = launch(dir, List.copyOf(libraries));
+                } catch (IOException e) {
+                    System.err.println("Failed to start warm runner: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    public synchronized void shutdown() {
+        if (daemon != null) {
+            if (activeRun != null && activeRun.daemon == daemon) {
+                daemon.destroy();
+            } else {
+                daemon.close();
+            }
+            daemon = null;
+        }
+    }
+
+    private Daemon launch(Path workingDir, List<Path> libraries) throws IOException {
+        Path cacheDir = AppDirs.getProjectCacheDir(projectRoot);
+        AppDirs.ensureDirectory(cacheDir);
+
+        byte[] tokenBytes = new byte[16];
+        new SecureRandom().nextBytes(tokenBytes);
+        String token = HexFormat.of().formatHex(tokenBytes);
+
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT_MS);
+
+            Path daemonClasspath = daemonClasspath();
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            if (Files.isRegularFile(daemonClasspath)) {
+                // Created when the first daemon exits and reused (or regenerated) afterwards.
+                // CDS cannot archive from class directories, so development builds go without.
+                command.add("-XX:SharedArchiveFile=" + cacheDir.resolve("runner.jsa"));
+                command.add("-XX:+AutoCreateSharedArchive");
+            }
+            command.add("-cp");
+            command.add(daemonClasspath.toString());
+            command.add(RunnerDaemon.class.getName());
+            command.add(Integer.toString(server.getLocalPort()));
+            command.add(token);
+            for (Path library : libraries) {
+                command.add(library.toString());
+            }
+
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.directory(workingDir.toFile());
+            builder.redirectErrorStream(true);
+            Process process = builder.start();
+            // Program output goes over the socket; this only carries JVM warnings and crashes
+            Thread.ofVirtual().name("warm-runner-log").start(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        System.err.println("[warm-runner] " + line);
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketTimeoutException e) {
+                process.destroyForcibly();
+                throw new IOException("Warm runner did not start in time");
+            }
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (!token.equals(in.readUTF())) {
+                socket.close();
+                process.destroyForcibly();
+                throw new IOException("Warm runner handshake failed");
+            }
+
+            Daemon started = new Daemon(process, socket,
+                    new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())), workingDir, libraries);
+            Thread.ofVirtual().name("warm-runner-reader").start(() -> readFrames(started, in));
+            return started;
+        }
+    }
+
+    private static Path daemonClasspath() throws IOException {
+        try {
+            return Path.of(RunnerDaemon.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            throw new IOException("Cannot locate the runner classes", e);
+        }
+    }
+
+    private void readFrames(Daemon source, DataInputStream in) {
+        try {
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case RunnerDaemon.FRAME_STDOUT, RunnerDaemon.FRAME_STDERR -> {
+                        byte[] data = new byte[in.readInt()];
+                        in.readFully(data);
+                        Run run = activeRun;
+                        if (run != null && run.daemon == source) {
+                            boolean error = type == RunnerDaemon.FRAME_STDERR;
+                            String text = (error ? run.stderr : run.stdout).decode(data, false);
+                            if (!text.isEmpty()) run.listener.onOutput(text, error);
+                        }
+                    }
+                    case RunnerDaemon.FRAME_EXIT -> {
+                        int exitCode = in.readInt();
+                        boolean recycle = in.readBoolean();
+                        if (recycle) {
+                            discard(source);
+                        }
+                        finish(source, exitCode, recycle);
+                    }
+                    default -> throw new IOException("Unknown frame " + type);
+                }
+            }
+        } catch (IOException e) {
+            // The daemon died: System.exit() in the program, a crash or a kill
+            int exitCode = -1;
+            try {
+                if (source.process().waitFor(5, TimeUnit.SECONDS)) {
+                    exitCode = source.process().exitValue();
+                }
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            discard(source);
+            finish(source, exitCode, true);
+        }
+    }
+
+    private synchronized void discard(Daemon source) {
+        if (daemon == source) {
+            daemon.destroy();
+            daemon = null;
+        }
+    }
+
+    private void finish(Daemon source, int exitCode, boolean recycled) {
+        Run run;
+        synchronized (this) {
+            run = activeRun;
+            if (run == null || run.daemon != source) return;
+            activeRun = null;
+        }
+        // A character cut off by the end of the program is shown as a replacement
+        String out = run.stdout.decode(new byte[0], true);
+        if (!out.isEmpty()) run.listener.onOutput(out, false);
+        String err = run.stderr.decode(new byte[0], true);
+        if (!err.isEmpty()) run.listener.onOutput(err, true);
+        run.listener.onExit(exitCode, recycled);
+        if (recycled) {
+            prestart(source.workingDir(), source.libraries());
+        }
+    }
+
+    public class Run implements ManagedRun {
+        private final Daemon daemon;
+        private final RunListener listener;
+        private final OutputStream stdin;
+        // Only used on the reader thread
+        private final OutputDecoder stdout = new OutputDecoder();
+        private final OutputDecoder stderr = new OutputDecoder();
+
+        private Run(Daemon daemon, RunListener listener) {
+            this.daemon = daemon;
+            this.listener = listener;
+            this.stdin = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    synchronized (daemon.out()) {
+                        daemon.out().writeByte(RunnerDaemon.FRAME_STDIN);
+                        daemon.out().writeInt(len);
+                        daemon.out().write(b, off, len);
+                        daemon.out().flush();
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    synchronized (daemon.out()) {
+                        daemon.out().writeByte(RunnerDaemon.FRAME_STDIN_EOF);
+                        daemon.out().flush();
+                    }
+                }
+            };
+        }
+
+        // Feeds the program's System.in
+        @Override
+        public OutputStream getInput() {
+            return stdin;
+        }
+
+        @Override
+        public boolean isActive() {
+            return activeRun == this;
+        }
+
+        // Interrupts the program's main thread; if it does not finish shortly after,
+        // the daemon is killed
+        @Override
+        public void interrupt() {
+            try {
+                synchronized (daemon.out()) {
+                    daemon.out().writeByte(RunnerDaemon.FRAME_INTERRUPT);
+                    daemon.out().flush();
+                }
+            } catch (IOException e) {
+                kill();
+                return;
+            }
+            Thread.ofVirtual().name("warm-runner-interrupt").start(() -> {
+                try {
+                    Thread.sleep(INTERRUPT_GRACE_MS);
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+                if (isActive()) kill();
+            });
+        }
+
+        // Ends the run by killing the daemon; the reader reports the exit
+        @Override
+        public void kill() {
+            if (isActive()) {
+                daemon.destroy();
+            }
+        }
+    }
+
+    // Frames end wherever the program's writes did, which may be inside a multi-byte
+    // character; its first bytes wait here for the rest to arrive in the next frame
+    private static class OutputDecoder {
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer pending = ByteBuffer.allocate(0);
+
+        String decode(byte[] data, boolean endOfInput) {
+            ByteBuffer input = ByteBuffer.wrap(data);
+            if (pending.hasRemaining()) {
+                input = ByteBuffer.allocate(pending.remaining() + data.length).put(pending).put(data).flip();
+            }
+            // UTF-8 never decodes to more chars than bytes, replacements included
+            CharBuffer chars = CharBuffer.allocate(input.remaining() + 1);
+            decoder.decode(input, chars, endOfInput);
+            if (endOfInput) {
+                decoder.flush(chars);
+                decoder.reset();
+            }
+            pending = input;
+            return chars.flip().toString();
+        }
+    }
+}
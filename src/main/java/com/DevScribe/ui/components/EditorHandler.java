@@ -1,12 +1,15 @@
 package com.DevScribe.ui.components;
 
+import com.DevScribe.editor.Document;
+import com.DevScribe.git.GitFileStatus;
+import com.DevScribe.git.GitStatusService;
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
 import com.DevScribe.ui.screen.EditorScreen;
 import javafx.scene.control.*;
-import javafx.scene.control.ScrollPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.fxmisc.richtext.CodeArea;
-import org.fxmisc.richtext.LineNumberFactory;
 
 import java.io.File;
 import java.io.IOException;
@@ -14,13 +17,16 @@ import java.nio.file.*;
 import java.util.*;
 
 public class EditorHandler {
+    private static final Timer FILE_SAVE = Metrics.timer("file.save");
+    private static final Timer TREE_LOAD = Metrics.timer("tree.load");
 
     private final EditorScreen editorScreen;
-    private final Map<Tab, File> tabFileMap = new HashMap<>();
-    private final Map<Tab, Boolean> unsavedChangesMap = new HashMap<>();
     private Path projectDirectory;
     private TreeView<Path> projectTreeView;
-    CodeArea codeArea = new CodeArea();
+    private GitStatusService gitStatus;
+
+    private static final List<String> GIT_STYLE_CLASSES = List.of(
+            "git-ignored", "git-untracked", "git-modified", "git-added", "git-conflicting", "git-changed-folder");
 
     public EditorHandler(EditorScreen editorScreen, Path projectDirectory, TreeView<Path> projectTreeView) {
         this.editorScreen = editorScreen;
@@ -28,21 +34,20 @@ public class EditorHandler {
         this.projectTreeView = projectTreeView;
         refreshProjectTree();
         setupProjectTreeContextMenu();
-        handleTabCloseEvent();
+        editorScreen.getDocuments().setCloseGuard(this::confirmClose);
+    }
+
+    // Decorates project tree cells with the files' git status
+    public void setGitStatus(GitStatusService gitStatus) {
+        this.gitStatus = gitStatus;
+        projectTreeView.refresh();
     }
 
     // ===================== File & Tab Handling =====================
 
     public void handleNewFile(Stage stage) {
-        Tab newTab = new Tab("Untitled");
-        CodeArea codeArea = createCodeArea(newTab);
-        ScrollPane scrollPane = createScrollPane(codeArea);
-        newTab.setContent(scrollPane);
-
-        editorScreen.getEditorTabPane().getTabs().add(newTab);
-        editorScreen.getEditorTabPane().getSelectionModel().select(newTab);
-        unsavedChangesMap.put(newTab, false);
-        tabFileMap.put(newTab, null);
+        Document document = editorScreen.getDocuments().create();
+        document.getArea().requestFocus();
     }
 
     public void handleOpenFile(Stage stage) {
@@ -52,119 +57,88 @@ public class EditorHandler {
 
         File selectedFile = fileChooser.showOpenDialog(stage);
         if (selectedFile != null) {
-            try {
-                String content = new String(Files.readAllBytes(selectedFile.toPath()));
-                Tab newTab = new Tab(selectedFile.getName());
-                CodeArea codeArea = createCodeArea(newTab);
-                codeArea.replaceText(content);
-
-                ScrollPane scrollPane = createScrollPane(codeArea);
-                newTab.setContent(scrollPane);
-
-                editorScreen.getEditorTabPane().getTabs().add(newTab);
-                editorScreen.getEditorTabPane().getSelectionModel().select(newTab);
-
-                tabFileMap.put(newTab, selectedFile);
-                unsavedChangesMap.put(newTab, false);
-
-                codeArea.requestFocus();
-            } catch (IOException e) {
-                showError("Failed to open file: " + e.getMessage());
-            }
+            CodeArea codeArea = editorScreen.openFile(selectedFile.toPath());
+            if (codeArea != null) codeArea.requestFocus();
         }
     }
 
     public void handleSaveFile(Stage stage) {
-        if (stage == null) {
-            stage = getStage();
-            if (stage == null) {
-                showError("Cannot save file: No application window found.");
-                return;
-            }
-        }
-
-        Tab currentTab = editorScreen.getEditorTabPane().getSelectionModel().getSelectedItem();
-        if (currentTab == null) return;
+        Document document = editorScreen.getDocuments().current();
+        if (document != null) saveDocument(document, stage);
+    }
 
-        File file = tabFileMap.get(currentTab);
-        System.out.println("handleSaveFile: currentTab=" + currentTab.getText() + ", file=" + file);
+    // Save As dialog to save file content at chosen location
+    public void handleSaveAsFile(Stage stage) {
+        Document document = editorScreen.getDocuments().current();
+        if (document != null) saveDocumentAs(document, stage);
+    }
 
-        if (file != null) {
-            saveCurrentTabContent(file, currentTab);
-            refreshProjectTree();
-        } else {
-            handleSaveAsFile(stage);
+    // Returns false if the document could not be saved or the user cancelled
+    private boolean saveDocument(Document document, Stage stage) {
+        if (document.getPath() == null) {
+            return saveDocumentAs(document, stage);
+        }
+        long start = FILE_SAVE.start();
+        try {
+            editorScreen.getDocuments().save(document);
+            return true;
+        } catch (IOException e) {
+            showError("Failed to save file: " + e.getMessage());
+            return false;
+        } finally {
+            FILE_SAVE.stop(start);
         }
     }
 
-    // Save As dialog to save file content at chosen location
-    public void handleSaveAsFile(Stage stage) {
+    private boolean saveDocumentAs(Document document, Stage stage) {
         if (stage == null) {
             stage = getStage();
             if (stage == null) {
                 showError("Cannot save file: No application window found.");
-                return;
+                return false;
             }
         }
 
-        Tab currentTab = editorScreen.getEditorTabPane().getSelectionModel().getSelectedItem();
-        if (currentTab == null) return;
-
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save As");
-        if (projectDirectory != null && Files.exists(projectDirectory)) {
+        if (document.getPath() != null) {
+            fileChooser.setInitialDirectory(document.getPath().getParent().toFile());
+            fileChooser.setInitialFileName(document.getName());
+        } else if (projectDirectory != null && Files.exists(projectDirectory)) {
             fileChooser.setInitialDirectory(projectDirectory.toFile());
         }
 
         File file = fileChooser.showSaveDialog(stage);
-        if (file != null) {
-            saveCurrentTabContent(file, currentTab);
-            tabFileMap.put(currentTab, file);
-            updateTabTitle(currentTab, file.getName());
-            refreshProjectTree();
-        }
-    }
-
-    private void saveCurrentTabContent(File file, Tab tab) {
-        ScrollPane scrollPane = (ScrollPane) tab.getContent();
-        CodeArea codeArea = (CodeArea) scrollPane.getContent();
-        String content = codeArea.getText();
-
+        if (file == null) return false;
+        long start = FILE_SAVE.start();
         try {
-            Path parentDir = file.toPath().getParent();
-            if (parentDir != null && !Files.exists(parentDir)) {
-                Files.createDirectories(parentDir); // Ensure parent directories exist
-            }
-            Files.write(file.toPath(), content.getBytes());
-            markTabAsSaved(tab);
-            updateTabTitle(tab, file.getName());
+            editorScreen.getDocuments().saveAs(document, file.toPath());
         } catch (IOException e) {
             showError("Failed to save file: " + e.getMessage());
+            return false;
+        } finally {
+            FILE_SAVE.stop(start);
         }
+        refreshProjectTree();
+        return true;
     }
 
-    private CodeArea createCodeArea(Tab tab) {
-        CodeArea codeArea = new CodeArea();
-        codeArea.setParagraphGraphicFactory(LineNumberFactory.get(codeArea));
-        codeArea.getStyleClass().add("code-area");
-
-        codeArea.textProperty().addListener((obs, oldText, newText) -> {
-            if (!unsavedChangesMap.getOrDefault(tab, false)) {
-                unsavedChangesMap.put(tab, true);
-                updateTabTitle(tab, tab.getText().replace("*", ""));
-            }
-        });
-
-        return codeArea;
-    }
-
-    private ScrollPane createScrollPane(CodeArea codeArea) {
-        ScrollPane scrollPane = new ScrollPane(codeArea);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setFitToHeight(true);
-        codeArea.prefWidthProperty().bind(scrollPane.widthProperty());
-        codeArea.prefHeightProperty().bind(scrollPane.heightProperty());
-        return scrollPane;
+    // Close guard for documents with unsaved changes
+    private boolean confirmClose(Document document) {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Unsaved Changes");
+        alert.setHeaderText("You have unsaved changes in " + document.getName() + ".");
+        alert.setContentText("Do you want to save before closing?");
+
+        ButtonType save = new ButtonType("Save");
+        ButtonType discard = new ButtonType("Don't Save");
+        ButtonType cancel = new ButtonType("Cancel", ButtonBar.ButtonData.CANCEL_CLOSE);
+        alert.getButtonTypes().setAll(save, discard, cancel);
+
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isEmpty() || result.get() == cancel) return false;
+        // A failed or cancelled save keeps the tab open
+        return result.get() == discard || saveDocument(document, getStage());
     }
 
     // ===================== Project Tree Handling =====================
@@ -174,12 +148,14 @@ public class EditorHandler {
             showError("Invalid project directory.");
             return;
         }
+        long start = TREE_LOAD.start();
         TreeItem<Path> root = createTreeItem(projectDirectory);
         if (projectTreeView != null) {
             projectTreeView.setRoot(root);
             root.setExpanded(true);
             projectTreeView.refresh();
         }
+        TREE_LOAD.stop(start);
     }
 
     private TreeItem<Path> createTreeItem(Path path) {
@@ -213,6 +189,11 @@ public class EditorHandler {
                 protected void updateItem(Path item, boolean empty) {
                     super.updateItem(item, empty);
                     setText(empty || item == null ? "" : item.getFileName().toString());
+                    getStyleClass().removeAll(GIT_STYLE_CLASSES);
+                    if (!empty && item != null && gitStatus != null) {
+                        String styleClass = gitStyleClass(item);
+                        if (styleClass != null) getStyleClass().add(styleClass);
+                    }
                 }
             };
 
@@ -260,6 +241,15 @@ public class EditorHandler {
         });
     }
 
+    // Only map lookups: cells are updated on every scroll
+    private String gitStyleClass(Path path) {
+        GitFileStatus status = gitStatus.getStatus(path);
+        if (status != null) {
+            return "git-" + status.name().toLowerCase();
+        }
+        return gitStatus.hasChangesBelow(path) ? "git-changed-folder" : null;
+    }
+
     private Path getSelectedDirectory(TreeCell<Path> cell) {
         Path path = cell.getItem();
         if (path != null && Files.isDirectory(path)) {
@@ -317,15 +307,8 @@ public class EditorHandler {
             Path newPath = oldPath.resolveSibling(newName);
             try {
                 Files.move(oldPath, newPath);
-                // Update tabFileMap for open tabs with this file
-                for (Map.Entry<Tab, File> entry : tabFileMap.entrySet()) {
-                    if (entry.getValue() != null && entry.getValue().toPath().equals(oldPath)) {
-                        File newFile = newPath.toFile();
-                        entry.setValue(newFile);
-                        Tab tab = entry.getKey();
-                        updateTabTitle(tab, newFile.getName());
-                    }
-                }
+                // Open documents at or below the renamed path follow it
+                editorScreen.getDocuments().renamed(oldPath, newPath);
                 refreshProjectTree();
             } catch (IOException e) {
                 showError("Failed to rename: " + e.getMessage());
@@ -364,60 +347,6 @@ public class EditorHandler {
 
     // ===================== Utility =====================
 
-    private void handleTabCloseEvent() {
-        editorScreen.getEditorTabPane().getTabs().addListener((javafx.collections.ListChangeListener.Change<? extends Tab> change) -> {
-            while (change.next()) {
-                if (change.wasRemoved()) {
-                    for (Tab tab : change.getRemoved()) {
-                        tabFileMap.remove(tab);
-                        unsavedChangesMap.remove(tab);
-                    }
-                } else if (change.wasAdded()) {
-                    for (Tab tab : change.getAddedSubList()) {
-                        tab.setOnCloseRequest(event -> {
-                            boolean hasUnsavedChanges = unsavedChangesMap.getOrDefault(tab, false);
-
-                            // If there are unsaved changes for either saved or new file, prompt user
-                            if (hasUnsavedChanges) {
-                                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                                alert.setTitle("Unsaved Changes");
-                                alert.setHeaderText("You have unsaved changes.");
-                                alert.setContentText("Do you want to save before closing?");
-
-                                ButtonType save = new ButtonType("Save");
-                                ButtonType discard = new ButtonType("Discard");
-                                ButtonType cancel = new ButtonType("Cancel", ButtonBar.ButtonData.CANCEL_CLOSE);
-                                alert.getButtonTypes().setAll(save, discard, cancel);
-
-                                Optional<ButtonType> result = alert.showAndWait();
-                                if (result.isPresent()) {
-                                    if (result.get() == save) {
-                                        Stage stage = getStage();
-                                        if (stage == null) {
-                                            showError("Cannot save file: No application window found.");
-                                            event.consume();
-                                            return;
-                                        }
-                                        handleSaveFile(stage);
-
-                                        // After saving, still check if tab still has unsaved changes (in case save failed)
-                                        if (unsavedChangesMap.getOrDefault(tab, false)) {
-                                            event.consume(); // prevent closing if still unsaved
-                                        }
-                                    } else if (result.get() == cancel) {
-                                        event.consume(); // cancel tab closing
-                                    }
-                                } else {
-                                    event.consume(); // no choice made, cancel close
-                                }
-                            }
-                        });
-                    }
-                }
-            }
-        });
-    }
-
     private Stage getStage() {
         if (editorScreen != null && editorScreen.getEditorTabPane() != null &&
                 editorScreen.getEditorTabPane().getScene() != null) {
@@ -426,22 +355,6 @@ public class EditorHandler {
         return null;
     }
 
-
-    private void markTabAsSaved(Tab tab) {
-        unsavedChangesMap.put(tab, false);
-        updateTabTitle(tab, tab.getText().replace("*", ""));
-    }
-
-    private void updateTabTitle(Tab tab, String title) {
-        if (unsavedChangesMap.getOrDefault(tab, false)) {
-            if (!title.endsWith("*")) {
-                tab.setText(title + "*");
-            }
-        } else {
-            tab.setText(title);
-        }
-    }
-
     private void showError(String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Error");
@@ -0,0 +1,264 @@
+package com.DevScribe.ui.components;
+
+import com.DevScribe.git.CommitDiffs;
+import com.DevScribe.git.CommitLog;
+import com.DevScribe.git.CommitLog.CommitSummary;
+import com.DevScribe.git.GitChanges;
+import com.DevScribe.git.GitChanges.Change;
+import com.DevScribe.git.GitProject;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+// Stage, unstage and commit, plus the commit history of the project's repository. Git
+// work runs on a background thread. The history list is virtualized and asks for the
+// next page of commits only when it is scrolled near its end.
+public class SourceControlPanel extends VBox {
+    private static final int PAGE_SIZE = 200;
+    // Load the next page when a cell this close to the end of the list is shown
+    private static final int PREFETCH_DISTANCE = 50;
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    private final GitProject project;
+    private final GitChanges changes;
+    private final CommitDiffs diffs;
+    private final BiConsumer<String, String> onShowDiff;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "source-control");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ObservableList<Change> stagedItems = FXCollections.observableArrayList();
+    private final ObservableList<Change> unstagedItems = FXCollections.observableArrayList();
+    private final ObservableList<CommitSummary> historyItems = FXCollections.observableArrayList();
+    private final TextArea messageArea = new TextArea();
+    private final Label historyStatus = new Label();
+    private CommitLog log;
+    private boolean pageLoading = false;
+    private boolean historyComplete = false;
+
+    // onShowDiff receives a title and the diff text of a selected commit
+    public SourceControlPanel(GitProject project, BiConsumer<String, String> onShowDiff) {
+        this.project = project;
+        this.changes = new GitChanges(project);
+        this.diffs = new CommitDiffs(project);
+        this.onShowDiff = onShowDiff;
+        getStyleClass().add("source-control-panel");
+        setSpacing(6);
+        setPadding(new Insets(6));
+
+        Label title = new Label("Source Control");
+        title.getStyleClass().add("directory-label");
+        Button refresh = new Button("Refresh");
+        refresh.setOnAction(e -> refresh());
+        HBox header = new HBox(6, title, refresh);
+
+        messageArea.setPromptText("Commit message");
+        messageArea.setPrefRowCount(3);
+        messageArea.setWrapText(true);
+        Button commit = new Button("Commit");
+        commit.setMaxWidth(Double.MAX_VALUE);
+        commit.setOnAction(e -> commit());
+
+        ListView<Change> stagedList = createChangeList(stagedItems, true);
+        ListView<Change> unstagedList = createChangeList(unstagedItems, false);
+        ListView<CommitSummary> historyList = createHistoryList();
+
+        SplitPane lists = new SplitPane(
+                titled("Staged Changes", stagedList),
+                titled("Changes", unstagedList),
+                titled("History", new VBox(historyList, historyStatus)));
+        lists.setOrientation(Orientation.VERTICAL);
+        lists.setDividerPositions(0.25, 0.55);
+        VBox.setVgrow(historyList, Priority.ALWAYS);
+        VBox.setVgrow(lists, Priority.ALWAYS);
+
+        getChildren().addAll(header, messageArea, commit, lists);
+    }
+
+    private static TitledPane titled(String text, javafx.scene.Node content) {
+        TitledPane pane = new TitledPane(text, content);
+        pane.setCollapsible(false);
+        pane.setMaxHeight(Double.MAX_VALUE);
+        return pane;
+    }
+
+    // Reloads the change lists and restarts the history from HEAD
+    public void refresh() {
+        reloadChanges();
+        resetHistory();
+    }
+
+    public void close() {
+        if (log != null) log.close();
+        executor.shutdownNow();
+    }
+
+    // Runs after any git task already queued, so the lists show its result
+    private void reloadChanges() {
+        executor.execute(() -> {
+            try {
+                List<Change> all = changes.list();
+                Platform.runLater(() -> {
+                    stagedItems.setAll(all.stream().filter(Change::staged).toList());
+                    unstagedItems.setAll(all.stream().filter(change -> !change.staged()).toList());
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> showError("Could not read git status: " + e.getMessage()));
+            }
+        });
+    }
+
+    private ListView<Change> createChangeList(ObservableList<Change> items, boolean staged) {
+        ListView<Change> list = new ListView<>(items);
+        list.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        list.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(Change item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.kind().getLetter() + "  " + item.path());
+            }
+        });
+
+        MenuItem action = new MenuItem(staged ? "Unstage" : "Stage");
+        MenuItem all = new MenuItem(staged ? "Unstage All" : "Stage All");
+        action.setOnAction(e -> toggleStaged(List.copyOf(list.getSelectionModel().getSelectedItems()), staged));
+        all.setOnAction(e -> toggleStaged(List.copyOf(items), staged));
+        list.setContextMenu(new ContextMenu(action, all));
+        list.setOnMouseClicked(e -> {
+            Change selected = list.getSelectionModel().getSelectedItem();
+            if (e.getClickCount() == 2 && selected != null) toggleStaged(List.of(selected), staged);
+        });
+        return list;
+    }
+
+    private void toggleStaged(List<Change> selected, boolean staged) {
+        if (selected.isEmpty()) return;
+        executor.execute(() -> {
+            try {
+                if (staged) {
+                    changes.unstage(selected);
+                } else {
+                    changes.stage(selected);
+                }
+            } catch (Exception e) {
+                Platform.runLater(() -> showError((staged ? "Unstage" : "Stage") + " failed: " + e.getMessage()));
+            }
+        });
+        reloadChanges();
+    }
+
+    private void commit() {
+        String message = messageArea.getText().trim();
+        if (message.isEmpty()) {
+            showError("Enter a commit message first.");
+            return;
+        }
+        if (stagedItems.isEmpty()) {
+            showError("There are no staged changes to commit.");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                changes.commit(message);
+                // The history reads HEAD on its own thread, so it restarts only once the commit exists
+                Platform.runLater(() -> {
+                    messageArea.clear();
+                    if (!executor.isShutdown()) refresh();
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> showError("Commit failed: " + e.getMessage()));
+            }
+        });
+    }
+
+    // ===================== History =====================
+
+    private ListView<CommitSummary> createHistoryList() {
+        ListView<CommitSummary> list = new ListView<>(historyItems);
+        list.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(CommitSummary item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    setTooltip(null);
+                    return;
+                }
+                setText(item.shortId() + "  " + item.shortMessage());
+                setTooltip(new Tooltip(item.author() + ", " + DATE_FORMAT.format(Instant.ofEpochMilli(item.time()))));
+                if (getIndex() >= historyItems.size() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+        list.setOnMouseClicked(e -> {
+            CommitSummary selected = list.getSelectionModel().getSelectedItem();
+            if (e.getClickCount() == 2 && selected != null) showDiff(selected);
+        });
+        return list;
+    }
+
+    private void resetHistory() {
+        if (log != null) log.close();
+        log = new CommitLog(project);
+        historyItems.clear();
+        historyComplete = false;
+        pageLoading = false;
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (pageLoading || historyComplete) return;
+        pageLoading = true;
+        historyStatus.setText("Loading history...");
+        CommitLog current = log;
+        current.nextPage(PAGE_SIZE).whenComplete((page, error) -> Platform.runLater(() -> {
+            if (current != log) return; // history was reset meanwhile
+            pageLoading = false;
+            if (error != null) {
+                historyStatus.setText("Could not read history: " + error.getMessage());
+                historyComplete = true;
+                return;
+            }
+            historyItems.addAll(page);
+            historyComplete = page.size() < PAGE_SIZE;
+            historyStatus.setText(historyItems.size() + (historyComplete ? " commits" : "+ commits"));
+        }));
+    }
+
+    private void showDiff(CommitSummary commit) {
+        executor.execute(() -> {
+            try {
+                String diff = diffs.diff(commit.id());
+                Platform.runLater(() -> onShowDiff.accept(commit.shortId() + ".diff", diff));
+            } catch (Exception e) {
+                Platform.runLater(() -> showError("Could not compute the diff: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void showError(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Source Control");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
@@ -1,9 +1,12 @@
 package com.DevScribe.ui.dialogs;
 
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
@@ -13,6 +16,9 @@ public class ProgressDialog {
     private Stage dialogStage;
     private ProgressBar progressBar;
     private Label messageLabel;
+    private Label detailLabel;
+    private Button cancelButton;
+    private Runnable onCancel;
 
     public ProgressDialog(Stage owner, String title) {
         dialogStage = new Stage(StageStyle.UTILITY);
@@ -21,10 +27,21 @@ public class ProgressDialog {
         dialogStage.setTitle(title);
 
         messageLabel = new Label("Starting...");
+        detailLabel = new Label();
         progressBar = new ProgressBar();
         progressBar.setPrefWidth(300);
 
-        VBox root = new VBox(10, messageLabel, progressBar);
+        cancelButton = new Button("Cancel");
+        cancelButton.setOnAction(e -> cancel());
+        cancelButton.setVisible(false);
+        cancelButton.setManaged(false);
+        HBox buttons = new HBox(cancelButton);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+
+        // Closing the window counts as cancelling
+        dialogStage.setOnCloseRequest(e -> cancel());
+
+        VBox root = new VBox(10, messageLabel, progressBar, detailLabel, buttons);
         root.setPadding(new Insets(15));
         Scene scene = new Scene(root);
         dialogStage.setScene(scene);
@@ -46,4 +63,25 @@ public class ProgressDialog {
         progressBar.setProgress(progress);
     }
 
+    public void setDetail(String detail) {
+        detailLabel.setText(detail);
+    }
+
+    // Shows a Cancel button that runs the given action once
+    public void setOnCancel(Runnable onCancel) {
+        this.onCancel = onCancel;
+        cancelButton.setVisible(onCancel != null);
+        cancelButton.setManaged(onCancel != null);
+    }
+
+    private void cancel() {
+        if (onCancel != null) {
+            Runnable action = onCancel;
+            onCancel = null;
+            cancelButton.setDisable(true);
+            setMessage("Cancelling...");
+            action.run();
+        }
+    }
+
 }
@@ -0,0 +1,98 @@
+package com.DevScribe.ui.dialogs;
+
+import com.DevScribe.metrics.Counter;
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.util.Duration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Live view of the metrics timers and counters, refreshed every second while open
+public class StatsDialog {
+    private final Stage dialogStage;
+    private final ObservableList<Timer> timerRows = FXCollections.observableArrayList();
+    private final ObservableList<Counter> counterRows = FXCollections.observableArrayList();
+    // Counter totals at the previous refresh, for the per-second rate
+    private final Map<String, Long> previousTotals = new HashMap<>();
+    private final Map<String, Long> rates = new HashMap<>();
+    private final TableView<Timer> timers = new TableView<>(timerRows);
+    private final TableView<Counter> counters = new TableView<>(counterRows);
+    private final Timeline refresher;
+
+    public StatsDialog(Stage owner) {
+        dialogStage = new Stage(StageStyle.UTILITY);
+        dialogStage.initOwner(owner);
+        dialogStage.setTitle("Performance Stats");
+
+        timers.getColumns().add(column("Timer", Timer::getName));
+        timers.getColumns().add(column("Count", timer -> String.valueOf(timer.getCount())));
+        timers.getColumns().add(column("Avg ms", timer -> millis(timer.getCount() == 0 ? 0 : timer.getTotalNanos() / timer.getCount())));
+        timers.getColumns().add(column("Max ms", timer -> millis(timer.getMaxNanos())));
+        timers.getColumns().add(column("Last ms", timer -> millis(timer.getLastNanos())));
+        timers.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+
+        counters.getColumns().add(column("Counter", Counter::getName));
+        counters.getColumns().add(column("Total", counter -> String.valueOf(counter.getTotal())));
+        counters.getColumns().add(column("Per second", counter -> String.valueOf(rates.getOrDefault(counter.getName(), 0L))));
+        counters.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        counters.setPrefHeight(150);
+
+        Label note = new Label(Metrics.ENABLED ? "" : "Metrics are off (-Ddevscribe.metrics=false).");
+        VBox root = new VBox(8, timers, counters, note);
+        root.setPadding(new Insets(10));
+        VBox.setVgrow(timers, Priority.ALWAYS);
+        dialogStage.setScene(new Scene(root, 560, 480));
+
+        refresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        dialogStage.setOnHidden(e -> refresher.stop());
+    }
+
+    public void show() {
+        previousTotals.clear();
+        refresh();
+        refresher.play();
+        dialogStage.show();
+        dialogStage.toFront();
+    }
+
+    private void refresh() {
+        for (Counter counter : Metrics.counters()) {
+            long total = counter.getTotal();
+            Long previous = previousTotals.put(counter.getName(), total);
+            rates.put(counter.getName(), previous == null ? 0 : total - previous);
+        }
+        timerRows.setAll(Metrics.timers());
+        counterRows.setAll(Metrics.counters());
+        // Rows are the live objects, which don't signal changes; re-read every cell
+        timers.refresh();
+        counters.refresh();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+    private static <T> TableColumn<T, String> column(String title, Function<T, String> value) {
+        TableColumn<T, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new SimpleStringProperty(value.apply(cell.getValue())));
+        column.setSortable(false);
+        return column;
+    }
+}
@@ -1,5 +1,15 @@
 package com.DevScribe.ui.dialogs;
 
+import com.DevScribe.build.BuildResult;
+import com.DevScribe.build.CompileDiagnostic;
+import com.DevScribe.build.IncrementalJavaBuilder;
+import com.DevScribe.build.JavaCompileService;
+import com.DevScribe.metrics.Counter;
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
+import com.DevScribe.runner.ManagedRun;
+import com.DevScribe.runner.PythonKernel;
+import com.DevScribe.runner.WarmJvmRunner;
 import com.DevScribe.utils.ProcessStreamer;
 import javafx.application.Platform;
 import javafx.scene.input.KeyCode;
@@ -12,38 +22,68 @@ import org.fxmisc.richtext.InlineCssTextArea;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+// A single terminal session: one process, one streamer and its own scrollback.
+// Sessions are hosted as tabs by TerminalManager.
 public class Terminal extends VBox {
+    // Upper bound (in characters) for both the visible scrollback and the off-screen buffer
+    private static final int MAX_SCROLLBACK = 500_000;
+    private static final Counter APPENDED_CHARS = Metrics.counter("terminal.append.chars");
+    private static final Timer FLUSH = Metrics.timer("terminal.flush");
+
+    private final String title;
+    private final Path projectRoot;
     private final InlineCssTextArea terminalArea;
     private OutputStream processInput;
-    private Process currentProcess;
+    private volatile Process currentProcess;
     private ProcessStreamer processStreamer;
+    // A run hosted by the warm JVM runner or the Python kernel instead of currentProcess
+    private volatile ManagedRun managedRun;
+    private volatile boolean warmJavaRunner = false;
+    private volatile boolean pythonKernel = true;
     private int promptPosition;
 
+    // Output is queued here and drained on the FX thread in batches. While the session
+    // is not the visible tab nothing is handed to the FX thread at all.
+    private final ConcurrentLinkedQueue<PendingOutput> pendingOutput = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingChars = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private volatile boolean active = false;
+    private volatile Consumer<Boolean> onRunningChanged;
+    private volatile BiConsumer<Path, List<CompileDiagnostic>> onDiagnostics;
+
     // To track if a python retry after install is done
     private AtomicBoolean pythonRetry = new AtomicBoolean(false);
 
-    public Terminal() {
+    private enum OutputKind { TEXT, PROMPT, CLEAR }
+
+    private record PendingOutput(OutputKind kind, String text, String style) {
+        int length() {
+            return text == null ? 0 : text.length();
+        }
+    }
+
+    public Terminal(String title, Path projectRoot) {
+        this.title = title;
+        this.projectRoot = projectRoot;
         terminalArea = new InlineCssTextArea();
         terminalArea.setEditable(false);
         terminalArea.setWrapText(true);
         terminalArea.getStyleClass().add("inline-css");
-        this.getStylesheets().add(getClass().getResource("/css/terminal.css").toExternalForm());
 
         this.getChildren().add(terminalArea);
         VBox.setVgrow(terminalArea, Priority.ALWAYS);
         terminalArea.setPrefHeight(Region.USE_COMPUTED_SIZE);
-        this.setPrefWidth(1000);
-        this.setVisible(false);
-
-        this.sceneProperty().addListener((obs, oldScene, newScene) -> {
-            if (newScene != null) {
-                this.prefHeightProperty().bind(newScene.heightProperty().multiply(0.4));
-            }
-        });
 
         terminalArea.addEventFilter(KeyEvent.KEY_PRESSED, this::handleKeyPressed);
 
@@ -61,7 +101,11 @@ public class Terminal extends VBox {
     private void handleCtrlCInterrupt(KeyEvent event) {
         if (event.isControlDown() && event.getCode() == KeyCode.C) {
             event.consume();
-            if (currentProcess != null && currentProcess.isAlive()) {
+            ManagedRun run = managedRun;
+            if (run != null) {
+                run.interrupt();
+                appendText("\n^C\n", "-fx-fill: orange; -fx-font-weight: bold;");
+            } else if (currentProcess != null && currentProcess.isAlive()) {
                 // Attempt to send SIGINT to process
                 try {
                     sendInterruptToProcess();
@@ -127,45 +171,151 @@ public class Terminal extends VBox {
         }
     }
 
+    public String getTitle() {
+        return title;
+    }
+
+    public boolean isRunning() {
+        Process process = currentProcess;
+        return managedRun != null || (process != null && process.isAlive());
+    }
+
+    // Java runs go to the project's warm runner JVM instead of a new java process
+    public void setWarmJavaRunner(boolean warmJavaRunner) {
+        this.warmJavaRunner = warmJavaRunner;
+    }
+
+    // Python runs reuse the project's kernel instead of starting a new interpreter
+    public void setPythonKernel(boolean pythonKernel) {
+        this.pythonKernel = pythonKernel;
+    }
+
+    public void setOnRunningChanged(Consumer<Boolean> onRunningChanged) {
+        this.onRunningChanged = onRunningChanged;
+    }
+
+    // Receives the compiler diagnostics of each Java run, keyed by the file that was run
+    public void setOnDiagnostics(BiConsumer<Path, List<CompileDiagnostic>> onDiagnostics) {
+        this.onDiagnostics = onDiagnostics;
+    }
+
+    // Called by TerminalManager when the session tab is shown or hidden
+    public void setActive(boolean active) {
+        this.active = active;
+        if (active) {
+            scheduleFlush();
+        }
+    }
+
     // Append text with optional style
     public void appendText(String text) {
         appendText(text, null);
     }
     public void appendText(String text, String style) {
-        Platform.runLater(() -> {
-            if (style == null || style.isEmpty()) {
-                terminalArea.appendText(text);
-            } else {
-                int start = terminalArea.getLength();
-                terminalArea.appendText(text);
-                int end = terminalArea.getLength();
-                terminalArea.setStyle(start, end, style);
-            }
-            promptPosition = terminalArea.getLength();
-            terminalArea.moveTo(promptPosition);
-        });
+        enqueue(new PendingOutput(OutputKind.TEXT, text, style));
     }
 
     public void appendPrompt() {
-        Platform.runLater(() -> {
-            if (terminalArea.getLength() > 0 &&
-                    terminalArea.getText(terminalArea.getLength() - 1, terminalArea.getLength()).charAt(0) != '\n') {
-                terminalArea.appendText("\n");
-            }
-            terminalArea.appendText("> ");
-            promptPosition = terminalArea.getLength();
-            terminalArea.moveTo(promptPosition);
-            terminalArea.setEditable(true);
-            terminalArea.requestFocus();
-        });
+        enqueue(new PendingOutput(OutputKind.PROMPT, null, null));
     }
 
     public void clear() {
-        Platform.runLater(() -> {
-            terminalArea.clear();
-            promptPosition = 0;
-            terminalArea.setEditable(false);
-        });
+        pendingOutput.clear();
+        pendingChars.set(0);
+        enqueue(new PendingOutput(OutputKind.CLEAR, null, null));
+    }
+
+    private void enqueue(PendingOutput output) {
+        pendingOutput.add(output);
+        if (pendingChars.addAndGet(output.length()) > MAX_SCROLLBACK) {
+            // Background sessions keep only the tail of their output, like the visible scrollback does
+            while (pendingChars.get() > MAX_SCROLLBACK) {
+                PendingOutput dropped = pendingOutput.poll();
+                if (dropped == null) break;
+                pendingChars.addAndGet(-dropped.length());
+            }
+        }
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (active && flushScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::flushPendingOutput);
+        }
+    }
+
+    private void flushPendingOutput() {
+        flushScheduled.set(false);
+        long start = FLUSH.start();
+
+        StringBuilder run = new StringBuilder();
+        String runStyle = null;
+        PendingOutput output;
+        while ((output = pendingOutput.poll()) != null) {
+            pendingChars.addAndGet(-output.length());
+            if (output.kind() == OutputKind.TEXT && (run.isEmpty() || sameStyle(runStyle, output.style()))) {
+                run.append(output.text());
+                runStyle = output.style();
+                continue;
+            }
+            writeRun(run, runStyle);
+            switch (output.kind()) {
+                case TEXT -> {
+                    run.append(output.text());
+                    runStyle = output.style();
+                }
+                case PROMPT -> writePrompt();
+                case CLEAR -> {
+                    terminalArea.clear();
+                    promptPosition = 0;
+                    terminalArea.setEditable(false);
+                }
+            }
+        }
+        writeRun(run, runStyle);
+        trimScrollback();
+        FLUSH.stop(start);
+    }
+
+    private boolean sameStyle(String a, String b) {
+        return (a == null || a.isEmpty()) ? (b == null || b.isEmpty()) : a.equals(b);
+    }
+
+    private void writeRun(StringBuilder run, String style) {
+        if (run.isEmpty()) return;
+        APPENDED_CHARS.add(run.length());
+        if (style == null || style.isEmpty()) {
+            terminalArea.appendText(run.toString());
+        } else {
+            int start = terminalArea.getLength();
+            terminalArea.appendText(run.toString());
+            int end = terminalArea.getLength();
+            terminalArea.setStyle(start, end, style);
+        }
+        run.setLength(0);
+        promptPosition = terminalArea.getLength();
+        terminalArea.moveTo(promptPosition);
+    }
+
+    private void writePrompt() {
+        if (terminalArea.getLength() > 0 &&
+                terminalArea.getText(terminalArea.getLength() - 1, terminalArea.getLength()).charAt(0) != '\n') {
+            terminalArea.appendText("\n");
+        }
+        terminalArea.appendText("> ");
+        promptPosition = terminalArea.getLength();
+        terminalArea.moveTo(promptPosition);
+        terminalArea.setEditable(true);
+        terminalArea.requestFocus();
+    }
+
+    private void trimScrollback() {
+        int overflow = terminalArea.getLength() - MAX_SCROLLBACK;
+        if (overflow > 0) {
+            terminalArea.deleteText(0, overflow);
+            promptPosition = Math.max(0, promptPosition - overflow);
+            terminalArea.moveTo(terminalArea.getLength());
+        }
     }
 
     public void setProcessInput(OutputStream processInput) {
@@ -177,6 +327,11 @@ public class Terminal extends VBox {
             processStreamer.stopStreaming();
             processStreamer = null;
         }
+        ManagedRun run = managedRun;
+        if (run != null) {
+            managedRun = null;
+            run.kill();
+        }
         if (currentProcess != null) {
             currentProcess.destroy();
             currentProcess = null;
@@ -184,16 +339,30 @@ public class Terminal extends VBox {
         processInput = null;
         Platform.runLater(() -> terminalArea.setEditable(false));
         pythonRetry.set(false);
+        notifyRunningChanged(false);
     }
 
-    public void showTerminal(Path filePath, String code) {
-        Platform.runLater(() -> {
-            this.setVisible(true);
-            terminalArea.requestFocus();
-            clear();
-        });
+    private void notifyRunningChanged(boolean running) {
+        Consumer<Boolean> listener = onRunningChanged;
+        if (listener != null) {
+            listener.accept(running);
+        }
+    }
+
+    // Stops the session's process; used when its tab is closed
+    public void close() {
+        active = false;
+        cleanupProcess();
+        pendingOutput.clear();
+        pendingChars.set(0);
+    }
+
+    public void run(Path filePath, String code) {
+        cleanupProcess();
+        clear();
+        Platform.runLater(terminalArea::requestFocus);
 
-        new Thread(() -> {
+        Thread.ofVirtual().name("terminal-" + title).start(() -> {
             try {
                 String fileExtension = getFileExtension(filePath);
 
@@ -213,16 +382,219 @@ public class Terminal extends VBox {
                 appendText("Error running the process: " + e.getMessage() + "\n");
                 cleanupProcess();
             }
-        }).start();
+        });
+    }
+
+    public void startShell() {
+        Thread.ofVirtual().name("terminal-" + title).start(() -> {
+            try {
+                startInteractiveShell();
+            } catch (IOException e) {
+                appendText("Error starting shell: " + e.getMessage() + "\n");
+                cleanupProcess();
+            }
+        });
     }
 
     // Python run with auto-install
     private void runPythonWithAutoInstall(Path filePath) throws IOException {
         String pythonCmd = getPythonCommand();
+        if (pythonKernel && projectRoot != null && runInPythonKernel(filePath, pythonCmd)) {
+            return;
+        }
         runProcessWithOutputHandling(new String[]{pythonCmd, filePath.toString()}, null, true);
     }
 
+    // Returns false when the kernel cannot take this run, so a plain python process is used.
+    // Start and exit handling share the session lock so a script that fails at once
+    // still finds its run attached.
+    private synchronized boolean runInPythonKernel(Path filePath, String pythonCmd) {
+        long start = System.nanoTime();
+        AtomicReference<ManagedRun> self = new AtomicReference<>();
+        AtomicBoolean exited = new AtomicBoolean(false);
+        PythonKernel.Run run;
+        try {
+            run = PythonKernel.forProject(projectRoot).start(pythonCmd, filePath, filePath.getParent(),
+                    new PythonKernel.RunListener() {
+                        @Override
+                        public void onOutput(String text, boolean error) {
+                            appendText(text, error ? "-fx-fill: red;" : null);
+                        }
+
+                        @Override
+                        public void onExit(int exitCode, String missingModule) {
+                            if (missingModule != null && retryAfterInstall(filePath, missingModule, self.get())) {
+                                return;
+                            }
+                            synchronized (Terminal.this) {
+                                appendText("\nProcess exited with code: " + exitCode + " ("
+                                        + (System.nanoTime() - start) / 1_000_000 + " ms)\n");
+                                exited.set(true);
+                                finishManagedRun(self.get());
+                            }
+                        }
+                    });
+        } catch (IOException e) {
+            appendText("[WARN] Python kernel unavailable: " + e.getMessage() + "\n", "-fx-fill: orange;");
+            return false;
+        }
+        if (run == null) {
+            appendText("[INFO] Python kernel is busy in another session, starting a new interpreter.\n", "-fx-fill: gray;");
+            return false;
+        }
+        appendText("Running " + filePath.getFileName() + " in the Python kernel\n", "-fx-fill: gray;");
+        attachManagedRun(run, self, exited);
+        return true;
+    }
+
+    // The install runs outside the session lock, so output and other runs aren't held up
+    // by pip; the session may have been stopped or reused by the time it finishes
+    private boolean retryAfterInstall(Path filePath, String missingModule, ManagedRun failedRun) {
+        synchronized (this) {
+            // Only retry once, and only if the session still belongs to the failed run
+            if (pythonRetry.get() || failedRun == null || managedRun != failedRun) {
+                return false;
+            }
+            pythonRetry.set(true);
+        }
+        appendText("\n[INFO] Missing Python module detected: " + missingModule + "\n", "-fx-fill: orange; -fx-font-weight: bold;");
+        if (!installPythonModule(missingModule)) {
+            return false;
+        }
+        synchronized (this) {
+            if (managedRun != failedRun) {
+                return false;
+            }
+            appendText("[INFO] Module '" + missingModule + "' installed. Retrying...\n", "-fx-fill: green;");
+            managedRun = null;
+            try {
+                runPythonWithAutoInstall(filePath);
+            } catch (IOException e) {
+                appendText("[ERROR] Failed to rerun Python script: " + e.getMessage() + "\n", "-fx-fill: red;");
+                cleanupProcess();
+            }
+        }
+        return true;
+    }
+
     private void runJavaFile(Path filePath, String code) throws IOException, InterruptedException {
+        if (projectRoot == null || !JavaCompileService.isAvailable()) {
+            runJavaFileWithJavac(filePath, code);
+            return;
+        }
+
+        IncrementalJavaBuilder builder = IncrementalJavaBuilder.forSource(projectRoot, filePath, code);
+
+        appendText("Building " + filePath.getFileName() + "\n");
+        BuildResult result = builder.build(Map.of(filePath, code), this::appendDiagnostic);
+        publishDiagnostics(filePath, result.diagnostics());
+
+        if (!result.isCompiled(filePath)) {
+            appendText("Compilation failed. Check for missing packages or syntax errors.\n");
+            cleanupProcess();
+            return;
+        }
+        if (!result.success()) {
+            appendText(result.failedSources().size() + " other file(s) failed to compile.\n", "-fx-fill: orange;");
+        }
+
+        String mainClass = result.findMainClass(filePath);
+        if (mainClass == null) {
+            appendText("No top-level class matching " + filePath.getFileName() + " was compiled.\n");
+            cleanupProcess();
+            return;
+        }
+
+        StringBuilder classpath = new StringBuilder();
+        for (Path entry : builder.getClasspath()) {
+            if (!classpath.isEmpty()) classpath.append(File.pathSeparatorChar);
+            classpath.append(entry);
+        }
+
+        appendText("Compiled " + result.compiledSources() + " of " + result.totalSources() + " file(s) in "
+                + result.elapsedMillis() + " ms\n", "-fx-fill: gray;");
+        appendText("Running Java class: " + mainClass + "\n");
+        if (warmJavaRunner && runInWarmJvm(mainClass, builder.getOutputDirectory(), filePath.getParent())) {
+            return;
+        }
+        runProcessWithDir(new String[]{"java", "-cp", classpath.toString(), mainClass}, filePath.getParent().toFile());
+    }
+
+    // Returns false when the warm runner cannot take this run, so a normal process is used
+    private boolean runInWarmJvm(String mainClass, Path classesDir, Path workingDir) {
+        WarmJvmRunner runner = WarmJvmRunner.forProject(projectRoot);
+        List<Path> libraries = JavaCompileService.forProject(projectRoot).getLibraryJars();
+        long start = System.nanoTime();
+        AtomicReference<ManagedRun> self = new AtomicReference<>();
+        AtomicBoolean exited = new AtomicBoolean(false);
+        WarmJvmRunner.Run run;
+        try {
+            run = runner.start(mainClass, classesDir, libraries, workingDir, new WarmJvmRunner.RunListener() {
+                @Override
+                public void onOutput(String text, boolean error) {
+                    appendText(text, error ? "-fx-fill: red;" : null);
+                }
+
+                @Override
+                public void onExit(int exitCode, boolean recycled) {
+                    appendText("\nProcess exited with code: " + exitCode + " ("
+                            + (System.nanoTime() - start) / 1_000_000 + " ms"
+                            + (recycled ? ", runner restarted" : "") + ")\n");
+                    exited.set(true);
+                    finishManagedRun(self.get());
+                }
+            });
+        } catch (IOException e) {
+            appendText("[WARN] Warm runner unavailable: " + e.getMessage() + "\n", "-fx-fill: orange;");
+            return false;
+        }
+        if (run == null) {
+            appendText("[INFO] Warm runner is busy in another session, starting a new JVM.\n", "-fx-fill: gray;");
+            return false;
+        }
+
+        attachManagedRun(run, self, exited);
+        return true;
+    }
+
+    private void attachManagedRun(ManagedRun run, AtomicReference<ManagedRun> self, AtomicBoolean exited) {
+        managedRun = run;
+        self.set(run);
+        notifyRunningChanged(true);
+        setProcessInput(run.getInput());
+        appendPrompt();
+        // The program may have finished before the run was registered
+        if (exited.get()) {
+            finishManagedRun(run);
+        }
+    }
+
+    private synchronized void finishManagedRun(ManagedRun run) {
+        // A newer run (or process) may own the session by now
+        if (run != null && managedRun == run) {
+            managedRun = null;
+            cleanupProcess();
+        }
+    }
+
+    private void appendDiagnostic(CompileDiagnostic diagnostic) {
+        String style = switch (diagnostic.kind()) {
+            case ERROR -> "-fx-fill: red; -fx-font-weight: bold;";
+            case WARNING -> "-fx-fill: orange;";
+            case NOTE -> null;
+        };
+        appendText(diagnostic + "\n", style);
+    }
+
+    private void publishDiagnostics(Path filePath, List<CompileDiagnostic> diagnostics) {
+        BiConsumer<Path, List<CompileDiagnostic>> listener = onDiagnostics;
+        if (listener != null) {
+            listener.accept(filePath, diagnostics);
+        }
+    }
+
+    // Fallback used when DevScribe itself runs on a JRE without an in-process compiler
+    private void runJavaFileWithJavac(Path filePath, String code) throws IOException, InterruptedException {
         Path parentDir = filePath.getParent();
         String fileName = filePath.getFileName().toString();
         String className = fileName.substring(0, fileName.lastIndexOf('.'));
@@ -289,12 +661,14 @@ public class Terminal extends VBox {
         if (workingDir != null) builder.directory(workingDir);
         builder.redirectErrorStream(false); // handle stdout & stderr separately
 
-        currentProcess = builder.start();
+        Process process = builder.start();
+        currentProcess = process;
+        notifyRunningChanged(true);
 
-        setProcessInput(currentProcess.getOutputStream());
+        setProcessInput(process.getOutputStream());
 
         // Create ProcessStreamer that reads both stdout and stderr
-        processStreamer = new ProcessStreamer(currentProcess.getInputStream(), currentProcess.getErrorStream(),
+        processStreamer = new ProcessStreamer(process.getInputStream(), process.getErrorStream(),
                 line -> {
                     // Handle Python auto-install on stderr lines
                     if (handlePythonAutoInstall && line.contains("ModuleNotFoundError")) {
@@ -324,17 +698,20 @@ public class Terminal extends VBox {
 
         appendPrompt();
 
-        new Thread(() -> {
+        ProcessStreamer streamer = processStreamer;
+        Thread.ofVirtual().name("terminal-wait-" + title).start(() -> {
             try {
-                int exitCode = currentProcess.waitFor();
-                processStreamer.stopStreaming();
+                int exitCode = process.waitFor();
+                streamer.stopStreaming();
                 appendText("\nProcess exited with code: " + exitCode + "\n");
-                cleanupProcess();
             } catch (InterruptedException e) {
                 appendText("\nProcess was interrupted.\n");
+            }
+            // A python retry may already have replaced the process; leave the new one alone
+            if (currentProcess == process) {
                 cleanupProcess();
             }
-        }).start();
+        });
     }
 
     private boolean installPythonModule(String module) {
@@ -0,0 +1,188 @@
+package com.DevScribe.ui.dialogs;
+
+import com.DevScribe.build.CompileDiagnostic;
+import com.DevScribe.runner.PythonKernel;
+import com.DevScribe.runner.WarmJvmRunner;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+// Hosts any number of Terminal sessions as tabs. Each session owns its own process,
+// so a server, a test watcher and a shell can run side by side.
+public class TerminalManager extends VBox {
+    private final TabPane sessionTabs;
+    private final Map<Tab, Terminal> sessions = new LinkedHashMap<>();
+    private int shellCount = 0;
+    private Path projectRoot;
+    private BiConsumer<Path, List<CompileDiagnostic>> onDiagnostics;
+    private boolean warmJavaRunner = false;
+    private boolean pythonKernel = true;
+
+    public TerminalManager() {
+        this.getStylesheets().add(getClass().getResource("/css/terminal.css").toExternalForm());
+        this.getStyleClass().add("terminal-manager");
+
+        sessionTabs = new TabPane();
+        sessionTabs.setTabClosingPolicy(TabPane.TabClosingPolicy.ALL_TABS);
+        sessionTabs.getStyleClass().add("terminal-tab-pane");
+        sessionTabs.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
+            if (oldTab != null && sessions.containsKey(oldTab)) {
+                sessions.get(oldTab).setActive(false);
+            }
+            if (newTab != null && sessions.containsKey(newTab)) {
+                sessions.get(newTab).setActive(true);
+            }
+        });
+
+        Label headerLabel = new Label("Terminal");
+        headerLabel.getStyleClass().add("terminal-header-label");
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button newShellButton = new Button("+");
+        newShellButton.getStyleClass().add("terminal-header-button");
+        newShellButton.setTooltip(new Tooltip("New Shell"));
+        newShellButton.setOnAction(e -> openShell());
+
+        HBox header = new HBox(8, headerLabel, spacer, newShellButton);
+        header.setAlignment(Pos.CENTER_LEFT);
+        header.getStyleClass().add("terminal-header");
+
+        this.getChildren().addAll(header, sessionTabs);
+        VBox.setVgrow(sessionTabs, Priority.ALWAYS);
+        this.setPrefWidth(1000);
+        this.setVisible(false);
+
+        this.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) {
+                this.prefHeightProperty().bind(newScene.heightProperty().multiply(0.4));
+            }
+        });
+    }
+
+    public void setProjectRoot(Path projectRoot) {
+        this.projectRoot = projectRoot;
+    }
+
+    public void setOnDiagnostics(BiConsumer<Path, List<CompileDiagnostic>> onDiagnostics) {
+        this.onDiagnostics = onDiagnostics;
+        for (Terminal session : sessions.values()) {
+            session.setOnDiagnostics(onDiagnostics);
+        }
+    }
+
+    public void setWarmJavaRunner(boolean warmJavaRunner) {
+        this.warmJavaRunner = warmJavaRunner;
+        for (Terminal session : sessions.values()) {
+            session.setWarmJavaRunner(warmJavaRunner);
+        }
+        if (!warmJavaRunner && projectRoot != null) {
+            WarmJvmRunner.forProject(projectRoot).shutdown();
+        }
+    }
+
+    public void setPythonKernel(boolean pythonKernel) {
+        this.pythonKernel = pythonKernel;
+        for (Terminal session : sessions.values()) {
+            session.setPythonKernel(pythonKernel);
+        }
+        if (!pythonKernel) {
+            restartPythonKernel();
+        }
+    }
+
+    // Throws away the kernel and its imported modules; the next Python run starts a fresh one
+    public void restartPythonKernel() {
+        if (projectRoot != null) {
+            PythonKernel.forProject(projectRoot).shutdown();
+        }
+    }
+
+    // Runs the file in a session of its own. A finished session for the same file is
+    // reused so repeated runs don't pile up tabs; a still-running one is left alone.
+    public void showTerminal(Path filePath, String code) {
+        this.setVisible(true);
+
+        String title = filePath.getFileName().toString();
+        Terminal session = findIdleSession(title);
+        if (session == null) {
+            session = openSession(title);
+        } else {
+            selectSession(session);
+        }
+        session.run(filePath, code);
+    }
+
+    public Terminal openShell() {
+        this.setVisible(true);
+        Terminal session = openSession("Shell " + (++shellCount));
+        session.startShell();
+        return session;
+    }
+
+    // Stops every session; called when the editor window goes away
+    public void closeAll() {
+        for (Terminal session : sessions.values()) {
+            session.close();
+        }
+        sessions.clear();
+        sessionTabs.getTabs().clear();
+        if (projectRoot != null) {
+            WarmJvmRunner.forProject(projectRoot).shutdown();
+            PythonKernel.forProject(projectRoot).shutdown();
+        }
+    }
+
+    private Terminal openSession(String title) {
+        Terminal session = new Terminal(title, projectRoot);
+        session.setOnDiagnostics(onDiagnostics);
+        session.setWarmJavaRunner(warmJavaRunner);
+        session.setPythonKernel(pythonKernel);
+        Tab tab = new Tab(title, session);
+        tab.setOnClosed(e -> {
+            sessions.remove(tab);
+            session.close();
+        });
+        session.setOnRunningChanged(running ->
+                Platform.runLater(() -> tab.setText(running ? "▶ " + title : title)));
+
+        sessions.put(tab, session);
+        sessionTabs.getTabs().add(tab);
+        sessionTabs.getSelectionModel().select(tab);
+        session.setActive(true);
+        return session;
+    }
+
+    private Terminal findIdleSession(String title) {
+        for (Terminal session : sessions.values()) {
+            if (session.getTitle().equals(title) && !session.isRunning()) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private void selectSession(Terminal session) {
+        for (Map.Entry<Tab, Terminal> entry : sessions.entrySet()) {
+            if (entry.getValue() == session) {
+                sessionTabs.getSelectionModel().select(entry.getKey());
+                return;
+            }
+        }
+    }
+}
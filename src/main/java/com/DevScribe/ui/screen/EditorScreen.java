@@ -1,19 +1,43 @@
 package com.DevScribe.ui.screen;
 
+import com.DevScribe.build.CompileDiagnostic;
+import com.DevScribe.build.JavaCompileService;
+import com.DevScribe.editor.AutosaveJournal;
+import com.DevScribe.editor.Document;
+import com.DevScribe.editor.DocumentManager;
+import com.DevScribe.editor.EditorPane;
+import com.DevScribe.editor.Minimap;
+import com.DevScribe.editor.completion.CompletionPopup;
+import com.DevScribe.editor.completion.ProjectWords;
+import com.DevScribe.editor.gutter.BlameGutter;
+import com.DevScribe.editor.gutter.DiffGutter;
+import com.DevScribe.editor.gutter.GutterFactory;
 import com.DevScribe.editor.highlighting.CHighlighter;
 import com.DevScribe.editor.highlighting.JavaHighlighter;
 import com.DevScribe.editor.highlighting.LanguageHighlighter;
+import com.DevScribe.editor.highlighting.LongLineHighlighter;
 import com.DevScribe.editor.highlighting.PythonHighlighter;
+import com.DevScribe.editor.structure.EditorStructure;
+import com.DevScribe.git.GitProject;
+import com.DevScribe.git.GitStatusService;
+import com.DevScribe.git.HeadContentCache;
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.metrics.Timer;
 import com.DevScribe.model.Language;
 import com.DevScribe.ui.components.EditorHandler;
-import com.DevScribe.ui.dialogs.Terminal;
+import com.DevScribe.ui.components.SourceControlPanel;
+import com.DevScribe.ui.dialogs.StatsDialog;
+import com.DevScribe.ui.dialogs.TerminalManager;
+import com.DevScribe.utils.AppDirs;
+import com.DevScribe.utils.AppImages;
 import com.DevScribe.utils.PathValidator;
+import com.DevScribe.utils.ProjectRegistry;
 import com.DevScribe.utils.ScreenManager;
+import javafx.application.Platform;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
@@ -21,25 +45,40 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import org.fxmisc.richtext.CodeArea;
-import org.fxmisc.richtext.LineNumberFactory;
 import org.kordamp.ikonli.javafx.FontIcon;
 import org.kordamp.ikonli.materialdesign2.MaterialDesignF;
+import org.kordamp.ikonli.materialdesign2.MaterialDesignS;
+import org.reactfx.Subscription;
 
 import java.io.IOException;
 import java.nio.file.*;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EditorScreen {
+    private static final Timer PROJECT_OPEN = Metrics.timer("project.open");
+    private static final Timer FILE_OPEN = Metrics.timer("file.open");
+    private static final Timer HIGHLIGHT_PASS = Metrics.timer("highlight.pass");
+
     private double xOffset = 0;
     private double yOffset = 0;
 
     private BorderPane root;
     private TabPane editorTabPane;
     private TreeView<Path> projectTree;
-    private Terminal terminal;
+    private TerminalManager terminal;
     private EditorHandler editorHandler;
+    private GitStatusService gitStatus;
+    private SourceControlPanel sourceControlPanel;
+    private StatsDialog statsDialog;
+    private AutosaveJournal autosave;
+    private ProjectWords projectWords;
     private Path projectPath;
     private boolean isDarkTheme = true;
 
@@ -51,26 +90,47 @@ public class EditorScreen {
 
     private Language currentLanguage = Language.JAVA;
 
+    // Open files, and per-document editor decorations
+    private DocumentManager documents;
+    private final Map<Document, List<Integer>> diagnosticLines = new HashMap<>();
+    private final Map<Document, DiffGutter> diffGutters = new HashMap<>();
+    private final Map<Document, GutterFactory> gutters = new HashMap<>();
+    private final Map<Document, BlameGutter> blameGutters = new HashMap<>();
+    private final Map<Document, EditorStructure> structures = new HashMap<>();
+    private final Map<Document, Minimap> minimaps = new HashMap<>();
+    private final Map<Document, CompletionPopup> completions = new HashMap<>();
+    private final Map<Document, Subscription> highlighting = new HashMap<>();
+    // Hibernated documents that had blame shown
+    private final Set<Document> blameOnRestore = new HashSet<>();
+
     public EditorScreen() {
-        terminal = new Terminal();
+        terminal = new TerminalManager();
     }
 
     public void start(Stage stage, Path projectPath,boolean isDarkTheme){
         this.projectPath = projectPath;
         this.isDarkTheme = isDarkTheme;
 
-        System.out.println("Before initStyle");
+        long openStart = PROJECT_OPEN.start();
         stage.initStyle(StageStyle.UNDECORATED);
-        System.out.println("After initStyle");
 
         if (!PathValidator.validateProjectPath(projectPath)) {
             showErrorDialog("Invalid Project", "Project path is invalid or inaccessible.");
             return;
         }
+        // Moves the project up the launcher's recent list; the file lock may wait on another instance
+        Thread.ofVirtual().name("project-registry").start(() -> ProjectRegistry.recordOpened(projectPath));
+
+        terminal.setProjectRoot(projectPath);
+        terminal.setOnDiagnostics((file, diagnostics) -> Platform.runLater(() -> showDiagnostics(file, diagnostics)));
+        if (JavaCompileService.isAvailable()) {
+            JavaCompileService.forProject(projectPath).warmUp();
+        }
 
         root = new BorderPane();
 
-        projectTree = new TreeView<>(createTreeItem(projectPath));
+        // EditorHandler fills in the tree
+        projectTree = new TreeView<>();
         projectTree.setShowRoot(true);
         projectTree.setCellFactory(param -> new TreeCell<>() {
             @Override
@@ -96,7 +156,26 @@ public class EditorScreen {
 
         editorHandler = new EditorHandler(this, projectPath, projectTree);
 
-        setupEditorArea();
+        // Status is computed in the background; the tree repaints when it arrives
+        gitStatus = GitStatusService.start(projectPath);
+        if (gitStatus != null) {
+            gitStatus.setOnChanged(changed -> Platform.runLater(() -> {
+                projectTree.refresh();
+                // Status also changes on commit and checkout, which move the markers' baseline
+                diffGutters.values().forEach(DiffGutter::reloadBaseline);
+                blameGutters.values().forEach(BlameGutter::reload);
+            }));
+            editorHandler.setGitStatus(gitStatus);
+        }
+
+        if (editorTabPane == null) {
+            setupEditorArea();
+        }
+        documents.setHistoryDir(AppDirs.getProjectCacheDir(projectPath).resolve("history"));
+        projectWords = ProjectWords.start(projectPath);
+        // Unsaved buffers from the last session come back before anything else opens
+        autosave = AutosaveJournal.open(projectPath);
+        if (autosave != null) autosave.attach(documents);
 
         root.setTop(createHeader(stage));
         root.setLeft(createLeftNav());
@@ -105,10 +184,18 @@ public class EditorScreen {
         Scene scene = new Scene(root, 1400, 750);
         scene.getStylesheets().add(getClass().getResource("/css/editor.css").toExternalForm());
         stage.setScene(scene);
+        stage.setOnHidden(e -> {
+            if (autosave != null) autosave.close();
+            if (projectWords != null) projectWords.close();
+            documents.persistHistories();
+            terminal.closeAll();
+            if (gitStatus != null) gitStatus.close();
+            if (sourceControlPanel != null) sourceControlPanel.close();
+            GitProject.closeAll();
+        });
         updateTheme(scene);
-        System.out.println("Before show");
         stage.show();
-        System.out.println("After show");
+        PROJECT_OPEN.stop(openStart);
 
 
         scene.getAccelerators().put(
@@ -133,6 +220,31 @@ public class EditorScreen {
     }
 
 
+    // Runs the selected tab's file in the terminal, as the run button does
+    public void runCurrentFile() {
+        Document document = getDocuments().current();
+        if (document == null) {
+            System.out.println("No file selected.");
+            return;
+        }
+        if (document.getPath() == null) {
+            showErrorDialog("Run", "Save the file before running it.");
+            return;
+        }
+        SplitPane splitPane = (SplitPane) root.getCenter();
+        if (!splitPane.getItems().contains(terminal)) {
+            splitPane.getItems().add(terminal);
+            splitPane.setDividerPositions(0.75);
+        }
+        terminal.showTerminal(document.getPath(), document.getArea().getText());
+        terminal.setVisible(true);
+        terminal.setManaged(true);
+    }
+
+    public CodeArea openFile(Path filePath) {
+        return openFileInEditor(filePath);
+    }
+
     public TabPane getEditorTabPane() {
         if (editorTabPane == null) {
             setupEditorArea();
@@ -140,10 +252,17 @@ public class EditorScreen {
         return editorTabPane;
     }
 
+    public DocumentManager getDocuments() {
+        if (documents == null) {
+            setupEditorArea();
+        }
+        return documents;
+    }
+
     private void updateTheme(Scene scene) {
-        System.out.println("Updating theme: isDarkTheme = " + isDarkTheme);
         scene.getRoot().getStyleClass().removeAll("dark-theme", "light-theme");
         scene.getRoot().getStyleClass().add(isDarkTheme ? "dark-theme" : "light-theme");
+        minimaps.values().forEach(minimap -> minimap.setDarkTheme(isDarkTheme));
     }
 
     private void setupEditorArea() {
@@ -151,6 +270,8 @@ public class EditorScreen {
         editorTabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.ALL_TABS);
         editorTabPane.setTabMinWidth(100);
         editorTabPane.getStyleClass().add("editor-tab-pane");
+        documents = new DocumentManager(editorTabPane);
+        documents.addListener(this::onDocumentEvent);
 
         terminal.setPrefHeight(150);
 
@@ -177,7 +298,7 @@ public class EditorScreen {
         VBox projectToolbar = new VBox();
         projectToolbar.getStyleClass().add("project-toolbar");
 
-        ImageView folderIcon = new ImageView(new Image(getClass().getResourceAsStream("/images/folder.png")));
+        ImageView folderIcon = new ImageView(AppImages.get("/images/folder.png"));
         folderIcon.setFitWidth(16);
         folderIcon.setFitHeight(16);
 
@@ -205,6 +326,30 @@ public class EditorScreen {
 
         });
 
+        // Source control replaces the project tree while it is open
+        if (gitStatus != null) {
+            Button sourceControlBtn = new Button();
+            sourceControlBtn.setGraphic(new FontIcon(MaterialDesignS.SOURCE_BRANCH));
+            sourceControlBtn.setTooltip(new Tooltip("Source Control"));
+            sourceControlBtn.getStyleClass().add("folder-toggle-btn");
+            projectToolbar.getChildren().add(sourceControlBtn);
+
+            sourceControlBtn.setOnAction(e -> {
+                if (sourceControlPanel == null) {
+                    sourceControlPanel = new SourceControlPanel(gitStatus.getProject(), this::openReadOnlyTab);
+                    VBox.setVgrow(sourceControlPanel, Priority.ALWAYS);
+                }
+                boolean showing = directory.getChildren().contains(sourceControlPanel);
+                directory.getChildren().setAll(showing
+                        ? List.of(directoryLabel, projectTree)
+                        : List.of(sourceControlPanel));
+                if (!showing) sourceControlPanel.refresh();
+                directory.setVisible(true);
+                directory.setManaged(true);
+                isVisible.set(true);
+            });
+        }
+
         HBox container = new HBox(projectToolbar, directory);
         leftNav.getChildren().add(container);
         return leftNav;
@@ -214,7 +359,7 @@ public class EditorScreen {
         HBox titleBar = new HBox();
         titleBar.getStyleClass().add("title-bar");
 
-        ImageView logoView = new ImageView(new Image(getClass().getResourceAsStream("/images/logo.png")));
+        ImageView logoView = new ImageView(AppImages.get("/images/logo.png"));
         logoView.setFitHeight(16);
         logoView.setPreserveRatio(true);
 
@@ -270,7 +415,26 @@ public class EditorScreen {
         CheckMenuItem toggleTheme = new CheckMenuItem("Dark Mode");
         MenuItem zoomIn = new MenuItem("Zoom In");
         MenuItem zoomOut = new MenuItem("Zoom Out");
-        viewMenu.getItems().addAll(toggleTerminal, wordWrap, toggleTheme, new SeparatorMenuItem(), zoomIn, zoomOut);
+        CheckMenuItem blame = new CheckMenuItem("Git Blame");
+        MenuItem stats = new MenuItem("Performance Stats");
+        viewMenu.getItems().addAll(toggleTerminal, wordWrap, toggleTheme, blame, new SeparatorMenuItem(), zoomIn, zoomOut,
+                new SeparatorMenuItem(), stats);
+        wordWrap.setSelected(true);
+        wordWrap.setOnAction(e -> getDocuments().setWrapText(wordWrap.isSelected()));
+        stats.setOnAction(e -> {
+            if (statsDialog == null) statsDialog = new StatsDialog(stage);
+            statsDialog.show();
+        });
+
+        // Blame is per tab; the check mark follows the selected tab
+        viewMenu.setOnShowing(e -> {
+            Document document = getDocuments().current();
+            blame.setDisable(gitStatus == null || document == null || document.getPath() == null);
+            blame.setSelected(document != null && blameGutters.containsKey(document));
+            // Files with long lines stay unwrapped
+            wordWrap.setDisable(document != null && document.hasLongLines());
+        });
+        blame.setOnAction(e -> toggleBlame(getDocuments().current(), blame.isSelected()));
 
         toggleTerminal.setOnAction(event -> {
             boolean visible = toggleTerminal.isSelected();
@@ -302,34 +466,27 @@ public class EditorScreen {
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        Button runButton = createTitleBarButton("\u25B6", () -> {
-            Tab selectedTab = editorTabPane.getSelectionModel().getSelectedItem();
-            if (selectedTab != null) {
-                ScrollPane scrollPane = (ScrollPane) selectedTab.getContent();
-                CodeArea area = (CodeArea) scrollPane.getContent();
-                Path filePath = findFileInProject(selectedTab.getText());
-
-                if (filePath != null) {
-                    SplitPane splitPane = (SplitPane) root.getCenter();
-                    if (!splitPane.getItems().contains(terminal)) {
-                        splitPane.getItems().add(terminal);
-                        splitPane.setDividerPositions(0.75);
-                    }
-                    terminal.showTerminal(filePath, area.getText());
-                    terminal.setVisible(true);
-                    terminal.setManaged(true);
-                } else {
-                    System.out.println("File path not found.");
-                }
-            } else {
-                System.out.println("No file selected.");
-            }
-        });
+        Button runButton = createTitleBarButton("\u25B6", this::runCurrentFile);
         Tooltip tooltip = new Tooltip("Click to run the code");
         tooltip.setShowDelay(javafx.util.Duration.millis(100));
         runButton.setTooltip(tooltip);
         runButton.getStyleClass().add("run-button");
 
+        MenuButton runMenu = new MenuButton("Run");
+        MenuItem runFile = new MenuItem("Run Current File");
+        CheckMenuItem warmRunner = new CheckMenuItem("Warm Java Runner");
+        CheckMenuItem pythonKernel = new CheckMenuItem("Persistent Python Kernel");
+        pythonKernel.setSelected(true);
+        MenuItem restartKernel = new MenuItem("Restart Python Kernel");
+        runMenu.getItems().addAll(runFile, new SeparatorMenuItem(), warmRunner, pythonKernel, restartKernel);
+        runFile.setOnAction(e -> runButton.fire());
+        // Java programs run in a long-lived JVM that skips startup on repeated runs
+        warmRunner.setOnAction(e -> terminal.setWarmJavaRunner(warmRunner.isSelected()));
+        // Python scripts share one interpreter so heavy imports stay loaded between runs
+        pythonKernel.setOnAction(e -> terminal.setPythonKernel(pythonKernel.isSelected()));
+        restartKernel.setOnAction(e -> terminal.restartPythonKernel());
+        menuBar.getChildren().add(runMenu);
+
         Button minimizeButton = createTitleBarButton("\uE921", () -> stage.setIconified(true));
         Button maximizeButton = createTitleBarButton("\uE923", () -> stage.setMaximized(!stage.isMaximized()));
         Button closeButton = createTitleBarButton("\uE8BB", stage::close);
@@ -369,116 +526,162 @@ public class EditorScreen {
         return btn;
     }
 
-    private Path findFileInProject(String fileName) {
+    private CodeArea openFileInEditor(Path filePath) {
+        DocumentManager documents = getDocuments();
+        Document document = documents.get(filePath);
+        if (document != null) {
+            documents.select(document);
+            return document.getArea();
+        }
+
+        long openStart = FILE_OPEN.start();
         try {
-            return Files.walk(projectPath)
-                    .filter(Files::isRegularFile)
-                    .filter(p -> p.getFileName().toString().equals(fileName))
-                    .findFirst()
-                    .orElse(null);
+            document = documents.open(filePath);
         } catch (IOException e) {
+            showErrorDialog("File Open Error", "Could not open file: " + e.getMessage());
             return null;
         }
+        FILE_OPEN.stop(openStart);
+        return document.getArea();
     }
 
-    private CodeArea openFileInEditor(Path filePath) {
-        if (editorTabPane == null) {
-            setupEditorArea();
+    // Everything an editor tab needs besides its text: gutters, highlighting, git markers
+    private void onDocumentEvent(DocumentManager.DocumentEvent event) {
+        Document document = event.document();
+        switch (event.type()) {
+            case OPENED -> decorate(document);
+            case RESTORED -> {
+                decorate(document);
+                if (blameOnRestore.remove(document)) toggleBlame(document, true);
+            }
+            case HIBERNATED -> {
+                if (blameGutters.containsKey(document)) blameOnRestore.add(document);
+                undecorate(document);
+            }
+            case CLOSED -> {
+                blameOnRestore.remove(document);
+                undecorate(document);
+            }
+            case SAVED -> {
+                if (gitStatus != null) gitStatus.fileSaved(document.getPath());
+                if (projectWords != null) projectWords.fileSaved(document.getPath());
+            }
+            case RENAMED -> {
+                DiffGutter diffGutter = diffGutters.get(document);
+                if (diffGutter != null) diffGutter.reloadBaseline();
+                // Blame is tied to the file it was started for
+                if (blameGutters.containsKey(document)) toggleBlame(document, true);
+            }
+            case DIRTY_CHANGED -> {
+            }
         }
+    }
 
-        // If tab already open, select it
-        for (Tab tab : editorTabPane.getTabs()) {
-            if (tab.getText().replace("*", "").equals(filePath.getFileName().toString())) {
-                editorTabPane.getSelectionModel().select(tab);
-                return null;
+    private void decorate(Document document) {
+        CodeArea codeArea = document.getArea();
+        GutterFactory gutter = GutterFactory.install(codeArea);
+        gutters.put(document, gutter);
+        if (gitStatus != null) {
+            HeadContentCache headContent = gitStatus.getProject().getHeadContent();
+            diffGutters.put(document, DiffGutter.attach(codeArea, gutter, () ->
+                    document.getPath() == null ? null : headContent.getLineHashes(document.getPath())));
+        }
+        Language language = determineLanguageFromExtension(document.getPath());
+        highlighting.put(document, applySyntaxHighlighting(codeArea, language));
+        // Long-line documents skip bracket matching and folding, like token styling
+        if (!document.hasLongLines()) structures.put(document, EditorStructure.attach(codeArea, gutter, language));
+        if (document.getTab().getContent() instanceof EditorPane pane) {
+            minimaps.put(document, Minimap.attach(pane, isDarkTheme));
+        }
+        if (projectWords != null) {
+            completions.put(document, CompletionPopup.attach(codeArea, projectWords, highlighterMap.get(language).getKeywords()));
+        }
+    }
+
+    // Detaches everything decorate() attached, so a closed or hibernated editor can be collected
+    private void undecorate(Document document) {
+        diagnosticLines.remove(document);
+        Subscription highlight = highlighting.remove(document);
+        if (highlight != null) highlight.unsubscribe();
+        DiffGutter diffGutter = diffGutters.remove(document);
+        if (diffGutter != null) diffGutter.dispose();
+        EditorStructure structure = structures.remove(document);
+        if (structure != null) structure.dispose();
+        Minimap minimap = minimaps.remove(document);
+        if (minimap != null) minimap.dispose();
+        CompletionPopup completion = completions.remove(document);
+        if (completion != null) completion.dispose();
+        toggleBlame(document, false);
+        gutters.remove(document);
+    }
+
+    // Highlights the lines reported by the last compilation of a file; the previous
+    // markers are cleared first so fixed errors disappear on the next run
+    private void showDiagnostics(Path file, List<CompileDiagnostic> diagnostics) {
+        Document document = getDocuments().get(file);
+        if (document == null || document.isHibernated()) return;
+        Path source = file.toAbsolutePath().normalize();
+        CodeArea area = document.getArea();
+
+        List<Integer> previous = diagnosticLines.remove(document);
+        if (previous != null) {
+            for (int line : previous) {
+                if (line < area.getParagraphs().size()) {
+                    setLineMarker(area, line, null);
+                }
             }
         }
 
-        String content;
-        try {
-            content = Files.readString(filePath);
-        } catch (IOException e) {
-            showErrorDialog("File Open Error", "Could not open file: " + e.getMessage());
-            return null;
+        List<Integer> marked = new ArrayList<>();
+        for (CompileDiagnostic diagnostic : diagnostics) {
+            int line = (int) diagnostic.line() - 1;
+            if (!source.equals(diagnostic.source()) || line < 0 || line >= area.getParagraphs().size()) continue;
+            if (diagnostic.kind() == CompileDiagnostic.Kind.NOTE) continue;
+            setLineMarker(area, line, diagnostic.isError() ? "error-line" : "warning-line");
+            marked.add(line);
         }
+        diagnosticLines.put(document, marked);
+    }
 
-        CodeArea codeArea = new CodeArea(content);
-        codeArea.setWrapText(true);
-        codeArea.setParagraphGraphicFactory(LineNumberFactory.get(codeArea));
+    // Replaces a line's diagnostic style, keeping any others (folded lines are "collapse")
+    private void setLineMarker(CodeArea area, int line, String marker) {
+        List<String> styles = new ArrayList<>(area.getParagraph(line).getParagraphStyle());
+        styles.removeAll(List.of("error-line", "warning-line"));
+        if (marker != null) styles.add(marker);
+        area.setParagraphStyle(line, styles);
+    }
 
-        ScrollPane scrollPane = new ScrollPane(codeArea);
-        scrollPane.setFitToHeight(true);
-        scrollPane.setFitToWidth(true);
+    // Shows generated text (commit diffs, ...) in a tab that is not backed by a file
+    private void openReadOnlyTab(String title, String text) {
+        CodeArea codeArea = new CodeArea(text);
+        codeArea.setEditable(false);
+        GutterFactory.install(codeArea);
 
-        Tab tab = new Tab(filePath.getFileName().toString(), scrollPane);
+        Tab tab = new Tab(title, new EditorPane(codeArea, null));
         editorTabPane.getTabs().add(tab);
         editorTabPane.getSelectionModel().select(tab);
+    }
 
-        Language language = determineLanguageFromExtension(filePath);
-        applySyntaxHighlighting(codeArea, language);
-
-        // Handle unsaved file indication
-        codeArea.textProperty().addListener((obs, oldText, newText) -> {
-            if (!newText.equals(content)) {
-                if (!tab.getText().startsWith("*")) {
-                    tab.setText("*" + tab.getText());
-                }
-            } else {
-                if (tab.getText().startsWith("*")) {
-                    tab.setText(tab.getText().substring(1));
-                }
-            }
-        });
-
-        // Set tooltip to show full path
-        Tooltip tooltip = new Tooltip(filePath.toString());
-        tooltip.setShowDelay(javafx.util.Duration.millis(100));
-        Tooltip.install(tab.getGraphic(), tooltip);
-        tab.setTooltip(tooltip);
-
-        // Close tab and cleanup
-        tab.setOnCloseRequest(event -> {
-            // Optionally prompt to save if unsaved
-            if (tab.getText().startsWith("*")) {
-                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                alert.setTitle("Unsaved Changes");
-                alert.setHeaderText("You have unsaved changes in " + filePath.getFileName());
-                alert.setContentText("Do you want to save your changes before closing?");
-                ButtonType save = new ButtonType("Save");
-                ButtonType dontSave = new ButtonType("Don't Save");
-                ButtonType cancel = new ButtonType("Cancel", ButtonBar.ButtonData.CANCEL_CLOSE);
-                alert.getButtonTypes().setAll(save, dontSave, cancel);
-
-                alert.showAndWait().ifPresent(response -> {
-                    if (response == save) {
-                        try {
-                            Files.writeString(filePath, codeArea.getText());
-                        } catch (IOException e) {
-                            showErrorDialog("Save Error", "Failed to save file.");
-                        }
-                    } else if (response == cancel) {
-                        event.consume();
-                    }
-                });
-            }
-        });
-
-        return codeArea;
+    private void toggleBlame(Document document, boolean show) {
+        if (document == null || gitStatus == null) return;
+        BlameGutter current = blameGutters.remove(document);
+        if (current != null) current.detach();
+        if (show && document.getPath() != null && gutters.containsKey(document)) {
+            blameGutters.put(document, BlameGutter.attach(document.getArea(), gutters.get(document),
+                    gitStatus.getProject(), document.getPath()));
+        }
     }
 
     private CodeArea getCurrentCodeArea() {
         if (editorTabPane == null) return null;
         Tab tab = editorTabPane.getSelectionModel().getSelectedItem();
-        if (tab == null) return null;
-
-        // your tab holds a ScrollPane whose content is the CodeArea
-        ScrollPane scroll = (ScrollPane) tab.getContent();
-        return (CodeArea) scroll.getContent();
+        return tab != null && tab.getContent() instanceof EditorPane pane ? pane.getArea() : null;
     }
 
 
 
     private Language determineLanguageFromExtension(Path filePath) {
+        if (filePath == null) return Language.JAVA;
         String filename = filePath.getFileName().toString().toLowerCase();
         if (filename.endsWith(".java")) return Language.JAVA;
         else if (filename.endsWith(".py")) return Language.PYTHON;
@@ -486,45 +689,27 @@ public class EditorScreen {
         else return Language.JAVA;
     }
 
-    private void applySyntaxHighlighting(CodeArea codeArea, Language language) {
-        LanguageHighlighter highlighter = highlighterMap.get(language);
-        if (highlighter == null) return;
+    private Subscription applySyntaxHighlighting(CodeArea codeArea, Language language) {
+        if (!highlighterMap.containsKey(language)) return Subscription.EMPTY;
+        LanguageHighlighter highlighter = new LongLineHighlighter(highlighterMap.get(language));
 
         // Use a duration to debounce syntax highlighting updates
-        codeArea.multiPlainChanges()
+        Subscription subscription = codeArea.multiPlainChanges()
                 .successionEnds(Duration.ofMillis(100))
                 .subscribe(ignore -> {
+                    long start = HIGHLIGHT_PASS.start();
                     String text = codeArea.getText();
                     var styledSpans = highlighter.computeHighlighting(text);
                     codeArea.setStyleSpans(0, styledSpans);
+                    HIGHLIGHT_PASS.stop(start);
                 });
 
         // Optional: apply initial highlighting
+        long start = HIGHLIGHT_PASS.start();
         String initialText = codeArea.getText();
         codeArea.setStyleSpans(0, highlighter.computeHighlighting(initialText));
-    }
-
-
-    private TreeItem<Path> createTreeItem(Path path) {
-        TreeItem<Path> treeItem = new TreeItem<>(path);
-        if (Files.isDirectory(path)) {
-            // Add a dummy child to show expand icon
-            treeItem.getChildren().add(new TreeItem<>(null));
-            // Add expansion listener to load children lazily
-            treeItem.expandedProperty().addListener((obs, wasExpanded, isNowExpanded) -> {
-                if (isNowExpanded && treeItem.getChildren().size() == 1 && treeItem.getChildren().get(0).getValue() == null) {
-                    treeItem.getChildren().clear();
-                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
-                        for (Path entry : stream) {
-                            treeItem.getChildren().add(createTreeItem(entry));
-                        }
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
-            });
-        }
-        return treeItem;
+        HIGHLIGHT_PASS.stop(start);
+        return subscription;
     }
 
 
@@ -1,18 +1,29 @@
 package com.DevScribe.ui.screen;
 
 import com.DevScribe.model.ProjectItem;
+import com.DevScribe.model.ProjectMetadata;
 import com.DevScribe.ui.dialogs.NewProjectHandler;
 import com.DevScribe.ui.dialogs.ProgressDialog;
+import com.DevScribe.utils.AppImages;
+import com.DevScribe.utils.FuzzyMatch;
 import com.DevScribe.utils.GitUtil;
 import com.DevScribe.utils.PathValidator;
+import com.DevScribe.utils.ProjectMetadataLoader;
+import com.DevScribe.utils.ProjectRegistry;
+import com.DevScribe.utils.StartupPipeline;
 import com.DevScribe.utils.ScreenManager;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.*;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
@@ -24,7 +35,10 @@ import javafx.stage.StageStyle;
 import java.io.*;
 import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class LauncherScreen {
     private double xOffset = 0;
@@ -35,14 +49,26 @@ public class LauncherScreen {
     private ListView<ProjectItem> projectListView;
     private ObservableList<ProjectItem> projectList;
     private FilteredList<ProjectItem> filteredList;
+    private SortedList<ProjectItem> sortedList;
+    // Search score of each project for the current query; filled as the filter runs
+    private final Map<ProjectItem, Integer> searchScores = new IdentityHashMap<>();
+    // Bumped when project details arrive; cells showing a project re-read its details
+    private final IntegerProperty metadataVersion = new SimpleIntegerProperty();
     private Stage stage;
+    private boolean listRefreshScheduled = false;
 
     public void start(Stage primaryStage) {
+        start(primaryStage, StartupPipeline.loadProjects());
+    }
+
+    // projects come with their last known metadata; fresh values replace it as they come in
+    public void start(Stage primaryStage, List<ProjectItem> projects) {
         this.stage = primaryStage;
         primaryStage.initStyle(StageStyle.UNDECORATED);
 
-        projectList = FXCollections.observableArrayList(loadProjectList());
+        projectList = FXCollections.observableArrayList(projects);
         filteredList = new FilteredList<>(projectList, p -> true);
+        sortedList = new SortedList<>(filteredList);
 
         root = new BorderPane();
         root.getStyleClass().add("root");
@@ -66,6 +92,85 @@ public class LauncherScreen {
 
         primaryStage.setScene(scene);
         primaryStage.show();
+        refreshMetadata();
+    }
+
+    private void refreshMetadata() {
+        List<Path> paths = projectList.stream().map(item -> item.getPath().toAbsolutePath().normalize()).distinct().toList();
+        ProjectMetadataLoader.refresh(paths, this::metadataLoaded);
+    }
+
+    // Called from the loader's threads
+    private void metadataLoaded(Path path, ProjectMetadata metadata) {
+        Platform.runLater(() -> {
+            for (ProjectItem item : projectList) {
+                if (item.getPath().toAbsolutePath().normalize().equals(path)) {
+                    // Keep the cached details on screen until the complete values arrive
+                    if (metadata.state() != ProjectMetadata.State.PARTIAL || item.getMetadata() == null) {
+                        item.setMetadata(metadata);
+                    }
+                }
+            }
+            scheduleListRefresh();
+        });
+    }
+
+    // Many projects report within the same pulse; update the visible cells once for all of them
+    private void scheduleListRefresh() {
+        if (listRefreshScheduled) return;
+        listRefreshScheduled = true;
+        Platform.runLater(() -> {
+            listRefreshScheduled = false;
+            metadataVersion.set(metadataVersion.get() + 1);
+        });
+    }
+
+    // Projects whose name holds the query's characters in order, best matches first;
+    // ties keep the recent-first order. An empty query shows everything as it was
+    private void search(String query) {
+        String normalized = FuzzyMatch.normalize(query.trim());
+        searchScores.clear();
+        if (normalized.isEmpty()) {
+            filteredList.setPredicate(item -> true);
+            sortedList.setComparator(null);
+            return;
+        }
+        filteredList.setPredicate(item -> searchScores.computeIfAbsent(item,
+                match -> FuzzyMatch.score(match.getSearchName(), normalized)) != FuzzyMatch.NO_MATCH);
+        sortedList.setComparator(Comparator.comparingInt(
+                (ProjectItem item) -> searchScores.getOrDefault(item, 0)).reversed());
+    }
+
+    private static String describe(ProjectMetadata metadata) {
+        if (metadata == null) return "Loading...";
+        return switch (metadata.state()) {
+            case MISSING -> "Folder not found";
+            case UNREACHABLE -> "Not reachable";
+            case PARTIAL -> "Modified " + formatAge(metadata.lastModified());
+            case COMPLETE -> {
+                List<String> parts = new ArrayList<>();
+                if (metadata.language() != null) parts.add(metadata.language());
+                if (metadata.branch() != null) parts.add(metadata.branch() + (metadata.dirty() ? "*" : ""));
+                parts.add(formatSize(metadata.sizeBytes()));
+                parts.add("modified " + formatAge(metadata.lastModified()));
+                yield String.join("  \u00B7  ", parts);
+            }
+        };
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        return String.format("%.1f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+
+    private static String formatAge(long millis) {
+        long minutes = Math.max(0, (System.currentTimeMillis() - millis) / 60_000);
+        if (minutes < 1) return "just now";
+        if (minutes < 60) return minutes + " min ago";
+        if (minutes < 60 * 24) return (minutes / 60) + " h ago";
+        return (minutes / (60 * 24)) + " days ago";
     }
 
     private void toggleTheme() {
@@ -87,7 +192,7 @@ public class LauncherScreen {
         HBox titleBar = new HBox();
         titleBar.getStyleClass().add("title-bar");
 
-        ImageView logoView = new ImageView(new Image(getClass().getResourceAsStream("/images/logo.png")));
+        ImageView logoView = new ImageView(AppImages.get("/images/logo.png"));
         logoView.setFitHeight(16);
         logoView.setPreserveRatio(true);
 
@@ -131,7 +236,7 @@ public class LauncherScreen {
         leftNav.setPrefWidth(250);
         leftNav.getStyleClass().add("left-nav");
 
-        ImageView logo = new ImageView(new Image(getClass().getResourceAsStream("/images/logo.png")));
+        ImageView logo = new ImageView(AppImages.get("/images/logo.png"));
         logo.setFitHeight(50);
         logo.setPreserveRatio(true);
 
@@ -153,75 +258,98 @@ public class LauncherScreen {
         BorderPane contentArea = new BorderPane();
         contentArea.setTop(createToolbar());
 
-        projectListView = new ListView<>(filteredList);
+        projectListView = new ListView<>(sortedList);
         projectListView.getStyleClass().add(isDarkMode ? "project-list-dark" : "project-list-light");
         projectListView.getStyleClass().add("project-list");
 
-        projectListView.setCellFactory(listView -> {
-            ListCell<ProjectItem> cell = new ListCell<>() {
-                @Override
-                protected void updateItem(ProjectItem item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty || item == null) {
-                        setGraphic(null);
-                        setText(null);
-                    } else {
-                        VBox infoBox = new VBox(5);
-                        infoBox.setPadding(new Insets(8));
-                        infoBox.getStyleClass().add("project-list");
+        projectListView.setCellFactory(listView -> new ProjectCell());
 
-                        Label nameLabel = new Label(item.getName());
-                        nameLabel.getStyleClass().add("project-list-label");
+        // The list scrolls itself, so only the rows on screen get cells
+        VBox mainContent = createMainContent();
+        mainContent.getChildren().add(projectListView);
+        VBox.setVgrow(projectListView, Priority.ALWAYS);
 
-                        Label pathLabel = new Label(item.getPath().toString());
-                        pathLabel.getStyleClass().add("project-path");
+        contentArea.setCenter(mainContent);
+        return contentArea;
+    }
 
-                        Button deleteBtn = new Button("❌");
-                        deleteBtn.setStyle("-fx-background-color: transparent; -fx-text-fill: #ff6666; -fx-font-size: 14px;");
-                        deleteBtn.setOnAction(e -> {
-                            projectList.remove(item);
-                            saveProjectList(projectList);
-                        });
+    private VBox createMainContent() {
+        VBox content = new VBox(10);
+        content.setPadding(new Insets(15));
+        content.getStyleClass().add("main-content");
+        return content;
+    }
 
-                        Region spacer = new Region();
-                        HBox.setHgrow(spacer, Priority.ALWAYS);
+    // Builds its nodes once; showing another project only sets their text
+    private class ProjectCell extends ListCell<ProjectItem> {
+        private final VBox infoBox = new VBox(5);
+        private final Label nameLabel = new Label();
+        private final Label pathLabel = new Label();
+        private final Label metadataLabel = new Label();
+        // Held by the cell and registered weakly, so cells the list discards can be collected
+        private final InvalidationListener metadataListener = obs -> {
+            if (!isEmpty() && getItem() != null) showMetadata(getItem().getMetadata());
+        };
+
+        ProjectCell() {
+            infoBox.setPadding(new Insets(8));
+            infoBox.getStyleClass().add("project-list");
+            nameLabel.getStyleClass().add("project-list-label");
+            pathLabel.getStyleClass().add("project-path");
+            metadataLabel.getStyleClass().add("project-path");
+
+            Button deleteBtn = new Button("❌");
+            deleteBtn.setStyle("-fx-background-color: transparent; -fx-text-fill: #ff6666; -fx-font-size: 14px;");
+            deleteBtn.setOnAction(e -> {
+                ProjectItem item = getItem();
+                if (item == null) return;
+                projectList.remove(item);
+                Thread.ofVirtual().name("project-registry").start(() -> ProjectRegistry.remove(item.getPath()));
+            });
 
-                        HBox bottomRow = new HBox(pathLabel, spacer, deleteBtn);
-                        bottomRow.setAlignment(Pos.CENTER_LEFT);
-                        bottomRow.setSpacing(10);
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
 
-                        infoBox.getChildren().addAll(nameLabel, bottomRow);
-                        setGraphic(infoBox);
-                    }
-                }
+            HBox bottomRow = new HBox(pathLabel, spacer, deleteBtn);
+            bottomRow.setAlignment(Pos.CENTER_LEFT);
+            bottomRow.setSpacing(10);
 
-            };
+            infoBox.getChildren().addAll(nameLabel, metadataLabel, bottomRow);
 
-            cell.setOnMouseClicked(event -> {
-                if (event.getClickCount() == 2 && !cell.isEmpty()) {
-                    ProjectItem item = cell.getItem();
-                    ScreenManager.switchToEditor((Stage) listView.getScene().getWindow(), item.getPath());
+            metadataVersion.addListener(new WeakInvalidationListener(metadataListener));
+            setOnMouseClicked(event -> {
+                if (event.getClickCount() == 2 && !isEmpty()) {
+                    ScreenManager.switchToEditor((Stage) getListView().getScene().getWindow(), getItem().getPath());
                 }
             });
-            return cell;
-        });
-
-        VBox mainContent = createMainContent();
-        mainContent.getChildren().add(projectListView);
-
-        ScrollPane scrollPane = new ScrollPane(mainContent);
-        scrollPane.setFitToWidth(true);
-        scrollPane.getStyleClass().add("scroll-content");
+        }
 
-        contentArea.setCenter(scrollPane);
-        return contentArea;
-    }
+        @Override
+        protected void updateItem(ProjectItem item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(null);
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+            nameLabel.setText(item.getName());
+            pathLabel.setText(item.getPath().toString());
+            showMetadata(item.getMetadata());
+            setGraphic(infoBox);
+        }
 
-    private VBox createMainContent() {
-        VBox content = new VBox(10);
-        content.setPadding(new Insets(15));
-        content.getStyleClass().add("com.DevScribe.main-content");
-        return content;
+        private void showMetadata(ProjectMetadata metadata) {
+            metadataLabel.setText(describe(metadata));
+            boolean missing = metadata != null && (metadata.state() == ProjectMetadata.State.MISSING
+                    || metadata.state() == ProjectMetadata.State.UNREACHABLE);
+            if (missing != metadataLabel.getStyleClass().contains("project-missing")) {
+                if (missing) {
+                    metadataLabel.getStyleClass().add("project-missing");
+                } else {
+                    metadataLabel.getStyleClass().remove("project-missing");
+                }
+            }
+        }
     }
 
     private HBox createToolbar() {
@@ -232,11 +360,9 @@ public class LauncherScreen {
         TextField searchField = new TextField();
         searchField.setPromptText("Search projects...");
         searchField.getStyleClass().add("search-field");
-        searchField.textProperty().addListener((obs, oldVal, newVal) -> {
-            filteredList.setPredicate(item -> item.getName().toLowerCase().contains(newVal.toLowerCase()));
-        });
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> search(newVal));
 
-        ImageView searchIcon = new ImageView(new Image(getClass().getResourceAsStream("/images/search.png")));
+        ImageView searchIcon = new ImageView(AppImages.get("/images/search.png"));
         searchIcon.setFitHeight(16);
         searchIcon.setPreserveRatio(true);
 
@@ -280,64 +406,115 @@ public class LauncherScreen {
         });
 
         Button cloneBtn = createToolbarButton("Clone Repository");
-        cloneBtn.setOnAction(e -> {
-            TextInputDialog urlDialog = new TextInputDialog();
-            urlDialog.setTitle("Clone Git Repository");
-            urlDialog.setHeaderText("Enter the Git Repository URL to clone:");
-            urlDialog.setContentText("Repository URL:");
-
-            urlDialog.showAndWait().ifPresent(url -> {
-                if (url.isEmpty()) {
-                    showError("Repository URL cannot be empty.");
-                    return;
-                }
+        cloneBtn.setOnAction(e -> showCloneDialog());
 
-                DirectoryChooser dirChooser = new DirectoryChooser();
-                dirChooser.setTitle("Select Folder to Clone Repository Into");
-                File selectedDir = dirChooser.showDialog(stage);
-                if (selectedDir == null) {
-                    showError("No folder selected for cloning.");
-                    return;
-                }
+        toolbar.getChildren().addAll(searchBox, new Separator(Orientation.VERTICAL), newProjectBtn, openBtn, cloneBtn);
+        return toolbar;
+    }
 
-                String folderName = extractRepoNameFromUrl(url);
-                File cloneDir = new File(selectedDir, folderName);
+    private void showCloneDialog() {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Clone Git Repository");
+        dialog.setHeaderText("Enter the Git Repository URL to clone:");
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        TextField urlField = new TextField();
+        urlField.setPromptText("https://github.com/user/repo.git");
+        TextField branchField = new TextField();
+        branchField.setPromptText("default branch");
+        CheckBox shallowBox = new CheckBox("Latest commit only (shallow)");
+        CheckBox singleBranchBox = new CheckBox("Only this branch");
+        TextField sparseField = new TextField();
+        sparseField.setPromptText("e.g. src, docs/README.md (empty = everything)");
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(8);
+        grid.addRow(0, new Label("Repository URL:"), urlField);
+        grid.addRow(1, new Label("Branch:"), branchField);
+        grid.addRow(2, new Label("History:"), shallowBox);
+        grid.addRow(3, new Label(""), singleBranchBox);
+        grid.addRow(4, new Label("Only these paths:"), sparseField);
+        GridPane.setHgrow(urlField, Priority.ALWAYS);
+        urlField.setPrefWidth(320);
+        dialog.getDialogPane().setContent(grid);
+
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+        String url = urlField.getText().trim();
+        if (url.isEmpty()) {
+            showError("Repository URL cannot be empty.");
+            return;
+        }
 
-                ProgressDialog progressDialog = new ProgressDialog(stage, "Cloning Repository...");
-                progressDialog.show();
+        List<String> sparsePaths = new ArrayList<>();
+        for (String path : sparseField.getText().split(",")) {
+            if (!path.isBlank()) sparsePaths.add(path.trim());
+        }
+        String branch = branchField.getText().trim();
+        GitUtil.CloneOptions options = new GitUtil.CloneOptions(
+                shallowBox.isSelected() ? 1 : 0,
+                branch.isEmpty() ? null : branch,
+                singleBranchBox.isSelected() || shallowBox.isSelected(),
+                sparsePaths);
+
+        DirectoryChooser dirChooser = new DirectoryChooser();
+        dirChooser.setTitle("Select Folder to Clone Repository Into");
+        File selectedDir = dirChooser.showDialog(stage);
+        if (selectedDir == null) {
+            showError("No folder selected for cloning.");
+            return;
+        }
 
-                GitUtil.cloneRepository(url, cloneDir, new GitUtil.CloneProgressListener() {
-                    @Override
-                    public void onProgress(String task, int completed, int total) {
-                        double prog = total > 0 ? (double) completed / total : -1;
-                        javafx.application.Platform.runLater(() -> {
-                            progressDialog.setMessage(task);
-                            progressDialog.setProgress(prog);
-                        });
-                    }
+        String folderName = extractRepoNameFromUrl(url);
+        File cloneDir = new File(selectedDir, folderName);
+
+        ProgressDialog progressDialog = new ProgressDialog(stage, "Cloning Repository...");
+        progressDialog.show();
+
+        GitUtil.CloneHandle handle = GitUtil.cloneRepository(url, cloneDir, options, new GitUtil.CloneProgressListener() {
+            @Override
+            public void onProgress(GitUtil.CloneProgress progress) {
+                String detail = progress.total() > 0
+                        ? progress.completed() + " / " + progress.total()
+                        : Integer.toString(progress.completed());
+                detail += String.format(" (%.0f/s)", progress.itemsPerSecond());
+                if (progress.bytesReceived() > 0) {
+                    detail += String.format(" \u2022 %.1f MiB, %.1f MiB/s",
+                            progress.bytesReceived() / 1048576.0, progress.bytesPerSecond() / 1048576.0);
+                }
+                String text = detail;
+                javafx.application.Platform.runLater(() -> {
+                    progressDialog.setMessage(progress.task());
+                    progressDialog.setProgress(progress.fraction());
+                    progressDialog.setDetail(text);
+                });
+            }
 
-                    @Override
-                    public void onCompleted() {
-                        javafx.application.Platform.runLater(() -> {
-                            progressDialog.close();
-                            addProjectToList(folderName, cloneDir.getAbsolutePath());
-                            new EditorScreen().start(stage, cloneDir.toPath(), isDarkMode);
-                        });
-                    }
+            @Override
+            public void onCompleted() {
+                javafx.application.Platform.runLater(() -> {
+                    progressDialog.close();
+                    addProjectToList(folderName, cloneDir.getAbsolutePath());
+                    new EditorScreen().start(stage, cloneDir.toPath(), isDarkMode);
+                });
+            }
 
-                    @Override
-                    public void onFailed(Exception e) {
-                        javafx.application.Platform.runLater(() -> {
-                            progressDialog.close();
-                            showError("Failed to clone repository:\n" + e.getMessage());
-                        });
-                    }
+            @Override
+            public void onCancelled() {
+                javafx.application.Platform.runLater(progressDialog::close);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                javafx.application.Platform.runLater(() -> {
+                    progressDialog.close();
+                    showError("Failed to clone repository:\n" + e.getMessage());
                 });
-            });
+            }
         });
-
-        toolbar.getChildren().addAll(searchBox, new Separator(Orientation.VERTICAL), newProjectBtn, openBtn, cloneBtn);
-        return toolbar;
+        progressDialog.setOnCancel(handle::cancel);
     }
 
     private String extractRepoNameFromUrl(String url) {
@@ -354,38 +531,13 @@ public class LauncherScreen {
         return button;
     }
 
+    // The registry entry itself is written when the editor opens the project
     private void addProjectToList(String name, String path) {
-        ProjectItem item = new ProjectItem(name, Paths.get(path));
-        projectList.add(item);
-        saveProjectList(projectList);
-    }
-
-    private List<ProjectItem> loadProjectList() {
-        List<ProjectItem> items = new ArrayList<>();
-        File file = new File("projects.txt");
-        if (file.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    Path path = Paths.get(line);
-                    items.add(new ProjectItem(path.getFileName().toString(), path));
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return items;
-    }
-
-    private void saveProjectList(List<ProjectItem> list) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("projects.txt"))) {
-            for (ProjectItem item : list) {
-                writer.write(item.getPath().toString());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Path projectPath = Paths.get(path).toAbsolutePath().normalize();
+        projectList.removeIf(item -> item.getPath().toAbsolutePath().normalize().equals(projectPath));
+        projectList.add(0, new ProjectItem(name, projectPath));
+        // Only the new project is read; the others keep what they have
+        ProjectMetadataLoader.refreshProject(projectPath, this::metadataLoaded);
     }
 
     private void showError(String message) {
@@ -1,7 +1,7 @@
 package com.DevScribe.ui.screen;
 
+import com.DevScribe.utils.AppImages;
 import javafx.animation.FadeTransition;
-import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.image.ImageView;
@@ -10,12 +10,16 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Duration;
 
+// Shown while the startup pipeline runs; the caller closes it as soon as the launcher is ready
 public class SplashScreen {
-    public void show(Stage splashStage, Runnable onFinish) {
+    private Stage splashStage;
+
+    public void show(Stage splashStage) {
+        this.splashStage = splashStage;
         VBox root = new VBox(20);
         root.setStyle("-fx-background-color: #23232B; -fx-alignment: center; -fx-padding: 40;");
 
-        ImageView logo = new ImageView("/images/logo.png");
+        ImageView logo = new ImageView(AppImages.get("/images/logo.png"));
         logo.setFitHeight(80);
         logo.setPreserveRatio(true);
 
@@ -34,22 +38,16 @@ public class SplashScreen {
         splashStage.setAlwaysOnTop(true);
         splashStage.show();
 
-        FadeTransition fade = new FadeTransition(Duration.seconds(2), root);
+        // Purely cosmetic: closing does not wait for the fade
+        FadeTransition fade = new FadeTransition(Duration.millis(200), root);
         fade.setFromValue(0.0);
         fade.setToValue(1.0);
-        fade.setOnFinished(e -> {
-            // Wait 2 more seconds, then call the main app
-            new Thread(() -> {
-                try {
-                    Thread.sleep(2000);
-                    Platform.runLater(() -> {
-                        splashStage.close();
-                        onFinish.run(); // Launch EditorScreen
-                    });
-                } catch (InterruptedException ignored) {}
-            }).start();
-        });
         fade.play();
     }
-}
 
+    public void close() {
+        if (splashStage != null) {
+            splashStage.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.DevScribe.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+// Locations for DevScribe's own files, kept out of the user's project directories
+public class AppDirs {
+
+    private static final String APP_DIR_NAME = ".devscribe";
+
+    public static Path getAppDir() {
+        return Paths.get(System.getProperty("user.home"), APP_DIR_NAME);
+    }
+
+    // Per-project scratch space (build output, caches), keyed by the project's absolute path
+    public static Path getProjectCacheDir(Path projectPath) {
+        Path absolute = projectPath.toAbsolutePath().normalize();
+        String key = UUID.nameUUIDFromBytes(absolute.toString().getBytes(StandardCharsets.UTF_8)).toString();
+        Path fileName = absolute.getFileName();
+        String name = fileName == null ? "root" : fileName.toString();
+        return getAppDir().resolve("projects").resolve(name + "-" + key.substring(0, 8));
+    }
+
+    public static Path ensureDirectory(Path dir) {
+        try {
+            Files.createDirectories(dir);
+        } catch (Exception e) {
+            System.err.println("Could not create directory " + dir + ": " + e.getMessage());
+        }
+        return dir;
+    }
+}
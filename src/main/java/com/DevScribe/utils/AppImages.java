@@ -0,0 +1,16 @@
+package com.DevScribe.utils;
+
+import javafx.scene.image.Image;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bundled images, decoded once and shared by every screen. Images may be decoded on any
+// thread, so the startup pipeline preloads them in the background.
+public class AppImages {
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+
+    public static Image get(String resource) {
+        return IMAGES.computeIfAbsent(resource, path -> new Image(AppImages.class.getResourceAsStream(path)));
+    }
+}
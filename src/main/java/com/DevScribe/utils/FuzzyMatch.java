@@ -0,0 +1,51 @@
+package com.DevScribe.utils;
+
+import java.util.Locale;
+
+// Scores how well a search query matches a name, both normalized with normalize(). A
+// name containing the query as one piece ranks above any scattered match, earlier and
+// tighter matches rank higher, and a name missing any of the query's characters (in
+// order) does not match at all.
+public final class FuzzyMatch {
+    public static final int NO_MATCH = -1;
+
+    private FuzzyMatch() {
+    }
+
+    public static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    public static int score(String name, String query) {
+        if (query.isEmpty()) return 0;
+        int index = name.indexOf(query);
+        if (index >= 0) {
+            int score = 10_000 - index * 10 - (name.length() - query.length());
+            if (index == 0) score += 5_000;
+            else if (isBoundary(name, index)) score += 2_500;
+            return score;
+        }
+        // Characters of the query in order, each as early as possible
+        int score = 0;
+        int previous = -2;
+        int position = 0;
+        for (int i = 0; i < query.length(); i++) {
+            int found = name.indexOf(query.charAt(i), position);
+            if (found < 0) return NO_MATCH;
+            score += 10;
+            if (found == previous + 1) score += 5;
+            if (isBoundary(name, found)) score += 15;
+            score -= found - position;
+            previous = found;
+            position = found + 1;
+        }
+        return Math.max(0, score);
+    }
+
+    // The start of a word: the beginning of the name or just after a separator
+    private static boolean isBoundary(String name, int index) {
+        if (index == 0) return true;
+        char before = name.charAt(index - 1);
+        return before == ' ' || before == '-' || before == '_' || before == '.';
+    }
+}
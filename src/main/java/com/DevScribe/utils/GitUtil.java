@@ -2,67 +2,318 @@ package com.DevScribe.utils;
 
 import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.dircache.Checkout;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheCheckout.CheckoutMetadata;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.ProgressMonitor;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.TreeWalk.OperationType;
+import org.eclipse.jgit.treewalk.WorkingTreeOptions;
+import org.eclipse.jgit.util.FileUtils;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 public class GitUtil {
 
+    // Minimum time between two progress reports within the same phase
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L;
+
     public interface CloneProgressListener {
-        void onProgress(String task, int completed, int total);
+        void onProgress(CloneProgress progress);
         void onCompleted();
+        void onCancelled();
         void onFailed(Exception e);
     }
 
-    public static void cloneRepository(String uri, File directory, CloneProgressListener listener) {
-        new Thread(() -> {
+    // Progress of the current clone phase ("Receiving objects", "Resolving deltas", ...).
+    // total is 0 when the phase has no known size. bytesReceived only grows while pack
+    // data is being downloaded.
+    public record CloneProgress(String task, int completed, int total, double itemsPerSecond,
+                                long bytesReceived, double bytesPerSecond) {
+        public double fraction() {
+            return total > 0 ? Math.min(1.0, (double) completed / total) : -1;
+        }
+    }
+
+    // depth 0 clones the full history; branch null uses the remote's default branch.
+    // With sparsePaths only those files and folders are written to the working tree; the
+    // rest stay in the index, marked assume-unchanged, so they don't show up as deleted.
+    public record CloneOptions(int depth, String branch, boolean singleBranch, List<String> sparsePaths) {
+        public static final CloneOptions FULL = new CloneOptions(0, null, false, List.of());
+
+        public CloneOptions {
+            sparsePaths = sparsePaths == null ? List.of() : List.copyOf(sparsePaths);
+        }
+
+        public static CloneOptions shallow(int depth) {
+            return new CloneOptions(depth, null, true, List.of());
+        }
+    }
+
+    public static class CloneHandle {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private volatile Thread worker;
+
+        // Stops the clone at the next progress update, or at once if it is blocked on the network
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                Thread thread = worker;
+                if (thread != null) thread.interrupt();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    public static CloneHandle cloneRepository(String uri, File directory, CloneOptions options,
+                                              CloneProgressListener listener) {
+        CloneHandle handle = new CloneHandle();
+        handle.worker = Thread.ofVirtual().name("git-clone").unstarted(() -> {
             try {
-                CloneCommand cloneCommand = Git.cloneRepository()
-                        .setURI(uri)
-                        .setDirectory(directory)
-                        .setProgressMonitor(new ProgressMonitor() {
-                            private int totalTasks = 0;
-                            private int completedTasks = 0;
-
-                            @Override
-                            public void start(int totalTasks) {
-                                this.totalTasks = totalTasks;
-                                this.completedTasks = 0;
-                            }
-
-                            @Override
-                            public void beginTask(String title, int totalWork) {
-                                listener.onProgress(title, 0, totalWork);
-                            }
-
-                            @Override
-                            public void update(int completed) {
-                                completedTasks += completed;
-                                listener.onProgress("Cloning", completedTasks, totalTasks);
-                            }
-
-                            @Override
-                            public void endTask() {
-                            }
-
-                            @Override
-                            public boolean isCancelled() {
-                                return false;
-                            }
-
-                            @Override
-                            public void showDuration(boolean enabled) {
-                                // Not needed, so leave empty
-                            }
-                        });
-
-                try (Git git = cloneCommand.call()) {
+                cloneRepositorySync(uri, directory, options, listener, handle);
+                if (handle.isCancelled()) {
+                    listener.onCancelled();
+                } else {
                     listener.onCompleted();
                 }
             } catch (Exception e) {
-                listener.onFailed(e);
+                if (handle.isCancelled()) {
+                    listener.onCancelled();
+                } else {
+                    listener.onFailed(e);
+                }
             }
-        }).start();
+        });
+        handle.worker.start();
+        return handle;
     }
-}
 
+    // Clones on the calling thread. On failure or cancellation (InterruptedException) a
+    // directory created by the clone is removed again. A clone is not resumed: git transfers
+    // the pack as one stream with no offset to continue from, so a retry starts over.
+    public static void cloneRepositorySync(String uri, File directory, CloneOptions options,
+                                           CloneProgressListener listener, CloneHandle handle) throws Exception {
+        boolean existedBefore = directory.exists() && !isEmptyDirectory(directory);
+        if (existedBefore) {
+            throw new IOException("Destination already exists and is not empty: " + directory);
+        }
+        boolean createdByClone = !directory.exists();
+
+        PhaseMonitor monitor = new PhaseMonitor(listener, handle, new File(directory, Constants.DOT_GIT));
+        CloneCommand cloneCommand = Git.cloneRepository()
+                .setURI(uri)
+                .setDirectory(directory)
+                .setProgressMonitor(monitor)
+                .setNoCheckout(!options.sparsePaths().isEmpty());
+        if (options.depth() > 0) {
+            cloneCommand.setDepth(options.depth());
+        }
+        if (options.branch() != null && !options.branch().isBlank()) {
+            cloneCommand.setBranch(options.branch());
+        }
+        if (options.singleBranch()) {
+            String branch = options.branch() != null && !options.branch().isBlank()
+                    ? options.branch() : remoteDefaultBranch(uri);
+            if (branch != null) {
+                String ref = branch.startsWith(Constants.R_REFS) ? branch : Constants.R_HEADS + branch;
+                cloneCommand.setBranch(ref);
+                cloneCommand.setBranchesToClone(List.of(ref));
+                cloneCommand.setTagOption(TagOpt.NO_TAGS);
+            }
+        }
+
+        try (Git git = cloneCommand.call()) {
+            if (!options.sparsePaths().isEmpty()) {
+                sparseCheckout(git.getRepository(), options.sparsePaths(), monitor);
+            }
+            if (handle.isCancelled()) {
+                throw new InterruptedException("Clone cancelled");
+            }
+        } catch (Exception e) {
+            if (createdByClone) {
+                deletePartialClone(directory);
+            } else {
+                // Directory was an empty folder picked by the user: empty it again
+                try (Stream<Path> children = Files.list(directory.toPath())) {
+                    children.forEach(child -> deletePartialClone(child.toFile()));
+                } catch (IOException cleanupError) {
+                    e.addSuppressed(cleanupError);
+                }
+            }
+            // JGit reports an abort in whatever step noticed it; callers get one cancellation type
+            if (handle.isCancelled() && !(e instanceof InterruptedException)) {
+                InterruptedException cancelled = new InterruptedException("Clone cancelled");
+                cancelled.initCause(e);
+                throw cancelled;
+            }
+            throw e;
+        }
+    }
+
+    // The branch the remote's HEAD points to, found with a single ls-remote round trip
+    private static String remoteDefaultBranch(String uri) throws Exception {
+        Ref head = Git.lsRemoteRepository().setRemote(uri).callAsMap().get(Constants.HEAD);
+        return head != null && head.isSymbolic() ? head.getTarget().getName() : null;
+    }
+
+    private static void sparseCheckout(Repository repository, List<String> sparsePaths, PhaseMonitor monitor)
+            throws IOException, InterruptedException {
+        ObjectId tree = repository.resolve(Constants.HEAD + "^{tree}");
+        if (tree == null) return; // empty repository
+
+        DirCache index = repository.lockDirCache();
+        try (ObjectReader reader = repository.newObjectReader(); TreeWalk walk = new TreeWalk(repository, reader)) {
+            DirCacheBuilder builder = index.builder();
+            walk.addTree(tree);
+            walk.setRecursive(true);
+            // .gitattributes decide line endings and smudge filters, as in a regular checkout
+            walk.setAttributesNodeProvider(repository.createAttributesNodeProvider());
+            Checkout checkout = new Checkout(repository, repository.getConfig().get(WorkingTreeOptions.KEY));
+            monitor.beginTask("Checking out sparse paths", ProgressMonitor.UNKNOWN);
+            while (walk.next()) {
+                if (monitor.isCancelled()) {
+                    throw new InterruptedException("Clone cancelled");
+                }
+                String path = walk.getPathString();
+                DirCacheEntry entry = new DirCacheEntry(path);
+                entry.setFileMode(walk.getFileMode(0));
+                entry.setObjectId(walk.getObjectId(0));
+                if (isInSparsePaths(path, sparsePaths)) {
+                    CheckoutMetadata metadata = new CheckoutMetadata(walk.getEolStreamType(OperationType.CHECKOUT_OP),
+                            walk.getFilterCommand(Constants.ATTR_FILTER_TYPE_SMUDGE));
+                    checkout.checkout(entry, metadata, reader, null);
+                    monitor.update(1);
+                } else {
+                    entry.setAssumeValid(true);
+                }
+                builder.add(entry);
+            }
+            monitor.endTask();
+            builder.commit();
+        } finally {
+            index.unlock();
+        }
+    }
+
+    private static boolean isInSparsePaths(String path, List<String> sparsePaths) {
+        for (String sparse : sparsePaths) {
+            String prefix = sparse.replace('\\', '/');
+            while (prefix.startsWith("/")) prefix = prefix.substring(1);
+            while (prefix.endsWith("/")) prefix = prefix.substring(0, prefix.length() - 1);
+            if (prefix.isEmpty() || path.equals(prefix) || path.startsWith(prefix + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEmptyDirectory(File directory) {
+        String[] children = directory.list();
+        return children != null && children.length == 0;
+    }
+
+    private static void deletePartialClone(File file) {
+        try {
+            FileUtils.delete(file, FileUtils.RECURSIVE | FileUtils.SKIP_MISSING | FileUtils.RETRY);
+        } catch (IOException e) {
+            System.err.println("Could not remove partial clone " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Reports each JGit task on its own: update() is relative to the current task, so
+    // counts are kept per task instead of being summed across the whole clone
+    private static class PhaseMonitor implements ProgressMonitor {
+        private final CloneProgressListener listener;
+        private final CloneHandle handle;
+        private final File objectsDir;
+        private String task = "Cloning";
+        private int total;
+        private int completed;
+        private long phaseStart;
+        private long lastReport;
+        private long phaseStartBytes;
+        private long bytesReceived;
+
+        PhaseMonitor(CloneProgressListener listener, CloneHandle handle, File gitDir) {
+            this.listener = listener;
+            this.handle = handle;
+            this.objectsDir = new File(gitDir, "objects");
+        }
+
+        @Override
+        public void start(int totalTasks) {
+        }
+
+        @Override
+        public void beginTask(String title, int totalWork) {
+            task = title;
+            total = totalWork == UNKNOWN ? 0 : totalWork;
+            completed = 0;
+            phaseStart = System.nanoTime();
+            phaseStartBytes = bytesReceived;
+            report(true);
+        }
+
+        @Override
+        public void update(int increment) {
+            completed += increment;
+            report(false);
+        }
+
+        @Override
+        public void endTask() {
+            report(true);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return handle.isCancelled();
+        }
+
+        @Override
+        public void showDuration(boolean enabled) {
+        }
+
+        private void report(boolean force) {
+            long now = System.nanoTime();
+            if (!force && now - lastReport < PROGRESS_INTERVAL_NANOS) return;
+            lastReport = now;
+
+            if (task.startsWith("Receiving")) {
+                // JGit streams the incoming pack to a temp file in objects/ (moved to
+                // objects/pack when done), so its size is the number of bytes downloaded
+                bytesReceived = Math.max(bytesReceived,
+                        directorySize(objectsDir) + directorySize(new File(objectsDir, "pack")));
+            }
+            double seconds = Math.max(1e-3, (now - phaseStart) / 1e9);
+            listener.onProgress(new CloneProgress(task, completed, total, completed / seconds,
+                    bytesReceived, (bytesReceived - phaseStartBytes) / seconds));
+        }
+
+        private static long directorySize(File dir) {
+            File[] files = dir.listFiles();
+            if (files == null) return 0;
+            long size = 0;
+            for (File file : files) {
+                if (file.isFile()) size += file.length();
+            }
+            return size;
+        }
+    }
+}
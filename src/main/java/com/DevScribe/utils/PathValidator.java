@@ -1,6 +1,8 @@
 package com.DevScribe.utils;
 
 import javafx.scene.control.Alert;
+
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -22,6 +24,18 @@ public class PathValidator {
         return true;
     }
 
+    // Same file, same path: symlinks, "..", trailing separators and case-insensitive
+    // file systems all resolve to one path
+    public static Path canonical(Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        try {
+            return absolute.toRealPath();
+        } catch (IOException e) {
+            // Gone or unreachable; the normalized path still dedupes the common cases
+            return absolute;
+        }
+    }
+
     private static void showErrorDialog(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -13,7 +13,7 @@ public class ProcessStreamer {
     private final InputStream stderr;
     private final Consumer<String> textConsumer;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
     private volatile boolean running = false;
 
     public ProcessStreamer(InputStream stdout, InputStream stderr, Consumer<String> textConsumer) {
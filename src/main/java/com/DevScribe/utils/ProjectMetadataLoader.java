@@ -0,0 +1,217 @@
+package com.DevScribe.utils;
+
+import com.DevScribe.model.ProjectMetadata;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+// Metadata for the launcher's project list. The last known values are kept in a small
+// binary file so the list renders at once; fresh values are then read on one virtual
+// thread per project and reported as they arrive. A project whose path does not answer
+// in time (e.g. a network mount that is offline) is reported as unreachable; its thread
+// is left to finish on its own instead of holding up the others.
+public class ProjectMetadataLoader {
+    private static final int FORMAT_VERSION = 1;
+    private static final long TIMEOUT_MS = 5_000;
+    // Walking stops after this many files; size and language of huge trees are estimates
+    private static final int MAX_FILES = 20_000;
+    public static final Set<String> SKIPPED_DIRS = Set.of(".git", "node_modules", "target", "build", "out",
+            ".idea", ".gradle", "venv", ".venv", "__pycache__");
+    private static final Map<String, String> LANGUAGES = Map.ofEntries(
+            Map.entry("java", "Java"), Map.entry("py", "Python"), Map.entry("c", "C"), Map.entry("h", "C"),
+            Map.entry("cpp", "C++"), Map.entry("hpp", "C++"), Map.entry("cc", "C++"), Map.entry("kt", "Kotlin"),
+            Map.entry("js", "JavaScript"), Map.entry("ts", "TypeScript"), Map.entry("go", "Go"),
+            Map.entry("rs", "Rust"), Map.entry("cs", "C#"), Map.entry("rb", "Ruby"), Map.entry("php", "PHP"));
+
+    private static final Path CACHE_FILE = AppDirs.getAppDir().resolve("project-metadata.bin");
+
+    // Last known metadata by absolute project path; empty when there is no cache yet
+    public static Map<Path, ProjectMetadata> loadCached() {
+        Map<Path, ProjectMetadata> cached = new HashMap<>();
+        if (!Files.isRegularFile(CACHE_FILE)) return cached;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(CACHE_FILE)))) {
+            if (in.readInt() != FORMAT_VERSION) return cached;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Path path = Paths.get(in.readUTF());
+                ProjectMetadata.State state = ProjectMetadata.State.values()[in.readByte()];
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                String branch = in.readUTF();
+                boolean dirty = in.readBoolean();
+                String language = in.readUTF();
+                long checkedAt = in.readLong();
+                cached.put(path, new ProjectMetadata(state, size, lastModified, branch.isEmpty() ? null : branch,
+                        dirty, language.isEmpty() ? null : language, checkedAt));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable project metadata cache: " + e.getMessage());
+        }
+        return cached;
+    }
+
+    public static synchronized void saveCached(Map<Path, ProjectMetadata> metadata) {
+        try {
+            AppDirs.ensureDirectory(CACHE_FILE.getParent());
+            Path temp = Files.createTempFile(CACHE_FILE.getParent(), "project-metadata", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(metadata.size());
+                for (Map.Entry<Path, ProjectMetadata> entry : metadata.entrySet()) {
+                    ProjectMetadata value = entry.getValue();
+                    out.writeUTF(entry.getKey().toString());
+                    out.writeByte(value.state().ordinal());
+                    out.writeLong(value.sizeBytes());
+                    out.writeLong(value.lastModified());
+                    out.writeUTF(value.branch() == null ? "" : value.branch());
+                    out.writeBoolean(value.dirty());
+                    out.writeUTF(value.language() == null ? "" : value.language());
+                    out.writeLong(value.checkedAt());
+                }
+            }
+            Files.move(temp, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not save project metadata cache: " + e.getMessage());
+        }
+    }
+
+    // Cached entries of other projects stay as they are
+    private static synchronized void mergeCached(Map<Path, ProjectMetadata> metadata) {
+        Map<Path, ProjectMetadata> cached = loadCached();
+        cached.putAll(metadata);
+        saveCached(cached);
+    }
+
+    // Reads metadata for every project concurrently. listener is called from background
+    // threads, possibly twice per project (PARTIAL, then the final state). The returned
+    // future completes when every project has a final state; the fresh values are saved
+    // to the cache by then, replacing the entries of projects no longer listed.
+    public static CompletableFuture<Map<Path, ProjectMetadata>> refresh(List<Path> projects,
+                                                                       BiConsumer<Path, ProjectMetadata> listener) {
+        return refresh(projects, listener, true);
+    }
+
+    // Reads a single project, such as one just added, and adds it to the cache
+    public static CompletableFuture<ProjectMetadata> refreshProject(Path project,
+                                                                    BiConsumer<Path, ProjectMetadata> listener) {
+        return refresh(List.of(project), listener, false).thenApply(results -> results.get(project));
+    }
+
+    private static CompletableFuture<Map<Path, ProjectMetadata>> refresh(List<Path> projects,
+                                                                        BiConsumer<Path, ProjectMetadata> listener,
+                                                                        boolean replaceCache) {
+        Map<Path, ProjectMetadata> results = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (Path project : projects) {
+            // Only the first answer from the path is timed: once it responds, a slow scan or
+            // git status is just slow, not unreachable
+            CompletableFuture<Void> reachable = new CompletableFuture<>();
+            BiConsumer<Path, ProjectMetadata> partial = (path, metadata) -> {
+                reachable.complete(null);
+                if (!results.containsKey(path)) listener.accept(path, metadata);
+            };
+            CompletableFuture<ProjectMetadata> task = CompletableFuture.supplyAsync(() -> read(project, partial), executor);
+            task.whenComplete((metadata, error) -> reachable.complete(null));
+            CompletableFuture<ProjectMetadata> result = reachable
+                    .orTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .thenCompose(ignored -> task)
+                    .exceptionally(e -> ProjectMetadata.unreachable());
+            tasks.add(result.thenAccept(metadata -> {
+                results.put(project, metadata);
+                listener.accept(project, metadata);
+            }));
+        }
+        // Threads stuck on a dead mount keep running, but no new work is accepted
+        executor.shutdown();
+        return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            if (replaceCache) {
+                saveCached(results);
+            } else {
+                mergeCached(results);
+            }
+            return results;
+        });
+    }
+
+    private static ProjectMetadata read(Path project, BiConsumer<Path, ProjectMetadata> listener) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(project, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return ProjectMetadata.missing();
+        }
+        if (!attributes.isDirectory()) return ProjectMetadata.missing();
+        listener.accept(project, new ProjectMetadata(ProjectMetadata.State.PARTIAL, 0,
+                attributes.lastModifiedTime().toMillis(), null, false, null, System.currentTimeMillis()));
+
+        TreeSummary summary = summarize(project);
+        String branch = null;
+        boolean dirty = false;
+        FileRepositoryBuilder builder = new FileRepositoryBuilder().findGitDir(project.toFile());
+        if (builder.getGitDir() != null) {
+            try (Repository repository = builder.build(); Git git = new Git(repository)) {
+                branch = repository.getBranch();
+                dirty = !git.status().call().isClean();
+            } catch (Exception e) {
+                System.err.println("Could not read git state of " + project + ": " + e.getMessage());
+            }
+        }
+        return new ProjectMetadata(ProjectMetadata.State.COMPLETE, summary.size,
+                Math.max(attributes.lastModifiedTime().toMillis(), summary.lastModified), branch, dirty,
+                summary.language(), System.currentTimeMillis());
+    }
+
+    private static class TreeSummary {
+        long size;
+        long lastModified;
+        int files;
+        final Map<String, Integer> languageFiles = new HashMap<>();
+
+        String language() {
+            return languageFiles.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null);
+        }
+    }
+
+    private static TreeSummary summarize(Path project) {
+        TreeSummary summary = new TreeSummary();
+        try {
+            Files.walkFileTree(project, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    Path name = dir.getFileName();
+                    if (!dir.equals(project) && name != null && SKIPPED_DIRS.contains(name.toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    summary.size += attrs.size();
+                    summary.lastModified = Math.max(summary.lastModified, attrs.lastModifiedTime().toMillis());
+                    String name = file.getFileName().toString();
+                    int dot = name.lastIndexOf('.');
+                    String language = dot < 0 ? null : LANGUAGES.get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+                    if (language != null) summary.languageFiles.merge(language, 1, Integer::sum);
+                    return ++summary.files >= MAX_FILES ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Could not scan " + project + ": " + e.getMessage());
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,182 @@
+package com.DevScribe.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The recently opened projects, shared by every running DevScribe instance. The list
+// lives in ~/.devscribe/projects.registry and is only ever replaced whole (write to a
+// temp file, then atomic rename), so readers never see a half-written file and need no
+// lock. Changes are read-modify-write under an exclusive lock on a separate lock file,
+// so two instances adding projects at the same time don't lose each other's entries.
+// The file is capped at MAX_ENTRIES, so reading it costs the same however long the
+// history gets.
+public class ProjectRegistry {
+    private static final String HEADER = "devscribe-projects 1";
+    private static final int MAX_ENTRIES = 200;
+    // Opens lose half their weight in the ranking every two weeks
+    private static final double HALF_LIFE_MS = 14L * 24 * 60 * 60 * 1000;
+    // File locks are held per process; threads of this instance queue here first
+    private static final ReentrantLock PROCESS_LOCK = new ReentrantLock();
+
+    // score is the decayed open count as of lastOpened; use rank() to compare entries
+    public record Entry(Path path, long lastOpened, int openCount, double score) {
+        public String name() {
+            Path fileName = path.getFileName();
+            return fileName == null ? path.toString() : fileName.toString();
+        }
+
+        // Frecency: frequently opened projects rank high, but old habits fade
+        public double rank(long now) {
+            return score * Math.pow(0.5, Math.max(0, now - lastOpened) / HALF_LIFE_MS);
+        }
+    }
+
+    private static Path registryFile() {
+        return AppDirs.getAppDir().resolve("projects.registry");
+    }
+
+    private static Path lockFile() {
+        return AppDirs.getAppDir().resolve("projects.lock");
+    }
+
+    // Projects ordered by rank, best first
+    public static List<Entry> load() {
+        Path file = registryFile();
+        if (!Files.exists(file)) {
+            migrateLegacyList();
+        }
+        List<Entry> entries = read(file);
+        long now = System.currentTimeMillis();
+        entries.sort(Comparator.comparingDouble((Entry entry) -> entry.rank(now)).reversed());
+        return entries;
+    }
+
+    // Records that a project was opened: adds it if needed and moves it up the ranking
+    public static void recordOpened(Path project) {
+        Path key = canonical(project);
+        long now = System.currentTimeMillis();
+        update(entries -> {
+            Entry previous = entries.remove(key);
+            double score = previous == null ? 1 : previous.rank(now) + 1;
+            int count = previous == null ? 1 : previous.openCount() + 1;
+            entries.put(key, new Entry(key, now, count, score));
+        });
+    }
+
+    public static void remove(Path project) {
+        Path key = canonical(project);
+        update(entries -> entries.remove(key));
+    }
+
+    // Same folder, same entry
+    static Path canonical(Path project) {
+        return PathValidator.canonical(project);
+    }
+
+    private interface Change {
+        void apply(Map<Path, Entry> entries);
+    }
+
+    private static void update(Change change) {
+        AppDirs.ensureDirectory(AppDirs.getAppDir());
+        PROCESS_LOCK.lock();
+        try (FileChannel channel = FileChannel.open(lockFile(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                Map<Path, Entry> entries = new LinkedHashMap<>();
+                for (Entry entry : read(registryFile())) {
+                    entries.merge(entry.path(), entry, ProjectRegistry::mergeDuplicates);
+                }
+                change.apply(entries);
+                write(new ArrayList<>(entries.values()));
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not update the project list: " + e.getMessage());
+        } finally {
+            PROCESS_LOCK.unlock();
+        }
+    }
+
+    private static Entry mergeDuplicates(Entry a, Entry b) {
+        Entry newer = a.lastOpened() >= b.lastOpened() ? a : b;
+        return new Entry(newer.path(), newer.lastOpened(), a.openCount() + b.openCount(),
+                a.rank(newer.lastOpened()) + b.rank(newer.lastOpened()));
+    }
+
+    private static List<Entry> read(Path file) {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isRegularFile(file)) return entries;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) return entries;
+            String line;
+            while ((line = reader.readLine()) != null && entries.size() < MAX_ENTRIES) {
+                // The path goes last so tabs inside it survive the split
+                String[] fields = line.split("\t", 4);
+                if (fields.length < 4) continue;
+                try {
+                    entries.add(new Entry(Paths.get(fields[3]), Long.parseLong(fields[0]),
+                            Integer.parseInt(fields[1]), Double.parseDouble(fields[2])));
+                } catch (RuntimeException e) {
+                    // Skip a damaged line rather than losing the whole list
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read the project list: " + e.getMessage());
+        }
+        return entries;
+    }
+
+    // Keeps the MAX_ENTRIES best-ranked projects, in rank order
+    private static void write(List<Entry> entries) throws IOException {
+        long now = System.currentTimeMillis();
+        entries.sort(Comparator.comparingDouble((Entry entry) -> entry.rank(now)).reversed());
+        Path file = registryFile();
+        Path temp = Files.createTempFile(file.getParent(), "projects", ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Entry entry : entries.subList(0, Math.min(MAX_ENTRIES, entries.size()))) {
+                    writer.write(entry.lastOpened() + "\t" + entry.openCount() + "\t" + entry.score() + "\t" + entry.path());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Earlier versions kept the list in projects.txt in the working directory; import it
+    // once, oldest first, so the ranking starts out in the old order
+    private static void migrateLegacyList() {
+        Path legacy = Paths.get("projects.txt");
+        if (!Files.isRegularFile(legacy)) return;
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(legacy, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Could not import projects.txt: " + e.getMessage());
+            return;
+        }
+        update(entries -> {
+            if (!entries.isEmpty()) return; // another instance migrated first
+            long time = System.currentTimeMillis() - lines.size();
+            for (String line : lines) {
+                if (line.isBlank()) continue;
+                Path key = canonical(Paths.get(line.trim()));
+                Entry previous = entries.remove(key);
+                entries.put(key, new Entry(key, ++time, previous == null ? 1 : previous.openCount() + 1, 1));
+            }
+        });
+    }
+}
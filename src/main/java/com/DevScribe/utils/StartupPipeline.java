@@ -0,0 +1,104 @@
+package com.DevScribe.utils;
+
+import com.DevScribe.editor.highlighting.CHighlighter;
+import com.DevScribe.editor.highlighting.JavaHighlighter;
+import com.DevScribe.editor.highlighting.LanguageHighlighter;
+import com.DevScribe.editor.highlighting.PythonHighlighter;
+import com.DevScribe.metrics.Metrics;
+import com.DevScribe.model.ProjectItem;
+import com.DevScribe.model.ProjectMetadata;
+import javafx.css.CssParser;
+import org.kordamp.ikonli.javafx.FontIcon;
+import org.kordamp.ikonli.materialdesign2.MaterialDesignF;
+import org.kordamp.ikonli.materialdesign2.MaterialDesignS;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Work done while the splash screen is up. The phases don't depend on each other, so
+// they run side by side on virtual threads; the splash closes when the slowest one is
+// done instead of after a fixed delay. Each phase logs how long it took.
+public class StartupPipeline {
+    private static final String[] STYLESHEETS = {"/css/launcher.css", "/css/editor.css", "/css/terminal.css"};
+    private static final String[] IMAGES = {"/images/logo.png", "/images/search.png", "/images/folder.png"};
+
+    // What the launcher needs to render its first frame
+    public record Result(List<ProjectItem> projects) {
+    }
+
+    public static CompletableFuture<Result> run() {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        CompletableFuture<List<ProjectItem>> projects = phase(executor, "project list", StartupPipeline::loadProjects);
+        CompletableFuture<?> stylesheets = phase(executor, "stylesheets", () -> {
+            // Loads and warms up the CSS parser and converters; the scenes parse the
+            // (small) files again against a warm parser
+            CssParser parser = new CssParser();
+            for (String stylesheet : STYLESHEETS) {
+                try {
+                    parser.parse(StartupPipeline.class.getResource(stylesheet));
+                } catch (Exception e) {
+                    System.err.println("Could not preload " + stylesheet + ": " + e.getMessage());
+                }
+            }
+            return null;
+        });
+        CompletableFuture<?> icons = phase(executor, "icon font", () -> {
+            // The first FontIcon resolves the icon pack and loads its font
+            new FontIcon(MaterialDesignF.FOLDER);
+            new FontIcon(MaterialDesignS.SOURCE_BRANCH);
+            return null;
+        });
+        CompletableFuture<?> images = phase(executor, "images", () -> {
+            for (String image : IMAGES) AppImages.get(image);
+            return null;
+        });
+        CompletableFuture<?> highlighters = phase(executor, "highlighters", () -> {
+            // Compiles the highlighting patterns and runs them once
+            List<LanguageHighlighter> all = List.of(new JavaHighlighter(), new PythonHighlighter(), new CHighlighter());
+            for (LanguageHighlighter highlighter : all) {
+                highlighter.computeHighlighting("class A { int b = 1; } // \"c\"\n");
+            }
+            return null;
+        });
+        executor.shutdown();
+
+        return CompletableFuture.allOf(projects, stylesheets, icons, images, highlighters)
+                .handle((ignored, error) -> {
+                    System.out.printf("[startup] background phases done in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+                    // A failed phase only loses its warm-up; the project list falls back to empty
+                    return new Result(projects.isCompletedExceptionally() ? new ArrayList<>() : projects.join());
+                });
+    }
+
+    private static <T> CompletableFuture<T> phase(ExecutorService executor, String name, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return work.get();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                Metrics.timer("startup." + name.replace(' ', '-')).record(elapsed);
+                System.out.printf("[startup] %s: %d ms%n", name, elapsed / 1_000_000);
+            }
+        }, executor);
+    }
+
+    public static List<ProjectItem> loadProjects() {
+        Map<Path, ProjectMetadata> cached = ProjectMetadataLoader.loadCached();
+        List<ProjectItem> items = new ArrayList<>();
+        for (ProjectRegistry.Entry entry : ProjectRegistry.load()) {
+            ProjectItem item = new ProjectItem(entry.name(), entry.path());
+            item.setMetadata(cached.get(entry.path().toAbsolutePath().normalize()));
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,232 @@
+# DevScribe persistent Python kernel, started by PythonKernel.
+# Runs scripts on request in a fresh __main__ namespace while third-party modules
+# imported by earlier runs stay loaded. Project modules are dropped before each run
+# so edits to them are picked up.
+import _thread
+import importlib
+import io
+import os
+import queue
+import runpy
+import socket
+import struct
+import sys
+import threading
+import traceback
+
+RUN, STDIN, STDIN_EOF, INTERRUPT, STDOUT, STDERR, EXIT, HELLO = 1, 2, 3, 4, 5, 6, 7, 8
+
+# Frames from these files are hidden from tracebacks; runpy may be frozen
+KERNEL_FILES = {os.path.abspath(__file__), os.path.abspath(runpy.__file__), "<frozen runpy>"}
+
+
+class Channel:
+    def __init__(self, sock):
+        self.sock = sock
+        self.lock = threading.Lock()
+
+    def send(self, kind, payload):
+        with self.lock:
+            self.sock.sendall(struct.pack(">BI", kind, len(payload)) + payload)
+
+    def _recv_exact(self, size):
+        data = b""
+        while len(data) < size:
+            chunk = self.sock.recv(size - len(data))
+            if not chunk:
+                raise EOFError
+            data += chunk
+        return data
+
+    def recv(self):
+        kind, length = struct.unpack(">BI", self._recv_exact(5))
+        return kind, self._recv_exact(length)
+
+
+class FrameWriter(io.TextIOBase):
+    encoding = "utf-8"
+
+    def __init__(self, channel, kind):
+        self.channel = channel
+        self.kind = kind
+
+    def writable(self):
+        return True
+
+    def write(self, text):
+        if text:
+            self.channel.send(self.kind, text.encode("utf-8", "replace"))
+        return len(text)
+
+    def isatty(self):
+        return False
+
+
+class FrameReader(io.TextIOBase):
+    encoding = "utf-8"
+
+    def __init__(self):
+        self.cond = threading.Condition()
+        self.buffer = ""
+        self.eof = False
+
+    def feed(self, text):
+        with self.cond:
+            self.buffer += text
+            self.cond.notify_all()
+
+    def close_input(self):
+        with self.cond:
+            self.eof = True
+            self.cond.notify_all()
+
+    def readable(self):
+        return True
+
+    def isatty(self):
+        return False
+
+    def _wait(self, ready):
+        # Short waits keep the main thread responsive to interrupt_main()
+        while not ready() and not self.eof:
+            self.cond.wait(0.1)
+
+    def readline(self, size=-1):
+        with self.cond:
+            self._wait(lambda: "\n" in self.buffer)
+            index = self.buffer.find("\n")
+            end = index + 1 if index >= 0 else len(self.buffer)
+            if size is not None and 0 <= size < end:
+                end = size
+            line, self.buffer = self.buffer[:end], self.buffer[end:]
+            return line
+
+    def read(self, size=-1):
+        with self.cond:
+            if size is None or size < 0:
+                self._wait(lambda: False)
+                data, self.buffer = self.buffer, ""
+            else:
+                self._wait(lambda: len(self.buffer) >= size)
+                data, self.buffer = self.buffer[:size], self.buffer[size:]
+            return data
+
+
+class Kernel:
+    def __init__(self, channel):
+        self.channel = channel
+        self.runs = queue.Queue()
+        self.stdin = None
+        self.running = False
+
+    def read_commands(self):
+        try:
+            while True:
+                kind, payload = self.channel.recv()
+                if kind == RUN:
+                    self.runs.put(payload.decode("utf-8").split("\0"))
+                elif kind == STDIN and self.stdin is not None:
+                    self.stdin.feed(payload.decode("utf-8", "replace"))
+                elif kind == STDIN_EOF and self.stdin is not None:
+                    self.stdin.close_input()
+                elif kind == INTERRUPT and self.running:
+                    _thread.interrupt_main()
+        except (EOFError, OSError):
+            self.runs.put(None)
+
+    def serve(self):
+        reader = threading.Thread(target=self.read_commands, name="devscribe-kernel", daemon=True)
+        reader.start()
+        while True:
+            request = self.runs.get()
+            if request is None:
+                os._exit(0)
+            code, missing = self.run(*request)
+            self.channel.send(EXIT, f"{code}\0{missing}".encode("utf-8"))
+
+    def run(self, path, cwd, project_root):
+        purge_project_modules(project_root)
+        importlib.invalidate_caches()
+
+        saved = (sys.stdin, sys.stdout, sys.stderr, sys.argv, list(sys.path), os.getcwd())
+        self.stdin = FrameReader()
+        sys.stdin = self.stdin
+        sys.stdout = FrameWriter(self.channel, STDOUT)
+        sys.stderr = FrameWriter(self.channel, STDERR)
+        sys.argv = [path]
+        sys.path.insert(0, os.path.dirname(path))
+
+        code, missing = 0, ""
+        self.running = True
+        try:
+            os.chdir(cwd)
+            runpy.run_path(path, run_name="__main__")
+            wait_for_threads()
+        except SystemExit as e:
+            code = exit_code(e)
+        except KeyboardInterrupt as e:
+            print_user_traceback(e)
+            code = 130
+        except BaseException as e:
+            if isinstance(e, ModuleNotFoundError) and e.name:
+                missing = e.name.split(".")[0]
+            print_user_traceback(e)
+            code = 1
+        finally:
+            self.running = False
+            sys.stdout.flush()
+            sys.stderr.flush()
+            sys.stdin, sys.stdout, sys.stderr, sys.argv, saved_path, saved_cwd = saved
+            sys.path[:] = saved_path
+            os.chdir(saved_cwd)
+            self.stdin = None
+        return code, missing
+
+
+def purge_project_modules(project_root):
+    root = os.path.normcase(os.path.abspath(project_root)) + os.sep
+    for name, module in list(sys.modules.items()):
+        file = getattr(module, "__file__", None)
+        if file and os.path.normcase(os.path.abspath(file)).startswith(root):
+            del sys.modules[name]
+
+
+def wait_for_threads():
+    # Like interpreter shutdown, a run ends when its non-daemon threads do
+    for thread in threading.enumerate():
+        if thread is not threading.main_thread() and not thread.daemon:
+            thread.join()
+
+
+def exit_code(e):
+    if e.code is None:
+        return 0
+    if isinstance(e.code, int):
+        return e.code
+    print(e.code, file=sys.stderr)
+    return 1
+
+
+def is_kernel_frame(filename):
+    return filename in KERNEL_FILES or os.path.abspath(filename) in KERNEL_FILES
+
+
+def print_user_traceback(e):
+    tb = e.__traceback__
+    while tb is not None and is_kernel_frame(tb.tb_frame.f_code.co_filename):
+        tb = tb.tb_next
+    traceback.print_exception(type(e), e, tb)
+
+
+def main():
+    port, token = int(sys.argv[1]), sys.argv[2]
+    channel = Channel(socket.create_connection(("127.0.0.1", port)))
+    channel.send(HELLO, token.encode("utf-8"))
+    # The kernel's own folder must not shadow modules of the scripts it runs
+    kernel_dir = os.path.dirname(os.path.abspath(__file__))
+    sys.path[:] = [p for p in sys.path if os.path.abspath(p or ".") != kernel_dir]
+    Kernel(channel).serve()
+
+
+if __name__ == "__main__":
+    main()
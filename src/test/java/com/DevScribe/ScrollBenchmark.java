@@ -0,0 +1,101 @@
+package com.DevScribe;
+
+import com.DevScribe.editor.EditorPane;
+import com.DevScribe.editor.gutter.GutterFactory;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.ScrollPane;
+import javafx.stage.Stage;
+import org.fxmisc.richtext.CodeArea;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Scrolls a 100k-line file from top to bottom and times the layout of every step, once
+// in an EditorPane and once in the plain ScrollPane editors used to be wrapped in. A
+// step that lays out in well under a frame (16 ms) leaves room for painting. The
+// scroll-benchmark build profile runs it headless (Monocle, software rendering); on
+// Linux JavaFX still needs Pango installed for text layout.
+public class ScrollBenchmark {
+    private static final int LINES = 100_000;
+    private static final int STEPS = 200;
+    private static final int WARMUP_STEPS = 50;
+
+    public static void main(String[] args) {
+        String text = sampleText();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Platform.startup(() -> {
+            try {
+                measure("EditorPane", text, area -> new EditorPane(area, null));
+                measure("ScrollPane", text, area -> {
+                    ScrollPane scrollPane = new ScrollPane(area);
+                    scrollPane.setFitToHeight(true);
+                    scrollPane.setFitToWidth(true);
+                    return scrollPane;
+                });
+                done.complete(null);
+            } catch (Throwable e) {
+                done.completeExceptionally(e);
+            }
+        });
+        int status = 0;
+        try {
+            done.get(2, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            // A toolkit that fails to start natively never runs the benchmark at all
+            System.err.println("[bench] failed: " + e);
+            status = 1;
+        }
+        System.exit(status);
+    }
+
+    private static void measure(String label, String text, Function<CodeArea, Parent> host) {
+        CodeArea area = new CodeArea(text);
+        area.setWrapText(true);
+        GutterFactory.install(area);
+        Parent root = host.apply(area);
+        Stage stage = new Stage();
+        stage.setScene(new Scene(root, 1200, 800));
+        stage.show();
+
+        long start = System.nanoTime();
+        root.applyCss();
+        root.layout();
+        long firstLayout = System.nanoTime() - start;
+
+        int stride = LINES / STEPS;
+        long[] steps = new long[STEPS];
+        for (int i = -WARMUP_STEPS; i < STEPS; i++) {
+            int paragraph = Math.floorMod(i, STEPS) * stride;
+            start = System.nanoTime();
+            area.showParagraphAtTop(paragraph);
+            root.applyCss();
+            root.layout();
+            if (i >= 0) steps[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(steps);
+        System.out.printf("[bench] %s: first layout %.1f ms, scroll step median %.2f ms, p95 %.2f ms, max %.2f ms%n",
+                label, millis(firstLayout), millis(steps[STEPS / 2]), millis(steps[STEPS * 95 / 100]), millis(steps[STEPS - 1]));
+        stage.close();
+    }
+
+    private static String sampleText() {
+        StringBuilder text = new StringBuilder(LINES * 48);
+        for (int i = 0; i < LINES; i++) {
+            switch (i % 4) {
+                case 0 -> text.append("    // Line ").append(i).append(" of the benchmark file\n");
+                case 1 -> text.append("    int value").append(i).append(" = compute(").append(i).append(", \"text\");\n");
+                case 2 -> text.append("    if (value").append(i - 1).append(" > limit) { total += value").append(i - 1).append("; }\n");
+                default -> text.append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
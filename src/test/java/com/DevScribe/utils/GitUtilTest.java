@@ -0,0 +1,189 @@
+package com.DevScribe.utils;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Clones a bare repository built in a temp directory over file://: three commits on
+// main, one more on a feature branch, and a tag
+class GitUtilTest {
+    private static final PersonIdent AUTHOR = new PersonIdent("Test", "test@example.com");
+
+    @TempDir
+    Path temp;
+
+    private String uri;
+
+    @BeforeEach
+    void createRemote() throws Exception {
+        Path work = temp.resolve("work");
+        try (Git git = Git.init().setDirectory(work.toFile()).setInitialBranch("main").call()) {
+            commit(git, work, "a/x.txt", "one\n");
+            commit(git, work, "b/y.txt", "two\n");
+            commit(git, work, "a/z.txt", "three\n");
+            git.tag().setName("v1").setTagger(AUTHOR).setMessage("v1").call();
+            git.checkout().setCreateBranch(true).setName("feature").call();
+            commit(git, work, "c/feature.txt", "four\n");
+            git.checkout().setName("main").call();
+        }
+        Path bare = temp.resolve("remote.git");
+        Git.cloneRepository().setURI(work.toUri().toString()).setDirectory(bare.toFile())
+                .setBare(true).setCloneAllBranches(true).call().close();
+        uri = "file://" + bare.toAbsolutePath();
+    }
+
+    private static void commit(Git git, Path work, String path, String content) throws Exception {
+        Path file = work.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        git.add().addFilepattern(path).call();
+        git.commit().setMessage("Add " + path).setAuthor(AUTHOR).setCommitter(AUTHOR).call();
+    }
+
+    @Test
+    void fullCloneHasHistoryBranchesAndTags() throws Exception {
+        File dir = temp.resolve("full").toFile();
+        GitUtil.cloneRepositorySync(uri, dir, GitUtil.CloneOptions.FULL, new Listener(), new GitUtil.CloneHandle());
+        try (Git git = Git.open(dir)) {
+            assertEquals(3, countCommits(git));
+            assertNotNull(git.getRepository().findRef(Constants.R_REMOTES + "origin/feature"));
+            assertNotNull(git.getRepository().findRef(Constants.R_TAGS + "v1"));
+        }
+        assertTrue(new File(dir, "b/y.txt").isFile());
+    }
+
+    @Test
+    void shallowCloneFetchesOnlyTheRequestedDepth() throws Exception {
+        File dir = temp.resolve("shallow").toFile();
+        GitUtil.cloneRepositorySync(uri, dir, GitUtil.CloneOptions.shallow(1), new Listener(), new GitUtil.CloneHandle());
+        try (Git git = Git.open(dir)) {
+            assertEquals(1, countCommits(git));
+            assertTrue(new File(git.getRepository().getDirectory(), "shallow").isFile());
+        }
+        assertTrue(new File(dir, "a/z.txt").isFile());
+    }
+
+    @Test
+    void singleBranchCloneSkipsOtherBranchesAndTags() throws Exception {
+        File dir = temp.resolve("single").toFile();
+        GitUtil.CloneOptions options = new GitUtil.CloneOptions(0, null, true, List.of());
+        GitUtil.cloneRepositorySync(uri, dir, options, new Listener(), new GitUtil.CloneHandle());
+        try (Git git = Git.open(dir)) {
+            Repository repository = git.getRepository();
+            assertEquals("main", repository.getBranch());
+            assertNotNull(repository.findRef(Constants.R_REMOTES + "origin/main"));
+            assertNull(repository.findRef(Constants.R_REMOTES + "origin/feature"));
+            assertTrue(repository.getRefDatabase().getRefsByPrefix(Constants.R_TAGS).isEmpty());
+        }
+    }
+
+    @Test
+    void singleBranchCloneOfNamedBranch() throws Exception {
+        File dir = temp.resolve("feature").toFile();
+        GitUtil.CloneOptions options = new GitUtil.CloneOptions(0, "feature", true, List.of());
+        GitUtil.cloneRepositorySync(uri, dir, options, new Listener(), new GitUtil.CloneHandle());
+        try (Git git = Git.open(dir)) {
+            assertEquals("feature", git.getRepository().getBranch());
+            assertNull(git.getRepository().findRef(Constants.R_REMOTES + "origin/main"));
+        }
+        assertTrue(new File(dir, "c/feature.txt").isFile());
+    }
+
+    @Test
+    void sparseCloneWritesOnlySelectedPathsAndKeepsTheRestInTheIndex() throws Exception {
+        File dir = temp.resolve("sparse").toFile();
+        GitUtil.CloneOptions options = new GitUtil.CloneOptions(0, null, false, List.of("a"));
+        GitUtil.cloneRepositorySync(uri, dir, options, new Listener(), new GitUtil.CloneHandle());
+
+        assertEquals("one\n", Files.readString(dir.toPath().resolve("a/x.txt")));
+        assertTrue(new File(dir, "a/z.txt").isFile());
+        assertFalse(new File(dir, "b").exists());
+        try (Git git = Git.open(dir)) {
+            DirCache index = git.getRepository().readDirCache();
+            assertFalse(index.getEntry("a/x.txt").isAssumeValid());
+            assertTrue(index.getEntry("b/y.txt").isAssumeValid());
+            // Paths left out of the working tree don't show up as deleted
+            assertTrue(git.status().call().isClean());
+        }
+    }
+
+    @Test
+    void cancelledCloneRemovesTheDirectoryItCreated() {
+        File dir = temp.resolve("cancelled").toFile();
+        GitUtil.CloneHandle handle = new GitUtil.CloneHandle();
+        Listener listener = new Listener() {
+            @Override
+            public void onProgress(GitUtil.CloneProgress progress) {
+                super.onProgress(progress);
+                handle.cancel();
+            }
+        };
+        assertThrows(InterruptedException.class,
+                () -> GitUtil.cloneRepositorySync(uri, dir, GitUtil.CloneOptions.FULL, listener, handle));
+        assertFalse(listener.progress.isEmpty());
+        assertFalse(dir.exists());
+    }
+
+    @Test
+    void cancelledCloneEmptiesAChosenEmptyDirectory() throws Exception {
+        Path dir = Files.createDirectory(temp.resolve("chosen"));
+        GitUtil.CloneHandle handle = new GitUtil.CloneHandle();
+        handle.cancel();
+        assertThrows(InterruptedException.class,
+                () -> GitUtil.cloneRepositorySync(uri, dir.toFile(), GitUtil.CloneOptions.FULL, new Listener(), handle));
+        assertTrue(Files.isDirectory(dir));
+        try (Stream<Path> children = Files.list(dir)) {
+            assertEquals(0, children.count());
+        }
+    }
+
+    @Test
+    void refusesANonEmptyDestination() throws Exception {
+        Path dir = Files.createDirectory(temp.resolve("occupied"));
+        Files.writeString(dir.resolve("keep.txt"), "keep");
+        assertThrows(Exception.class, () -> GitUtil.cloneRepositorySync(uri, dir.toFile(),
+                GitUtil.CloneOptions.FULL, new Listener(), new GitUtil.CloneHandle()));
+        assertTrue(Files.exists(dir.resolve("keep.txt")));
+    }
+
+    private static int countCommits(Git git) throws Exception {
+        int count = 0;
+        for (var ignored : git.log().call()) count++;
+        return count;
+    }
+
+    private static class Listener implements GitUtil.CloneProgressListener {
+        final List<GitUtil.CloneProgress> progress = new ArrayList<>();
+
+        @Override
+        public void onProgress(GitUtil.CloneProgress progress) {
+            this.progress.add(progress);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+
+        @Override
+        public void onCancelled() {
+        }
+
+        @Override
+        public void onFailed(Exception e) {
+        }
+    }
+}